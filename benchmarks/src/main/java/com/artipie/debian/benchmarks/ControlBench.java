@@ -0,0 +1,209 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.benchmarks;
+
+import com.artipie.asto.misc.UncheckedIOScalar;
+import com.artipie.debian.metadata.Control;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveException;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.ArchiveStreamFactory;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link com.artipie.debian.metadata.Control.FromInputStream}: compares reading
+ * control with early termination against reading through all the package archive members.
+ * Packages are read from streams which can not skip bytes, as storage content streams do.
+ * @since 0.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class ControlBench {
+
+    /**
+     * Benchmark directory.
+     */
+    private static final String BENCH_DIR = System.getenv("BENCH_DIR");
+
+    /**
+     * Debian packages bytes.
+     */
+    private List<byte[]> debs;
+
+    @Setup
+    public void setup() throws IOException {
+        if (ControlBench.BENCH_DIR == null) {
+            throw new IllegalStateException("BENCH_DIR environment variable must be set");
+        }
+        try (Stream<Path> files = Files.list(Paths.get(ControlBench.BENCH_DIR))) {
+            this.debs = files.filter(path -> path.toString().endsWith(".deb")).map(
+                path -> new UncheckedIOScalar<>(() -> Files.readAllBytes(path)).value()
+            ).collect(Collectors.toList());
+        }
+    }
+
+    @Benchmark
+    public void earlyTermination(final Blackhole bhl) {
+        for (final byte[] deb : this.debs) {
+            bhl.consume(
+                new Control.FromInputStream(new NonSkipping(new ByteArrayInputStream(deb)))
+                    .asString()
+            );
+        }
+    }
+
+    @Benchmark
+    public void fullScan(final Blackhole bhl) {
+        for (final byte[] deb : this.debs) {
+            bhl.consume(
+                ControlBench.readAllMembers(new NonSkipping(new ByteArrayInputStream(deb)))
+            );
+        }
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(ControlBench.class.getSimpleName())
+                .forks(1)
+                .build()
+        ).run();
+    }
+
+    /**
+     * Previous control reading implementation: all archive members are iterated.
+     * @param pkg Package input stream
+     * @return Control
+     */
+    @SuppressWarnings("PMD.AssignmentInOperand")
+    private static String readAllMembers(final InputStream pkg) {
+        Optional<String> res = Optional.empty();
+        try (
+            ArchiveInputStream input = new ArchiveStreamFactory().createArchiveInputStream(
+                new BufferedInputStream(pkg)
+            )
+        ) {
+            ArchiveEntry entry;
+            while ((entry = input.getNextEntry()) != null) {
+                if (input.canReadEntryData(entry) && entry.getName().startsWith("control")) {
+                    res = Optional.of(ControlBench.unpackTar(ControlBench.stream(input, entry)));
+                }
+            }
+        } catch (final ArchiveException | IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return res.orElseThrow(() -> new IllegalStateException("Control not found"));
+    }
+
+    /**
+     * Decompressing stream for the control archive.
+     * @param input Archive input
+     * @param entry Control archive entry
+     * @return Input stream
+     * @throws IOException On error
+     */
+    private static InputStream stream(final ArchiveInputStream input, final ArchiveEntry entry)
+        throws IOException {
+        final InputStream res;
+        if (entry.getName().endsWith("gz")) {
+            res = new GzipCompressorInputStream(input);
+        } else if (entry.getName().endsWith("xz")) {
+            res = new XZCompressorInputStream(input);
+        } else {
+            res = new ZstdCompressorInputStream(input);
+        }
+        return res;
+    }
+
+    /**
+     * Reads control file from control tar.
+     * @param input Control tar stream
+     * @return Control file
+     * @throws IOException On error
+     */
+    @SuppressWarnings("PMD.AssignmentInOperand")
+    private static String unpackTar(final InputStream input) throws IOException {
+        final TarArchiveInputStream tar = new TarArchiveInputStream(input);
+        TarArchiveEntry entry;
+        while ((entry = (TarArchiveEntry) tar.getNextEntry()) != null) {
+            if (entry.isFile() && "./control".equals(entry.getName())) {
+                return IOUtils.toString(tar, StandardCharsets.UTF_8);
+            }
+        }
+        throw new IllegalStateException("Control not found");
+    }
+
+    /**
+     * Input stream which reads the bytes to skip them.
+     * @since 0.9
+     */
+    private static final class NonSkipping extends FilterInputStream {
+
+        /**
+         * Ctor.
+         * @param origin Origin stream
+         */
+        NonSkipping(final InputStream origin) {
+            super(origin);
+        }
+
+        @Override
+        public long skip(final long num) throws IOException {
+            final byte[] buf = new byte[8192];
+            long left = num;
+            while (left > 0) {
+                final int cnt = this.read(buf, 0, (int) Math.min(left, buf.length));
+                if (cnt < 0) {
+                    break;
+                }
+                left = left - cnt;
+            }
+            return num - left;
+        }
+    }
+}
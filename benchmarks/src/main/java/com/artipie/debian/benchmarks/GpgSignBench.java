@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.benchmarks;
+
+import com.artipie.debian.misc.GpgClearsign;
+import com.artipie.debian.misc.SigningKeys;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link GpgClearsign}: signs Release index with the signing key taken from the
+ * {@link SigningKeys} cache (`cached=true`) or parsing and unlocking the key ring for each
+ * signature (`cached=false`).
+ * @since 0.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class GpgSignBench {
+
+    /**
+     * Benchmark directory.
+     */
+    private static final String BENCH_DIR = System.getenv("BENCH_DIR");
+
+    /**
+     * Whether signing keys are cached.
+     */
+    @Param({"true", "false"})
+    public boolean cached;
+
+    /**
+     * Secret key ring bytes.
+     */
+    private byte[] ring;
+
+    /**
+     * Key ring password.
+     */
+    private String pass;
+
+    /**
+     * Release index bytes.
+     */
+    private byte[] release;
+
+    /**
+     * Signing keys cache.
+     */
+    private SigningKeys keys;
+
+    @Setup
+    public void setup() throws IOException {
+        if (GpgSignBench.BENCH_DIR == null) {
+            throw new IllegalStateException("BENCH_DIR environment variable must be set");
+        }
+        this.ring = Files.readAllBytes(Paths.get(GpgSignBench.BENCH_DIR, "secret-keys.gpg"));
+        this.release = Files.readAllBytes(Paths.get(GpgSignBench.BENCH_DIR, "Release"));
+        this.pass = Optional.ofNullable(System.getenv("BENCH_GPG_PASSWORD"))
+            .orElse("1q2w3e4r5t6y7u");
+        this.keys = new SigningKeys(1);
+    }
+
+    @Benchmark
+    public byte[] sign() {
+        final SigningKeys cache;
+        if (this.cached) {
+            cache = this.keys;
+        } else {
+            cache = new SigningKeys(1);
+        }
+        return new GpgClearsign(this.release, cache).signature(this.ring, this.pass);
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(GpgSignBench.class.getSimpleName())
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
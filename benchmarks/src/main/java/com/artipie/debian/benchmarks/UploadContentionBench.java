@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.benchmarks;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.debian.metadata.UniquePackage;
+import com.artipie.debian.misc.StripedLocks;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Contention benchmark for Packages index updates: N concurrent uploaders add one package
+ * each to the same index (uploads are serialized by the index lock) or to their own
+ * indexes (uploads run in parallel).
+ * @since 0.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class UploadContentionBench {
+
+    /**
+     * Concurrent uploaders count.
+     */
+    @Param({"1", "8", "32"})
+    public int uploaders;
+
+    /**
+     * Whether all uploaders update the same index.
+     */
+    @Param({"true", "false"})
+    public boolean same;
+
+    @Benchmark
+    public void upload() {
+        final Storage asto = new InMemoryStorage();
+        final StripedLocks locks = new StripedLocks(64);
+        CompletableFuture.allOf(
+            IntStream.range(0, this.uploaders).mapToObj(
+                num -> {
+                    final Key index = this.index(num);
+                    return locks.run(
+                        index,
+                        () -> new UniquePackage(asto).add(
+                            Collections.singletonList(UploadContentionBench.item(num)), index
+                        )
+                    ).toCompletableFuture();
+                }
+            ).toArray(CompletableFuture[]::new)
+        ).join();
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(UploadContentionBench.class.getSimpleName())
+                .forks(1)
+                .build()
+        ).run();
+    }
+
+    /**
+     * Index key of the uploader.
+     * @param num Uploader number
+     * @return Index key
+     */
+    private Key index(final int num) {
+        final Key res;
+        if (this.same) {
+            res = new Key.From("dists/bench/main/binary-amd64/Packages.gz");
+        } else {
+            res = new Key.From(
+                String.format("dists/bench/main/binary-amd64-%d/Packages.gz", num)
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Packages index item.
+     * @param num Package number
+     * @return Item
+     */
+    private static String item(final int num) {
+        return String.join(
+            "\n",
+            String.format("Package: bench-%d", num),
+            "Version: 1.0",
+            "Architecture: amd64",
+            "Maintainer: Bench <bench@artipie.com>",
+            String.format("Filename: pool/main/bench-%d_1.0_amd64.deb", num),
+            "Size: 1024",
+            "Description: Benchmark package"
+        );
+    }
+}
@@ -6,8 +6,13 @@ package com.artipie.debian;
 
 import com.amihaiemil.eoyaml.YamlMapping;
 import com.artipie.asto.Storage;
+import com.artipie.debian.metadata.Compression;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -40,6 +45,35 @@ public interface Config {
      */
     Optional<GpgConfig> gpg();
 
+    /**
+     * Packages index variants to generate with their compression levels, gzip compressed
+     * index is always generated.
+     * @return Compression levels by compression, gzip compressed index only by default
+     */
+    default Map<Compression, Integer> compressions() {
+        final Map<Compression, Integer> res = new EnumMap<>(Compression.class);
+        res.put(Compression.GZ, Compression.GZ.level());
+        return res;
+    }
+
+    /**
+     * How long index files published under `by-hash/SHA256/` are kept after they are no
+     * longer listed in the Release index.
+     * @return Retention period, one day by default, so clients holding the previous Release
+     *  index can still fetch the files it lists
+     */
+    default Duration byHashRetention() {
+        return Duration.ofDays(1);
+    }
+
+    /**
+     * Number of the Packages index diffs (pdiffs) to keep in `Packages.diff/Index`.
+     * @return Diffs history size, diffs are not generated if it is zero, which is the default
+     */
+    default int pdiffs() {
+        return 0;
+    }
+
     /**
      * Implementation of {@link Config} that reads settings from yaml.
      * @since 0.2
@@ -127,6 +161,60 @@ public interface Config {
             return res;
         }
 
+        /**
+         * {@inheritDoc}
+         * <p>
+         * Compressions are read from the space separated `Compressions` field, each item is
+         * the compression name optionally followed by the level after colon, for example,
+         * `plain gz xz:6 zst:19`. Level of the gzip compressed index can not be configured:
+         * the index is appended by gzip members of the default level.
+         */
+        @Override
+        public Map<Compression, Integer> compressions() {
+            final Map<Compression, Integer> res = new EnumMap<>(Compression.class);
+            res.put(Compression.GZ, Compression.GZ.level());
+            final Collection<String> items = this.getValue("Compressions")
+                .orElse(Collections.emptyList());
+            for (final String item : items) {
+                final String[] parts = item.split(":");
+                final Compression comp = Compression.byName(parts[0]);
+                if (comp == Compression.GZ && parts.length > 1) {
+                    throw new IllegalArgumentException(
+                        "Illegal config: `gz` compression level can not be configured"
+                    );
+                }
+                if (parts.length > 1) {
+                    res.put(comp, Integer.parseInt(parts[1]));
+                } else {
+                    res.put(comp, comp.level());
+                }
+            }
+            return res;
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * Retention is read from the `ByHashRetention` field in ISO-8601 duration format, for
+         * example, `PT6H`, one day by default.
+         */
+        @Override
+        public Duration byHashRetention() {
+            return Optional.ofNullable(this.yaml.string("ByHashRetention"))
+                .map(Duration::parse).orElse(Duration.ofDays(1));
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * History size is read from the `PDiffs` field, diffs are not generated by default.
+         */
+        @Override
+        public int pdiffs() {
+            return Optional.ofNullable(this.yaml.string("PDiffs")).map(Integer::parseInt)
+                .orElse(0);
+        }
+
         /**
          * Get field value from yaml.
          * @param field Field name
@@ -6,21 +6,17 @@ package com.artipie.debian;
 
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.asto.rx.RxStorageWrapper;
-import com.artipie.asto.streams.ContentAsStream;
-import com.artipie.debian.metadata.Control;
 import com.artipie.debian.metadata.InRelease;
+import com.artipie.debian.metadata.IndexVariants;
 import com.artipie.debian.metadata.PackagesItem;
 import com.artipie.debian.metadata.Release;
 import com.artipie.debian.metadata.UniquePackage;
+import com.artipie.debian.misc.InFlight;
+import com.artipie.debian.misc.StripedLocks;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
-import io.reactivex.Observable;
-import io.reactivex.Single;
-import java.util.ArrayList;
+import io.reactivex.Flowable;
 import java.util.List;
-import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionStage;
-import org.apache.commons.lang3.tuple.ImmutablePair;
 
 /**
  * Debian repository.
@@ -31,7 +27,9 @@ public interface Debian {
 
     /**
      * Updates or creates Packages index file by adding information about provided
-     * packages list. For mo information about Packages index file check the
+     * packages list. Packages items are written into the index as soon as they are ready,
+     * so memory consumption depends on the count of the packages processed at once
+     * rather than on the list size. For mo information about Packages index file check the
      * <a href="https://wiki.debian.org/DebianRepository/Format#A.22Packages.22_Indices">documentation</a>.
      * @param debs Packages '.deb' list to add
      * @param packages Packages index file
@@ -41,7 +39,8 @@ public interface Debian {
 
     /**
      * Updates Release index file by adding information about Packages index file and generate
-     * corresponding Release.gpg file with the GPG signature. Find more information in the
+     * corresponding Release.gpg file with the GPG signature and InRelease index. Find more
+     * information in the
      * <a href="https://wiki.debian.org/DebianRepository/Format#A.22Release.22_files">documentation</a>.
      * @param packages Packages index file to add info about
      * @return Completion action with the key of the generated index
@@ -50,7 +49,7 @@ public interface Debian {
 
     /**
      * Generates Release index file and corresponding Release.gpg file with the GPG
-     * signature. Find more information in the
+     * signature and InRelease index. Find more information in the
      * <a href="https://wiki.debian.org/DebianRepository/Format#A.22Release.22_files">documentation</a>.
      * @return Completion action with the key of the generated index
      */
@@ -73,6 +72,11 @@ public interface Debian {
      */
     final class Asto implements Debian {
 
+        /**
+         * Default max count of the packages processed at once.
+         */
+        private static final int IN_FLIGHT = 16;
+
         /**
          * Abstract storage.
          */
@@ -83,57 +87,94 @@ public interface Debian {
          */
         private final Config config;
 
+        /**
+         * Limit of the packages processed at once.
+         */
+        private final InFlight inflight;
+
+        /**
+         * Locks of the indexes.
+         */
+        private final StripedLocks locks;
+
         /**
          * Ctor.
          * @param asto Abstract storage
          * @param config Repository configuration
          */
         public Asto(final Storage asto, final Config config) {
+            this(asto, config, new InFlight.Fixed(Asto.IN_FLIGHT));
+        }
+
+        /**
+         * Ctor.
+         * @param asto Abstract storage
+         * @param config Repository configuration
+         * @param inflight Limit of the packages processed at once, use {@link InFlight.Aimd}
+         *  to adjust the limit to the observed storage latency
+         */
+        public Asto(final Storage asto, final Config config, final InFlight inflight) {
+            this(asto, config, inflight, StripedLocks.SHARED);
+        }
+
+        /**
+         * Ctor.
+         * @param asto Abstract storage
+         * @param config Repository configuration
+         * @param inflight Limit of the packages processed at once
+         * @param locks Locks of the indexes: Packages and Release indexes are updated holding
+         *  the lock of the index key
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        public Asto(
+            final Storage asto, final Config config, final InFlight inflight,
+            final StripedLocks locks
+        ) {
             this.asto = asto;
             this.config = config;
+            this.inflight = inflight;
+            this.locks = locks;
         }
 
         @Override
         public CompletionStage<Void> updatePackages(final List<Key> debs, final Key packages) {
-            final RxStorageWrapper bsto = new RxStorageWrapper(this.asto);
-            return Observable.fromIterable(debs)
-                .flatMapSingle(
-                    key -> bsto.value(key).flatMap(
-                        val -> Single.fromFuture(
-                            new ContentAsStream<String>(val)
-                                .process(input -> new Control.FromInputStream(input).asString())
-                                .toCompletableFuture()
-                        ).map(string -> new ImmutablePair<>(key, string))
-                    )
-                )
-                .flatMapSingle(
-                    pair -> Single.fromFuture(
-                        new PackagesItem.Asto(this.asto).format(pair.getValue(), pair.getKey())
-                            .toCompletableFuture()
-                    )
+            return this.locks.run(
+                packages,
+                () -> new UniquePackage(this.asto).add(
+                    Flowable.fromIterable(debs).flatMapSingle(
+                        key -> SingleInterop.fromFuture(
+                            this.inflight.run(
+                                () -> new PackagesItem.Asto(this.asto).format(key)
+                            )
+                        ),
+                        false,
+                        this.inflight.max()
+                    ),
+                    packages
+                ).thenCompose(
+                    nothing -> new IndexVariants(this.asto, this.config.compressions())
+                        .generate(packages)
                 )
-                .collect((Callable<ArrayList<String>>) ArrayList::new, ArrayList::add)
-                .to(SingleInterop.get())
-                .thenCompose(
-                    list -> new UniquePackage(this.asto).add(list, packages)
-                );
+            );
         }
 
         @Override
         public CompletionStage<Key> updateRelease(final Key packages) {
-            final Release release = new Release.Asto(this.asto, this.config);
+            final Release release = new Release.Asto(this.asto, this.config, this.locks);
             return release.update(packages).thenApply(nothing -> release.key());
         }
 
         @Override
         public CompletionStage<Key> generateRelease() {
-            final Release release = new Release.Asto(this.asto, this.config);
+            final Release release = new Release.Asto(this.asto, this.config, this.locks);
             return release.create().thenApply(nothing -> release.key());
         }
 
         @Override
         public CompletionStage<Void> generateInRelease(final Key release) {
-            return new InRelease.Asto(this.asto, this.config).generate(release);
+            return this.locks.run(
+                release, () -> new InRelease.Asto(this.asto, this.config).generate(release)
+            );
         }
     }
 }
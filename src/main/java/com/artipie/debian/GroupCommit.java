@@ -0,0 +1,365 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.debian.metadata.ControlField;
+import com.artipie.debian.metadata.IndexVariants;
+import com.artipie.debian.metadata.Release;
+import com.artipie.debian.metadata.UniquePackage;
+import com.artipie.debian.misc.StripedLocks;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Group commit of the packages index items: items submitted while previous commit is running
+ * are gathered into one batch (up to the batch size), which is applied with one
+ * {@link UniquePackage#add(Iterable, Key)} per Packages index and one
+ * {@link Release#update(Collection)} for all the indexes of the batch, which signs Release and
+ * InRelease once. Configured index variants are generated after each Packages index update.
+ * Each submission completes when the batch with its item is committed, so the number of index
+ * rewrites and signatures does not grow with the number of concurrent uploads. Submission
+ * fails if update of some of its own indexes or Release update fails, or if its item is replaced
+ * in some of its indexes by the later submitted item with the same package name and version.
+ * It fails with {@link PartialFailure} if some of its updated indexes refer to its package file,
+ * and with {@link Superseded} if its item is replaced and its package file is not referred by
+ * the indexes.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class GroupCommit {
+
+    /**
+     * Default max count of the items in one batch.
+     */
+    private static final int BATCH = 100;
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repository configuration.
+     */
+    private final Config config;
+
+    /**
+     * Locks of the indexes.
+     */
+    private final StripedLocks locks;
+
+    /**
+     * Max count of the items in one batch.
+     */
+    private final int batch;
+
+    /**
+     * Items waiting for commit, also guards the running flag.
+     */
+    private final Queue<Pending> pending;
+
+    /**
+     * Whether commit is running.
+     */
+    private boolean running;
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param locks Locks of the indexes
+     */
+    public GroupCommit(final Storage asto, final Config config, final StripedLocks locks) {
+        this(asto, config, locks, GroupCommit.BATCH);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param locks Locks of the indexes
+     * @param batch Max count of the items in one batch
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public GroupCommit(
+        final Storage asto, final Config config, final StripedLocks locks, final int batch
+    ) {
+        if (batch < 1) {
+            throw new IllegalArgumentException(
+                String.format("Batch size should be positive, %d provided", batch)
+            );
+        }
+        this.asto = asto;
+        this.config = config;
+        this.locks = locks;
+        this.batch = batch;
+        this.pending = new LinkedList<>();
+    }
+
+    /**
+     * Submits packages index item to add to the indexes.
+     * @param item Packages index item
+     * @param indexes Packages indexes to add the item to
+     * @return Completion action, completed when the item is committed
+     */
+    public CompletionStage<Void> submit(final String item, final Collection<Key> indexes) {
+        final Pending req = new Pending(item, indexes);
+        final boolean start;
+        synchronized (this.pending) {
+            this.pending.add(req);
+            start = !this.running;
+            this.running = true;
+        }
+        if (start) {
+            this.next();
+        }
+        return req.done;
+    }
+
+    /**
+     * Commits next batch of the pending items if any. The next batch is started
+     * asynchronously once the current one is completed, so the stack does not grow with
+     * the number of batches.
+     */
+    private void next() {
+        final List<Pending> list = new ArrayList<>(this.batch);
+        synchronized (this.pending) {
+            while (list.size() < this.batch && !this.pending.isEmpty()) {
+                list.add(this.pending.poll());
+            }
+            if (list.isEmpty()) {
+                this.running = false;
+            }
+        }
+        if (!list.isEmpty()) {
+            CompletionStage<Void> commit;
+            try {
+                commit = this.commit(list);
+            } catch (final RuntimeException err) {
+                final CompletableFuture<Void> failed = new CompletableFuture<>();
+                failed.completeExceptionally(err);
+                commit = failed;
+            }
+            commit.whenCompleteAsync(
+                (nothing, err) -> {
+                    if (err != null) {
+                        for (final Pending req : list) {
+                            req.done.completeExceptionally(err);
+                        }
+                    }
+                    this.next();
+                }
+            );
+        }
+    }
+
+    /**
+     * Commits the batch: adds items to Packages indexes, updates Release along with
+     * InRelease index once for all the written indexes. Release is updated even if some index
+     * failed to update, as failed index is kept intact and other indexes should be listed with
+     * their new checksums. Each batch item is completed afterwards from the results of its
+     * own indexes, of Release update and of the items kept in its indexes.
+     * @param list Batch items
+     * @return Completion action
+     */
+    private CompletionStage<Void> commit(final List<Pending> list) {
+        final Map<Key, Map<String, String>> items = new LinkedHashMap<>();
+        for (final Pending req : list) {
+            for (final Key index : req.indexes) {
+                items.computeIfAbsent(index, key -> new LinkedHashMap<>())
+                    .put(GroupCommit.id(req.item), req.item);
+            }
+        }
+        final Release release = new Release.Asto(this.asto, this.config, this.locks);
+        final IndexVariants variants = new IndexVariants(this.asto, this.config.compressions());
+        final Set<Key> written = ConcurrentHashMap.newKeySet();
+        final Map<Key, CompletableFuture<Void>> updates = new LinkedHashMap<>();
+        for (final Map.Entry<Key, Map<String, String>> entry : items.entrySet()) {
+            updates.put(
+                entry.getKey(),
+                this.locks.run(
+                    entry.getKey(),
+                    () -> new UniquePackage(this.asto)
+                        .add(new ArrayList<>(entry.getValue().values()), entry.getKey())
+                        .thenCompose(
+                            nothing -> {
+                                written.add(entry.getKey());
+                                return variants.generate(entry.getKey());
+                            }
+                        )
+                ).toCompletableFuture()
+            );
+        }
+        return CompletableFuture.allOf(updates.values().toArray(new CompletableFuture[0]))
+            .handle((nothing, err) -> release.update(written))
+            .thenCompose(Function.identity())
+            .handle(
+                (nothing, err) -> {
+                    for (final Pending req : list) {
+                        req.complete(updates, written, items, Optional.ofNullable(err));
+                    }
+                    return nothing;
+                }
+            );
+    }
+
+    /**
+     * Package identity in the index: name and version, the last submitted item with the same
+     * identity wins within the batch.
+     * @param item Packages index item
+     * @return Package name and version
+     */
+    private static String id(final String item) {
+        return String.join(
+            " ",
+            new ControlField.Package().value(item).get(0),
+            new ControlField.Version().value(item).get(0)
+        );
+    }
+
+    /**
+     * Item waiting for the commit.
+     * @since 0.9
+     */
+    private static final class Pending {
+
+        /**
+         * Packages index item.
+         */
+        private final String item;
+
+        /**
+         * Packages indexes to add the item to.
+         */
+        private final Collection<Key> indexes;
+
+        /**
+         * Completed when the item is committed.
+         */
+        private final CompletableFuture<Void> done;
+
+        /**
+         * Ctor.
+         * @param item Packages index item
+         * @param indexes Packages indexes
+         */
+        Pending(final String item, final Collection<Key> indexes) {
+            this.item = item;
+            this.indexes = indexes;
+            this.done = new CompletableFuture<>();
+        }
+
+        /**
+         * Completes the item from the results of its indexes updates and Release update and
+         * from the items kept in its indexes: the item fails if the later submitted item with
+         * the same identity replaced it in some of its indexes.
+         * @param updates Indexes updates of the batch
+         * @param written Indexes the batch items were written to
+         * @param items Items of the batch kept in the indexes by identity
+         * @param release Release update error
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        void complete(
+            final Map<Key, CompletableFuture<Void>> updates, final Set<Key> written,
+            final Map<Key, Map<String, String>> items, final Optional<Throwable> release
+        ) {
+            Optional<Throwable> err = release;
+            for (final Key index : this.indexes) {
+                final CompletableFuture<Void> update = updates.get(index);
+                if (update.isCompletedExceptionally()) {
+                    err = Optional.of(update.handle((nothing, thr) -> thr).join());
+                    break;
+                }
+            }
+            final String id = GroupCommit.id(this.item);
+            if (!err.isPresent() && this.indexes.stream().anyMatch(
+                index -> !this.item.equals(items.get(index).get(id))
+            )) {
+                err = Optional.of(new Superseded(id));
+            }
+            if (!err.isPresent()) {
+                this.done.complete(null);
+            } else if (this.indexes.stream().anyMatch(
+                index -> written.contains(index) && this.referred(items.get(index).get(id))
+            )) {
+                this.done.completeExceptionally(new PartialFailure(err.get()));
+            } else {
+                this.done.completeExceptionally(err.get());
+            }
+        }
+
+        /**
+         * Whether the item kept in the index refers to the package file of this item.
+         * @param kept Item kept in the index
+         * @return True if kept item has the same Filename
+         */
+        private boolean referred(final String kept) {
+            return kept.equals(this.item)
+                || new ControlField.Filename().value(kept)
+                    .equals(new ControlField.Filename().value(this.item));
+        }
+    }
+
+    /**
+     * Failure of the item commit after the item was written to some of its indexes: the
+     * indexes refer to the package, so the package should be kept.
+     * @since 0.9
+     */
+    public static final class PartialFailure extends IllegalStateException {
+
+        /**
+         * Serial version UID.
+         */
+        private static final long serialVersionUID = 4162743821570368541L;
+
+        /**
+         * Ctor.
+         * @param cause Failure cause
+         */
+        public PartialFailure(final Throwable cause) {
+            super("Item is written to some of its indexes only", cause);
+        }
+    }
+
+    /**
+     * Failure of the item commit when the item is replaced in its indexes by the later
+     * submitted item with the same package name and version. It is the cause of
+     * {@link PartialFailure} if the indexes refer to the package file of the item, otherwise
+     * the package is not referred by the indexes and should be removed.
+     * @since 0.9
+     */
+    public static final class Superseded extends IllegalStateException {
+
+        /**
+         * Serial version UID.
+         */
+        private static final long serialVersionUID = 2297845362911430815L;
+
+        /**
+         * Ctor.
+         * @param id Package name and version
+         */
+        public Superseded(final String id) {
+            super(
+                String.format(
+                    "Item %s is replaced by the later submitted item with the same identity", id
+                )
+            );
+        }
+    }
+}
@@ -15,8 +15,8 @@ import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -69,7 +69,7 @@ public interface MultiPackages {
             final OutputStream out, final InputStream inp, final Set<Pair<String, String>> packages
         ) {
             try {
-                final GZIPInputStream gis = new GZIPInputStream(inp);
+                final InputStream gis = new GzipCompressorInputStream(inp, true);
                 final BufferedReader rdr =
                     new BufferedReader(new InputStreamReader(gis, StandardCharsets.UTF_8));
                 String line;
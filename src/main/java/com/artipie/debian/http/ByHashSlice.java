@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.headers.Header;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rs.RsStatus;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import org.reactivestreams.Publisher;
+
+/**
+ * Index files published by hash (`.../by-hash/SHA256/<digest>`) never change, so successful
+ * (200, 206 and 304) responses for them are served with long-lived `Cache-Control` header.
+ * The header is chosen by the request path and the response status only, the storage is not
+ * checked; error responses, such as 404 for the items which are not published, are not marked
+ * as cacheable. Other files are served by the origin slice as is.
+ * @since 0.9
+ */
+public final class ByHashSlice implements Slice {
+
+    /**
+     * Cache-Control header of the items published by hash.
+     */
+    private static final Header IMMUTABLE =
+        new Header("Cache-Control", "public, max-age=31536000, immutable");
+
+    /**
+     * Origin slice.
+     */
+    private final Slice origin;
+
+    /**
+     * Ctor.
+     * @param origin Origin slice
+     */
+    public ByHashSlice(final Slice origin) {
+        this.origin = origin;
+    }
+
+    @Override
+    public Response response(
+        final String line,
+        final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body
+    ) {
+        final Response res;
+        if (new RequestLineFrom(line).uri().getPath().contains("/by-hash/")) {
+            final Response rsp = this.origin.response(line, headers, body);
+            res = con -> rsp.send(
+                (status, hdrs, content) -> {
+                    final Headers out;
+                    if (ByHashSlice.successful(status)) {
+                        out = new Headers.From(hdrs, ByHashSlice.IMMUTABLE);
+                    } else {
+                        out = hdrs;
+                    }
+                    return con.accept(status, out, content);
+                }
+            );
+        } else {
+            res = this.origin.response(line, headers, body);
+        }
+        return res;
+    }
+
+    /**
+     * Whether the response status means the item is served.
+     * @param status Response status
+     * @return True for 200, 206 and 304 statuses
+     */
+    private static boolean successful(final RsStatus status) {
+        return status == RsStatus.OK || status == RsStatus.PARTIAL_CONTENT
+            || status == RsStatus.NOT_MODIFIED;
+    }
+}
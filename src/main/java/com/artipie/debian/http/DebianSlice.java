@@ -6,6 +6,7 @@ package com.artipie.debian.http;
 
 import com.artipie.asto.Storage;
 import com.artipie.debian.Config;
+import com.artipie.debian.misc.Ranges;
 import com.artipie.http.Slice;
 import com.artipie.http.auth.Authentication;
 import com.artipie.http.auth.BasicAuthzSlice;
@@ -26,7 +27,10 @@ import java.util.Optional;
 import java.util.Queue;
 
 /**
- * Debian slice.
+ * Debian slice. To serve `dists/*` index files from memory, pass the storage wrapped with
+ * {@link com.artipie.debian.misc.DistsCache}: uploads and Release updates are written through it.
+ * Repository private items under `.meta/` (temporary items and index memberships) are neither
+ * served nor can be overwritten.
  * @since 0.1
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
@@ -66,13 +70,64 @@ public final class DebianSlice extends Slice.Wrap {
         final Storage storage, final Policy<?> policy,
         final Authentication users, final Config config,
         final Optional<Queue<ArtifactEvent>> events
+    ) {
+        this(storage, policy, users, config, events, new ReleaseState());
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param policy Policy
+     * @param users Users
+     * @param config Repository configuration
+     * @param events Artifact events queue
+     * @param state Release index state, invalidate it when Release index is removed from
+     *  the storage bypassing the slice
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public DebianSlice(
+        final Storage storage, final Policy<?> policy,
+        final Authentication users, final Config config,
+        final Optional<Queue<ArtifactEvent>> events, final ReleaseState state
+    ) {
+        this(storage, policy, users, config, events, state, new Ranges.None());
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param policy Policy
+     * @param users Users
+     * @param config Repository configuration
+     * @param events Artifact events queue
+     * @param state Release index state
+     * @param ranges Ranged reads of the storage items, used to serve `Range` requests
+     *  reading only the requested part of the item
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public DebianSlice(
+        final Storage storage, final Policy<?> policy,
+        final Authentication users, final Config config,
+        final Optional<Queue<ArtifactEvent>> events, final ReleaseState state,
+        final Ranges ranges
     ) {
         super(
             new SliceRoute(
+                new RtRulePath(
+                    new RtRule.ByPath("^/\\.meta/.*"), new SliceSimple(StandardRs.NOT_FOUND)
+                ),
                 new RtRulePath(
                     new ByMethodsRule(RqMethod.GET),
                     new BasicAuthzSlice(
-                        new ReleaseSlice(new SliceDownload(storage), storage, config),
+                        new ReleaseSlice(
+                            new ByHashSlice(
+                                new NotModifiedSlice(
+                                    new RangeSlice(new SliceDownload(storage), storage, ranges),
+                                    storage, config
+                                )
+                            ),
+                            storage, config, state
+                        ),
                         users,
                         new OperationControl(
                             policy,
@@ -85,7 +140,9 @@ public final class DebianSlice extends Slice.Wrap {
                         new ByMethodsRule(RqMethod.PUT), new ByMethodsRule(RqMethod.POST)
                     ),
                     new BasicAuthzSlice(
-                        new ReleaseSlice(new UpdateSlice(storage, config, events), storage, config),
+                        new ReleaseSlice(
+                            new UpdateSlice(storage, config, events), storage, config, state
+                        ),
                         users,
                         new OperationControl(
                             policy,
@@ -0,0 +1,182 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.asto.Storage;
+import com.artipie.debian.Config;
+import com.artipie.debian.metadata.IndexValidators;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.Header;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqHeaders;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithHeaders;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.slice.KeyFromPath;
+import java.nio.ByteBuffer;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import org.reactivestreams.Publisher;
+
+/**
+ * Conditional GET of the dists index files: responses are supplied with `ETag` and
+ * `Last-Modified` headers from {@link IndexValidators}, `If-None-Match` and (in its absence)
+ * `If-Modified-Since` requests for the unchanged files are answered with 304 status without
+ * reading the file from the storage. Other files are served by the origin slice as is.
+ * HTTP dates are formatted and parsed as RFC 1123 dates in GMT with US locale.
+ * @since 0.9
+ */
+public final class NotModifiedSlice implements Slice {
+
+    /**
+     * HTTP date format.
+     */
+    private static final DateTimeFormatter HTTP_DATE =
+        DateTimeFormatter.RFC_1123_DATE_TIME.withLocale(Locale.US);
+
+    /**
+     * Origin slice.
+     */
+    private final Slice origin;
+
+    /**
+     * Validators of the index files.
+     */
+    private final IndexValidators validators;
+
+    /**
+     * Ctor.
+     * @param origin Origin slice
+     * @param asto Abstract storage
+     * @param config Repository config
+     */
+    public NotModifiedSlice(final Slice origin, final Storage asto, final Config config) {
+        this(origin, new IndexValidators(asto, config));
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin slice
+     * @param validators Validators of the index files
+     */
+    public NotModifiedSlice(final Slice origin, final IndexValidators validators) {
+        this.origin = origin;
+        this.validators = validators;
+    }
+
+    @Override
+    public Response response(
+        final String line,
+        final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body
+    ) {
+        return new AsyncResponse(
+            this.validators.validator(new KeyFromPath(new RequestLineFrom(line).uri().getPath()))
+                .thenApply(
+                    opt -> {
+                        final Response res;
+                        if (opt.isPresent()) {
+                            final IndexValidators.Validator val = opt.get();
+                            final List<Map.Entry<String, String>> hdrs = new ArrayList<>(2);
+                            val.etag().ifPresent(tag -> hdrs.add(new Header("ETag", tag)));
+                            val.modified().ifPresent(
+                                date -> hdrs.add(
+                                    new Header(
+                                        "Last-Modified",
+                                        NotModifiedSlice.HTTP_DATE.format(
+                                            date.withZoneSameInstant(ZoneOffset.UTC)
+                                        )
+                                    )
+                                )
+                            );
+                            if (NotModifiedSlice.unchanged(headers, val)) {
+                                res = new RsWithHeaders(
+                                    new RsWithStatus(RsStatus.NOT_MODIFIED), hdrs
+                                );
+                            } else {
+                                res = new RsWithHeaders(
+                                    this.origin.response(line, headers, body), hdrs
+                                );
+                            }
+                        } else {
+                            res = this.origin.response(line, headers, body);
+                        }
+                        return res;
+                    }
+                )
+        );
+    }
+
+    /**
+     * Whether the client copy of the file is up to date. Entity tags are compared with the
+     * weak comparison, `If-Modified-Since` is checked only if `If-None-Match` is absent.
+     * @param headers Request headers
+     * @param val File validators
+     * @return True if the file was not modified
+     */
+    private static boolean unchanged(
+        final Iterable<Map.Entry<String, String>> headers, final IndexValidators.Validator val
+    ) {
+        final List<String> match = new RqHeaders(headers, "If-None-Match");
+        final boolean res;
+        if (match.isEmpty()) {
+            res = val.modified().isPresent() && new RqHeaders(headers, "If-Modified-Since")
+                .stream().findFirst()
+                .flatMap(NotModifiedSlice::date)
+                .map(since -> !val.modified().get().isAfter(since))
+                .orElse(false);
+        } else {
+            final Optional<String> etag = val.etag().map(NotModifiedSlice::opaque);
+            res = match.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .anyMatch(
+                    tag -> "*".equals(tag)
+                        || etag.map(NotModifiedSlice.opaque(tag)::equals).orElse(false)
+                );
+        }
+        return res;
+    }
+
+    /**
+     * Entity tag without weakness indicator.
+     * @param tag Entity tag
+     * @return Opaque tag
+     */
+    private static String opaque(final String tag) {
+        final String res;
+        if (tag.startsWith("W/")) {
+            res = tag.substring(2);
+        } else {
+            res = tag;
+        }
+        return res;
+    }
+
+    /**
+     * Parses HTTP date in RFC 1123 format.
+     * @param value Header value
+     * @return Date if it is valid
+     */
+    private static Optional<ZonedDateTime> date(final String value) {
+        Optional<ZonedDateTime> res;
+        try {
+            res = Optional.of(ZonedDateTime.parse(value, NotModifiedSlice.HTTP_DATE));
+        } catch (final DateTimeParseException ex) {
+            res = Optional.empty();
+        }
+        return res;
+    }
+}
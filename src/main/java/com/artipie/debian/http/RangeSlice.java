@@ -0,0 +1,331 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import com.artipie.debian.misc.Ranges;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.Header;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqHeaders;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithHeaders;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.slice.KeyFromPath;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.reactivestreams.Publisher;
+
+/**
+ * Byte range requests of the storage items: a single `Range: bytes=...` is answered with
+ * 206 status and the requested part of the item, which is read with {@link Ranges} when
+ * the storage supports ranged reads, ranges beyond the item size are rejected with 416
+ * status. Multiple ranges are answered with the full item, which is allowed by RFC 7233.
+ * `If-Range` is honored when it is equal to the item last modification time or, with the
+ * strong comparison, to the item entity tag (quoted MD5 digest reported by the storage, the
+ * same as sent by {@link NotModifiedSlice}), otherwise the full item is served by the origin
+ * slice. The full item is served as well if the storage does not report the item size.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class RangeSlice implements Slice {
+
+    /**
+     * Single range pattern.
+     */
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d{0,18})-(\\d{0,18})");
+
+    /**
+     * HTTP date format.
+     */
+    private static final DateTimeFormatter HTTP_DATE =
+        DateTimeFormatter.RFC_1123_DATE_TIME.withLocale(Locale.US);
+
+    /**
+     * Origin slice.
+     */
+    private final Slice origin;
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Ranged reads of the storage items.
+     */
+    private final Ranges ranges;
+
+    /**
+     * Ctor.
+     * @param origin Origin slice
+     * @param asto Abstract storage
+     */
+    public RangeSlice(final Slice origin, final Storage asto) {
+        this(origin, asto, new Ranges.None());
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin slice
+     * @param asto Abstract storage
+     * @param ranges Ranged reads of the storage items, if storage does not support them,
+     *  the item is read from the beginning and only the requested part is sent
+     */
+    public RangeSlice(final Slice origin, final Storage asto, final Ranges ranges) {
+        this.origin = origin;
+        this.asto = asto;
+        this.ranges = ranges;
+    }
+
+    @Override
+    public Response response(
+        final String line,
+        final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body
+    ) {
+        final List<String> range = new RqHeaders(headers, "Range");
+        final Response res;
+        if (range.isEmpty()) {
+            res = this.origin.response(line, headers, body);
+        } else {
+            final Key key = new KeyFromPath(new RequestLineFrom(line).uri().getPath());
+            res = new AsyncResponse(
+                this.asto.exists(key).thenCompose(
+                    exists -> {
+                        final CompletionStage<Optional<Response>> part;
+                        if (exists) {
+                            part = this.asto.metadata(key).thenCompose(
+                                meta -> {
+                                    final Optional<Instant> modified = meta
+                                        .read(Meta.OP_UPDATED_AT)
+                                        .<Instant>map(time -> time.truncatedTo(ChronoUnit.SECONDS));
+                                    final Optional<Long> size = meta.read(Meta.OP_SIZE);
+                                    final CompletionStage<Optional<Response>> rsp;
+                                    if (size.isPresent() && RangeSlice.allowed(
+                                        headers, modified, meta.read(Meta.OP_MD5)
+                                    )) {
+                                        rsp = this.part(
+                                            key, String.join(",", range).trim(), size.get(),
+                                            modified
+                                        );
+                                    } else {
+                                        rsp = CompletableFuture.completedFuture(Optional.empty());
+                                    }
+                                    return rsp;
+                                }
+                            );
+                        } else {
+                            part = CompletableFuture.completedFuture(Optional.empty());
+                        }
+                        return part;
+                    }
+                ).thenApply(
+                    part -> part.orElseGet(() -> this.origin.response(line, headers, body))
+                )
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Response with the requested part of the item.
+     * @param key Item key
+     * @param spec Range header value
+     * @param size Item size
+     * @param modified Item last modification time
+     * @return Response or empty if full item should be served
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Optional<Response>> part(
+        final Key key, final String spec, final long size, final Optional<Instant> modified
+    ) {
+        final Matcher mtc = RangeSlice.RANGE.matcher(spec);
+        final CompletionStage<Optional<Response>> res;
+        if (mtc.matches() && !(mtc.group(1).isEmpty() && mtc.group(2).isEmpty())) {
+            final long start;
+            final long end;
+            if (mtc.group(1).isEmpty()) {
+                start = Math.max(0, size - Long.parseLong(mtc.group(2)));
+                end = size - 1;
+            } else {
+                start = Long.parseLong(mtc.group(1));
+                if (mtc.group(2).isEmpty()) {
+                    end = size - 1;
+                } else {
+                    end = Math.min(Long.parseLong(mtc.group(2)), size - 1);
+                }
+            }
+            if (start >= size || start > end) {
+                res = CompletableFuture.completedFuture(
+                    Optional.of(RangeSlice.unsatisfiable(size))
+                );
+            } else {
+                final List<Map.Entry<String, String>> hdrs = new ArrayList<>(3);
+                hdrs.add(new Header("Accept-Ranges", "bytes"));
+                hdrs.add(
+                    new Header("Content-Range", String.format("bytes %d-%d/%d", start, end, size))
+                );
+                modified.ifPresent(
+                    time -> hdrs.add(
+                        new Header(
+                            "Last-Modified",
+                            RangeSlice.HTTP_DATE.format(
+                                time.atZone(ZoneOffset.UTC)
+                            )
+                        )
+                    )
+                );
+                res = this.content(key, start, end - start + 1).thenApply(
+                    content -> Optional.of(
+                        new RsWithHeaders(
+                            new RsWithBody(new RsWithStatus(RsStatus.PARTIAL_CONTENT), content),
+                            hdrs
+                        )
+                    )
+                );
+            }
+        } else {
+            res = CompletableFuture.completedFuture(Optional.empty());
+        }
+        return res;
+    }
+
+    /**
+     * Part of the item content.
+     * @param key Item key
+     * @param start Offset of the first byte
+     * @param len Length of the part
+     * @return Part content
+     */
+    private CompletionStage<Content> content(final Key key, final long start, final long len) {
+        return this.ranges.value(key, start, len).thenCompose(
+            part -> {
+                final CompletionStage<Content> res;
+                if (part.isPresent()) {
+                    res = CompletableFuture.completedFuture(part.get());
+                } else {
+                    res = this.asto.value(key).thenApply(
+                        full -> new Content.From(
+                            Optional.of(len), RangeSlice.slice(full, start, len)
+                        )
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Range not satisfiable response.
+     * @param size Item size
+     * @return Response
+     */
+    private static Response unsatisfiable(final long size) {
+        return new RsWithHeaders(
+            new RsWithStatus(RsStatus.REQUESTED_RANGE_NOT_SATISFIABLE),
+            Collections.singletonList(
+                new Header("Content-Range", String.format("bytes */%d", size))
+            )
+        );
+    }
+
+    /**
+     * Checks `If-Range` condition: range is allowed if the header is absent, if it is an
+     * entity tag equal to the quoted item digest (weak tags never match as If-Range requires
+     * the strong comparison) or if it is a date equal to the item last modification time.
+     * @param headers Request headers
+     * @param modified Item last modification time
+     * @param md5 Item MD5 digest hex
+     * @return True if the range is allowed
+     */
+    private static boolean allowed(
+        final Iterable<Map.Entry<String, String>> headers, final Optional<Instant> modified,
+        final Optional<String> md5
+    ) {
+        final List<String> cond = new RqHeaders(headers, "If-Range");
+        final boolean res;
+        if (cond.isEmpty()) {
+            res = true;
+        } else {
+            final String value = cond.get(0).trim();
+            if (value.startsWith("\"") || value.startsWith("W/")) {
+                res = md5.map(hex -> String.format("\"%s\"", hex).equals(value)).orElse(false);
+            } else {
+                res = modified.isPresent() && RangeSlice.date(value)
+                    .map(date -> date.toInstant().equals(modified.get())).orElse(false);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Takes the part of the content publisher, upstream is cancelled as soon as the part
+     * is read.
+     * @param full Full content
+     * @param start Offset of the first byte
+     * @param len Length of the part
+     * @return Part publisher
+     */
+    private static Flowable<ByteBuffer> slice(
+        final Publisher<ByteBuffer> full, final long start, final long len
+    ) {
+        final long end = start + len;
+        final AtomicLong pos = new AtomicLong(0);
+        return Flowable.fromPublisher(full).map(
+            buf -> {
+                final long from = pos.getAndAdd(buf.remaining());
+                final long low = Math.max(from, start);
+                final long high = Math.min(from + buf.remaining(), end);
+                final ByteBuffer part = buf.duplicate();
+                if (low < high) {
+                    part.position(buf.position() + (int) (low - from));
+                    part.limit(buf.position() + (int) (high - from));
+                } else {
+                    part.limit(part.position());
+                }
+                return part.slice();
+            }
+        ).takeUntil(part -> pos.get() >= end).filter(ByteBuffer::hasRemaining);
+    }
+
+    /**
+     * Parses HTTP date.
+     * @param value Header value
+     * @return Date if it is valid
+     */
+    private static Optional<ZonedDateTime> date(final String value) {
+        Optional<ZonedDateTime> res;
+        try {
+            res = Optional.of(ZonedDateTime.parse(value, RangeSlice.HTTP_DATE));
+        } catch (final DateTimeParseException ex) {
+            res = Optional.empty();
+        }
+        return res;
+    }
+}
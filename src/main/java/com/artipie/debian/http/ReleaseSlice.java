@@ -19,7 +19,9 @@ import org.reactivestreams.Publisher;
 
 /**
  * Release slice decorator.
- * Checks, whether Release index exists and creates it if necessary.
+ * Checks, whether Release index exists and creates it if necessary. Existence of the index
+ * is remembered in the {@link ReleaseState}, so the storage is checked only until the index
+ * is found or created, concurrent requests wait for the same check and creation.
  * @since 0.2
  */
 public final class ReleaseSlice implements Slice {
@@ -40,24 +42,51 @@ public final class ReleaseSlice implements Slice {
     private final Release release;
 
     /**
-     * Repository InRelease index.
+     * Repository Release index state.
      */
-    private final InRelease inrelease;
+    private final ReleaseState state;
 
     /**
      * Ctor.
      * @param origin Origin
      * @param asto Storage
-     * @param release Release index
-     * @param inrelease InRelease index
+     * @param release Release index, InRelease index is created along with it
+     */
+    public ReleaseSlice(final Slice origin, final Storage asto, final Release release) {
+        this(origin, asto, release, new ReleaseState());
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin
+     * @param asto Storage
+     * @param release Release index, InRelease index is created along with it
+     * @param state Repository Release index state
      * @checkstyle ParameterNumberCheck (5 lines)
      */
     public ReleaseSlice(final Slice origin, final Storage asto, final Release release,
-        final InRelease inrelease) {
+        final ReleaseState state) {
         this.origin = origin;
         this.release = release;
         this.storage = asto;
-        this.inrelease = inrelease;
+        this.state = state;
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin
+     * @param asto Storage
+     * @param release Release index
+     * @param inrelease InRelease index, not used
+     * @deprecated InRelease index is generated together with the Release index by
+     *  {@link Release#create()}, use {@link #ReleaseSlice(Slice, Storage, Release)}
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    @Deprecated
+    @SuppressWarnings("PMD.UnusedFormalParameter")
+    public ReleaseSlice(final Slice origin, final Storage asto, final Release release,
+        final InRelease inrelease) {
+        this(origin, asto, release, new ReleaseState());
     }
 
     /**
@@ -67,7 +96,20 @@ public final class ReleaseSlice implements Slice {
      * @param config Repository configuration
      */
     public ReleaseSlice(final Slice origin, final Storage asto, final Config config) {
-        this(origin, asto, new Release.Asto(asto, config), new InRelease.Asto(asto, config));
+        this(origin, asto, config, new ReleaseState());
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin
+     * @param asto Storage
+     * @param config Repository configuration
+     * @param state Repository Release index state
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public ReleaseSlice(final Slice origin, final Storage asto, final Config config,
+        final ReleaseState state) {
+        this(origin, asto, new Release.Asto(asto, config), state);
     }
 
     @Override
@@ -76,24 +118,26 @@ public final class ReleaseSlice implements Slice {
         final Iterable<Map.Entry<String, String>> headers,
         final Publisher<ByteBuffer> body
     ) {
-        return new AsyncResponse(
-            this.storage.exists(this.release.key()).thenCompose(
-                exists -> {
-                    final CompletionStage<Response> res;
-                    if (exists) {
-                        res = CompletableFuture.completedFuture(
-                            this.origin.response(line, headers, body)
-                        );
-                    } else {
-                        res = this.release.create().thenCompose(
-                            nothing ->  this.inrelease.generate(this.release.key())
-                        ).thenApply(
-                            nothing -> this.origin.response(line, headers, body)
-                        );
-                    }
-                    return res;
-                }
-            )
-        );
+        final Response res;
+        if (this.state.exists()) {
+            res = this.origin.response(line, headers, body);
+        } else {
+            res = new AsyncResponse(
+                this.state.ensure(
+                    () -> this.storage.exists(this.release.key()).thenCompose(
+                        exists -> {
+                            final CompletionStage<Void> ready;
+                            if (exists) {
+                                ready = CompletableFuture.allOf();
+                            } else {
+                                ready = this.release.create();
+                            }
+                            return ready;
+                        }
+                    )
+                ).thenApply(nothing -> this.origin.response(line, headers, body))
+            );
+        }
+        return res;
     }
 }
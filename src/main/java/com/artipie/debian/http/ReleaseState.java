@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * In-memory state of the repository Release index: once Release index is known to exist,
+ * {@link ReleaseSlice} serves requests without checking the storage until the state is
+ * invalidated. Until then, concurrent requests share one check and creation of the index.
+ * The instance should be shared by the slices of the same repository, call
+ * {@link #invalidate()} when Release index is removed from the storage bypassing the adapter.
+ * @since 0.9
+ */
+public final class ReleaseState {
+
+    /**
+     * Whether Release index is known to exist.
+     */
+    private final AtomicBoolean present;
+
+    /**
+     * Running check and creation of Release index.
+     */
+    private Optional<CompletableFuture<Void>> running;
+
+    /**
+     * Ctor.
+     */
+    public ReleaseState() {
+        this.present = new AtomicBoolean(false);
+        this.running = Optional.empty();
+    }
+
+    /**
+     * Makes sure Release index exists: runs the action unless the index is known to exist.
+     * Concurrent callers wait for the same running action, so the index is checked and
+     * created once, the index is remembered as existing when the action succeeds. After
+     * a failure, the next caller runs the action again.
+     * @param action Action to check and create Release index
+     * @return Completion action
+     */
+    public CompletionStage<Void> ensure(final Supplier<? extends CompletionStage<Void>> action) {
+        final CompletableFuture<Void> res;
+        boolean start = false;
+        synchronized (this) {
+            if (this.present.get()) {
+                res = CompletableFuture.allOf();
+            } else if (this.running.isPresent()) {
+                res = this.running.get();
+            } else {
+                res = new CompletableFuture<>();
+                this.running = Optional.of(res);
+                start = true;
+            }
+        }
+        if (start) {
+            try {
+                action.get().whenComplete(
+                    (nothing, err) -> this.complete(res, Optional.ofNullable(err))
+                );
+            } catch (final RuntimeException err) {
+                this.complete(res, Optional.of(err));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Whether Release index is known to exist.
+     * @return True if Release index exists
+     */
+    public boolean exists() {
+        return this.present.get();
+    }
+
+    /**
+     * Forgets Release index existence, next request checks the storage again.
+     */
+    public void invalidate() {
+        this.present.set(false);
+    }
+
+    /**
+     * Completes running action.
+     * @param res Running action result
+     * @param err Action error
+     */
+    private void complete(final CompletableFuture<Void> res, final Optional<Throwable> err) {
+        synchronized (this) {
+            if (!err.isPresent()) {
+                this.present.set(true);
+            }
+            this.running = Optional.empty();
+        }
+        if (err.isPresent()) {
+            res.completeExceptionally(err.get());
+        } else {
+            res.complete(null);
+        }
+    }
+}
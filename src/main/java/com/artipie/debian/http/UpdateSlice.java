@@ -6,16 +6,13 @@ package com.artipie.debian.http;
 
 import com.artipie.asto.Content;
 import com.artipie.asto.Key;
-import com.artipie.asto.Meta;
 import com.artipie.asto.Storage;
-import com.artipie.asto.streams.ContentAsStream;
 import com.artipie.debian.Config;
-import com.artipie.debian.metadata.Control;
+import com.artipie.debian.GroupCommit;
 import com.artipie.debian.metadata.ControlField;
-import com.artipie.debian.metadata.InRelease;
-import com.artipie.debian.metadata.PackagesItem;
-import com.artipie.debian.metadata.Release;
-import com.artipie.debian.metadata.UniquePackage;
+import com.artipie.debian.metadata.StreamedItem;
+import com.artipie.debian.misc.ContentHead;
+import com.artipie.debian.misc.StripedLocks;
 import com.artipie.http.Headers;
 import com.artipie.http.Response;
 import com.artipie.http.Slice;
@@ -27,13 +24,16 @@ import com.artipie.http.rs.RsWithStatus;
 import com.artipie.http.rs.StandardRs;
 import com.artipie.http.slice.KeyFromPath;
 import com.artipie.scheduling.ArtifactEvent;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Flowable;
 import java.nio.ByteBuffer;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -41,6 +41,10 @@ import org.reactivestreams.Publisher;
 
 /**
  * Debian update slice adds uploaded slice to the storage and updates Packages index.
+ * Control file is read from the beginning of the request body before anything is written to
+ * the storage: packages which can not be parsed or have no supported architectures are
+ * rejected with 400 status and the rest of the body is drained. Packages index item (size and
+ * checksums) is calculated while the package is being saved, the saved package is not read back.
  * @since 0.1
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
@@ -66,6 +70,11 @@ public final class UpdateSlice implements Slice {
      */
     private final Optional<Queue<ArtifactEvent>> events;
 
+    /**
+     * Group commit of the uploaded packages.
+     */
+    private final GroupCommit commit;
+
     /**
      * Ctor.
      * @param asto Abstract storage
@@ -74,89 +83,175 @@ public final class UpdateSlice implements Slice {
      */
     public UpdateSlice(
         final Storage asto, final Config config, final Optional<Queue<ArtifactEvent>> events
+    ) {
+        this(asto, config, events, StripedLocks.SHARED);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param events Artifact events
+     * @param locks Locks of the indexes: concurrent uploads update the same index one by one
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public UpdateSlice(
+        final Storage asto, final Config config, final Optional<Queue<ArtifactEvent>> events,
+        final StripedLocks locks
+    ) {
+        this(asto, config, events, new GroupCommit(asto, config, locks));
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param events Artifact events
+     * @param commit Group commit of the uploaded packages: concurrent uploads are added
+     *  to the indexes in batches
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public UpdateSlice(
+        final Storage asto, final Config config, final Optional<Queue<ArtifactEvent>> events,
+        final GroupCommit commit
     ) {
         this.asto = asto;
         this.config = config;
         this.events = events;
+        this.commit = commit;
     }
 
     @Override
     public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
         final Publisher<ByteBuffer> body) {
         final Key key = new KeyFromPath(new RequestLineFrom(line).uri().getPath());
+        final StreamedItem streamed = new StreamedItem(key.string());
         return new AsyncResponse(
-            this.asto.save(key, new Content.From(body))
-                .thenCompose(nothing -> this.asto.value(key))
-                .thenCompose(
-                    content -> new ContentAsStream<String>(content)
-                        .process(input -> new Control.FromInputStream(input).asString())
+            new ContentHead(body, streamed::head).read().thenApply(
+                content -> this.architectures(streamed).map(
+                    common -> this.upload(key, content, streamed, common, headers)
+                ).orElseGet(
+                    () -> Flowable.fromPublisher(content).ignoreElements()
+                        .onErrorComplete().to(CompletableInterop.await())
+                        .<Response>thenApply(nothing -> new RsWithStatus(RsStatus.BAD_REQUEST))
                 )
-                .thenCompose(
-                    control -> {
-                        final List<String> common = new ControlField.Architecture().value(control)
-                            .stream().filter(item -> this.config.archs().contains(item))
-                            .collect(Collectors.toList());
-                        final CompletionStage<Response> res;
-                        if (common.isEmpty()) {
-                            res = this.asto.delete(key).thenApply(
-                                nothing -> new RsWithStatus(RsStatus.BAD_REQUEST)
-                            );
-                        } else {
-                            CompletionStage<Void> upd = this.generateIndexes(key, control, common);
-                            if (this.events.isPresent()) {
-                                upd = upd.thenCompose(
-                                    nothing -> this.logEvents(
-                                        key, control, common, new Headers.From(headers)
-                                    )
-                                );
-                            }
-                            res = upd.thenApply(nothing -> StandardRs.OK);
-                        }
-                        return res;
-                    }
-                ).handle(
-                    (resp, throwable) -> {
-                        final CompletionStage<Response> res;
-                        if (throwable == null) {
-                            res = CompletableFuture.completedFuture(resp);
-                        } else {
-                            res = this.asto.delete(key)
-                                .thenApply(nothing -> new RsWithStatus(RsStatus.INTERNAL_ERROR));
-                        }
-                        return res;
+            ).handle(
+                (resp, throwable) -> {
+                    final CompletionStage<Response> res;
+                    if (throwable == null) {
+                        res = resp;
+                    } else {
+                        res = CompletableFuture.completedFuture(
+                            new RsWithStatus(RsStatus.BAD_REQUEST)
+                        );
                     }
+                    return res;
+                }
             ).thenCompose(Function.identity())
         );
     }
 
     /**
-     * Generates Packages, Release and InRelease indexes.
-     * @param key Deb package key
-     * @param control Control file content
+     * Supported architectures of the package read from the package beginning.
+     * @param streamed Streamed package item with the package beginning read
+     * @return Architectures of the package supported by the repository or empty if there
+     *  are none, control can not be read or it has no Architecture field
+     */
+    private Optional<List<String>> architectures(final StreamedItem streamed) {
+        Optional<List<String>> res;
+        try {
+            res = Optional.of(
+                new ControlField.Architecture().value(streamed.control())
+                    .stream().filter(arch -> this.config.archs().contains(arch))
+                    .collect(Collectors.toList())
+            ).filter(common -> !common.isEmpty());
+        } catch (final IllegalStateException | IllegalArgumentException
+            | NoSuchElementException err) {
+            res = Optional.empty();
+        }
+        return res;
+    }
+
+    /**
+     * Saves the package and adds it to the indexes, the package is removed if it failed to be
+     * added to the indexes unless some of the indexes already refer to it.
+     * @param key Package key
+     * @param content Package content
+     * @param streamed Streamed package item
+     * @param common Supported architectures of the package
+     * @param headers Request headers
+     * @return Completion action with the response
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Response> upload(final Key key, final Publisher<ByteBuffer> content,
+        final StreamedItem streamed, final List<String> common,
+        final Iterable<Map.Entry<String, String>> headers) {
+        return this.asto.save(key, new Content.From(streamed.content(content)))
+            .thenApply(nothing -> streamed.item())
+            .thenCompose(
+                item -> {
+                    CompletionStage<Void> upd = this.generateIndexes(item, common);
+                    if (this.events.isPresent()) {
+                        upd = upd.thenAccept(
+                            nothing -> this.logEvents(
+                                item, streamed.size(), common, new Headers.From(headers)
+                            )
+                        );
+                    }
+                    return upd.<Response>thenApply(nothing -> StandardRs.OK);
+                }
+            ).handle(
+                (resp, throwable) -> {
+                    final CompletionStage<Response> res;
+                    if (throwable == null) {
+                        res = CompletableFuture.completedFuture(resp);
+                    } else if (UpdateSlice.indexed(throwable)) {
+                        res = CompletableFuture.completedFuture(
+                            new RsWithStatus(RsStatus.INTERNAL_ERROR)
+                        );
+                    } else {
+                        res = this.asto.delete(key)
+                            .thenApply(nothing -> new RsWithStatus(RsStatus.INTERNAL_ERROR));
+                    }
+                    return res;
+                }
+            ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Generates Packages, Release and InRelease indexes: item is submitted to the group
+     * commit and is added to the indexes along with the concurrently uploaded packages.
+     * @param item Packages index item of the uploaded package
      * @param archs Architectures
      * @return Completion action
      */
-    private CompletionStage<Void> generateIndexes(final Key key, final String control,
-        final List<String> archs) {
-        final Release release = new Release.Asto(this.asto, this.config);
-        return new PackagesItem.Asto(this.asto).format(control, key).thenCompose(
-            item -> CompletableFuture.allOf(
-                archs.stream().map(
-                    arc -> String.format(
+    private CompletionStage<Void> generateIndexes(final String item, final List<String> archs) {
+        return this.commit.submit(
+            item,
+            archs.stream().map(
+                arc -> new Key.From(
+                    String.format(
                         "dists/%s/main/binary-%s/Packages.gz",
                         this.config.codename(), arc
                     )
-                ).map(
-                    index -> new UniquePackage(this.asto)
-                        .add(Collections.singletonList(item), new Key.From(index))
-                        .thenCompose(nothing -> release.update(new Key.From(index)))
-                ).toArray(CompletableFuture[]::new)
-            ).thenCompose(
-                nothing -> new InRelease.Asto(this.asto, this.config).generate(release.key())
-            )
+                )
+            ).collect(Collectors.toList())
         );
     }
 
+    /**
+     * Whether the error means the package was written to some of its indexes.
+     * @param err Error
+     * @return True if the package is referred by the indexes
+     */
+    private static boolean indexed(final Throwable err) {
+        Throwable cause = err;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof GroupCommit.PartialFailure;
+    }
+
     /**
      * Adds new package data into events queue. As one package can be suitable for several
      * architectures, we add architecture to package name and log package for each architecture.
@@ -164,31 +259,25 @@ public final class UpdateSlice implements Slice {
      * aglfn_all
      * aglfn_amb46
      * aglfn_arm
-     * @param artifact Artifact key
-     * @param control Control metadata
+     * @param item Packages index item
+     * @param size Package size
      * @param archs Supported architectures
      * @param hdrs Request headers
-     * @return Completion action
      * @checkstyle ParameterNumberCheck (5 lines)
      */
-    private CompletionStage<Void> logEvents(
-        final Key artifact, final String control, final List<String> archs, final Headers hdrs
+    private void logEvents(
+        final String item, final long size, final List<String> archs, final Headers hdrs
     ) {
-        return this.asto.metadata(artifact).thenApply(meta -> meta.read(Meta.OP_SIZE).get())
-            .thenAccept(
-                size -> {
-                    final String name = new ControlField.Package().value(control).get(0);
-                    final String version = new ControlField.Version().value(control).get(0);
-                    final String owner = new Login(hdrs).getValue();
-                    archs.forEach(
-                        val -> this.events.get().add(
-                            new ArtifactEvent(
-                                UpdateSlice.REPO_TYPE, this.config.codename(), owner,
-                                String.join("_", name, val), version, size
-                            )
-                        )
-                    );
-                }
+        final String name = new ControlField.Package().value(item).get(0);
+        final String version = new ControlField.Version().value(item).get(0);
+        final String owner = new Login(hdrs).getValue();
+        archs.forEach(
+            val -> this.events.get().add(
+                new ArtifactEvent(
+                    UpdateSlice.REPO_TYPE, this.config.codename(), owner,
+                    String.join("_", name, val), version, size
+                )
+            )
         );
     }
 }
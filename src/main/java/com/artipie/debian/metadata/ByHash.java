@@ -0,0 +1,239 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.Digests;
+import com.artipie.asto.ext.PublisherAs;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+import org.apache.commons.codec.binary.Hex;
+
+/**
+ * Index files published by their SHA256 digest (Acquire-By-Hash): a copy of each index file
+ * listed in the Release index is stored as `by-hash/SHA256/<digest>` next to the file. These
+ * items never change, so a client holding an older Release index can still fetch the indexes
+ * it lists while the indexes are being updated. Items which are no longer listed in the
+ * Release index are removed once they are older than the retention period.
+ * @since 0.9
+ */
+final class ByHash {
+
+    /**
+     * Directory of the items relative to the index file directory.
+     */
+    private static final String DIR = "by-hash/SHA256";
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Release index directory, ends with `/`.
+     */
+    private final String root;
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param root Release index directory, ends with `/`
+     */
+    ByHash(final Storage asto, final String root) {
+        this.asto = asto;
+        this.root = root;
+    }
+
+    /**
+     * Publishes the index file bytes by their digest, if they are not published yet. Release
+     * index publishes each listed file from the same bytes its checksums are calculated of,
+     * so the listed digest always has its item.
+     * @param path Index file path relative to the Release index
+     * @param hex SHA256 hex of the bytes
+     * @param bytes Index file bytes
+     * @return Completion action
+     */
+    CompletionStage<Void> publish(final String path, final String hex, final byte[] bytes) {
+        final Key key = this.key(path, hex);
+        return this.asto.exists(key).thenCompose(
+            published -> {
+                final CompletionStage<Void> res;
+                if (published) {
+                    res = CompletableFuture.allOf();
+                } else {
+                    res = this.asto.save(key, new Content.From(bytes));
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Publishes the copy of the index file by its digest: the copy is moved under the digest
+     * if the digest is not published yet and is removed otherwise. Release index copies
+     * Packages indexes while their checksums are calculated, so the index is read once and
+     * the listed digest always has its item.
+     * @param path Index file path relative to the Release index
+     * @param hex SHA256 hex of the copy
+     * @param copy Key of the copy
+     * @return Completion action
+     */
+    CompletionStage<Void> publish(final String path, final String hex, final Key copy) {
+        final Key key = this.key(path, hex);
+        return this.asto.exists(key).thenCompose(
+            published -> {
+                final CompletionStage<Void> res;
+                if (published) {
+                    res = this.asto.delete(copy);
+                } else {
+                    res = this.asto.move(copy, key);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Publishes index files by their digests, if they were not published along with
+     * checksums calculation. Files which are already published or which are absent
+     * (uncompressed indexes are listed even if they are not stored) are skipped. Files
+     * which were changed after their digest was listed are skipped as well: they are
+     * published by the next Release index update.
+     * @param hexes SHA256 hexes by file path relative to the Release index
+     * @return Completion action
+     */
+    CompletionStage<Void> publish(final Map<String, String> hexes) {
+        return CompletableFuture.allOf(
+            hexes.entrySet().stream().map(
+                entry -> this.asto.exists(this.key(entry.getKey(), entry.getValue()))
+                    .thenCompose(
+                        published -> {
+                            final CompletionStage<Void> res;
+                            if (published) {
+                                res = CompletableFuture.allOf();
+                            } else {
+                                res = this.copy(entry.getKey(), entry.getValue());
+                            }
+                            return res;
+                        }
+                    ).toCompletableFuture()
+            ).toArray(CompletableFuture[]::new)
+        );
+    }
+
+    /**
+     * Removes items which are not listed in the Release index and were not modified
+     * during the retention period. Items with unknown modification time are kept.
+     * @param hexes SHA256 hexes by file path relative to the Release index
+     * @param retention Retention period
+     * @return Completion action
+     */
+    CompletionStage<Void> collect(final Map<String, String> hexes, final Duration retention) {
+        final Set<String> listed = hexes.entrySet().stream()
+            .map(entry -> this.key(entry.getKey(), entry.getValue()).string())
+            .collect(Collectors.toSet());
+        final Instant threshold = Instant.now().minus(retention);
+        return CompletableFuture.allOf(
+            hexes.keySet().stream()
+                .map(path -> new Key.From(this.root + ByHash.parent(path) + ByHash.DIR))
+                .distinct()
+                .map(
+                    dir -> this.asto.list(dir).thenCompose(
+                        keys -> CompletableFuture.allOf(
+                            keys.stream()
+                                .filter(key -> !listed.contains(key.string()))
+                                .map(key -> this.expire(key, threshold))
+                                .toArray(CompletableFuture[]::new)
+                        )
+                    )
+                ).toArray(CompletableFuture[]::new)
+        );
+    }
+
+    /**
+     * Removes the item if it was last modified before the threshold.
+     * @param key Item key
+     * @param threshold Threshold time
+     * @return Completion action
+     */
+    private CompletableFuture<Void> expire(final Key key, final Instant threshold) {
+        return this.asto.metadata(key).thenCompose(
+            meta -> {
+                final CompletableFuture<Void> res;
+                if (meta.read(Meta.OP_UPDATED_AT).map(time -> time.isBefore(threshold))
+                    .orElse(false)) {
+                    res = this.asto.delete(key);
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Copies the index file under its digest if the file exists and still has the digest.
+     * @param path Index file path relative to the Release index
+     * @param hex Listed SHA256 hex of the index file
+     * @return Completion action
+     */
+    private CompletionStage<Void> copy(final String path, final String hex) {
+        final Key file = new Key.From(this.root + path);
+        return this.asto.exists(file).thenCompose(
+            exists -> {
+                final CompletionStage<Void> res;
+                if (exists) {
+                    res = this.asto.value(file).thenApply(PublisherAs::new)
+                        .thenCompose(PublisherAs::bytes)
+                        .thenCompose(
+                            bytes -> {
+                                final CompletionStage<Void> copied;
+                                if (hex.equals(
+                                    Hex.encodeHexString(Digests.SHA256.get().digest(bytes))
+                                )) {
+                                    copied = this.asto.save(
+                                        this.key(path, hex), new Content.From(bytes)
+                                    );
+                                } else {
+                                    copied = CompletableFuture.allOf();
+                                }
+                                return copied;
+                            }
+                        );
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Key of the item.
+     * @param path Index file path relative to the Release index
+     * @param hex SHA256 hex of the index file
+     * @return Item key
+     */
+    Key key(final String path, final String hex) {
+        return new Key.From(this.root + ByHash.parent(path) + ByHash.DIR, hex);
+    }
+
+    /**
+     * Parent directory of the path.
+     * @param path Path
+     * @return Parent directory with trailing `/` or empty string
+     */
+    private static String parent(final String path) {
+        return path.substring(0, path.lastIndexOf('/') + 1);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+import org.apache.commons.compress.compressors.xz.XZCompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+
+/**
+ * Packages index compression: each compression gives the index variant with its own file
+ * extension, for example, `Packages.xz`.
+ * @since 0.9
+ */
+public enum Compression {
+
+    /**
+     * Uncompressed index.
+     */
+    PLAIN("", 0) {
+        @Override
+        public OutputStream compress(final OutputStream out, final int level) {
+            return out;
+        }
+    },
+
+    /**
+     * Gzip compressed index.
+     */
+    GZ(".gz", 6) {
+        @Override
+        public OutputStream compress(final OutputStream out, final int level)
+            throws IOException {
+            final GzipParameters params = new GzipParameters();
+            params.setCompressionLevel(level);
+            return new GzipCompressorOutputStream(out, params);
+        }
+    },
+
+    /**
+     * Xz compressed index.
+     */
+    XZ(".xz", 6) {
+        @Override
+        public OutputStream compress(final OutputStream out, final int level)
+            throws IOException {
+            return new XZCompressorOutputStream(out, level);
+        }
+    },
+
+    /**
+     * Zstandard compressed index.
+     */
+    ZST(".zst", 3) {
+        @Override
+        public OutputStream compress(final OutputStream out, final int level)
+            throws IOException {
+            return new ZstdCompressorOutputStream(out, level);
+        }
+    };
+
+    /**
+     * File extension.
+     */
+    private final String ext;
+
+    /**
+     * Default compression level.
+     */
+    private final int def;
+
+    /**
+     * Ctor.
+     * @param ext File extension
+     * @param def Default compression level
+     */
+    Compression(final String ext, final int def) {
+        this.ext = ext;
+        this.def = def;
+    }
+
+    /**
+     * Wraps output stream to compress the data written into it, closing returned stream
+     * finishes compression and closes the origin.
+     * @param out Output stream
+     * @param level Compression level
+     * @return Compressing output stream
+     * @throws IOException On IO error
+     */
+    public abstract OutputStream compress(OutputStream out, int level) throws IOException;
+
+    /**
+     * File extension of the index variant, empty for uncompressed index.
+     * @return Extension
+     */
+    public String extension() {
+        return this.ext;
+    }
+
+    /**
+     * Default compression level.
+     * @return Level
+     */
+    public int level() {
+        return this.def;
+    }
+
+    /**
+     * Key of the index variant.
+     * @param index Key of the gzip compressed Packages index
+     * @return Variant key string
+     */
+    public String variant(final String index) {
+        return index.replaceAll("\\.gz$", this.ext);
+    }
+
+    /**
+     * Finds compression by name, name is the lower case constant name, for example, `xz`.
+     * @param name Compression name
+     * @return Compression
+     * @throws IllegalArgumentException If compression is not supported
+     */
+    @SuppressWarnings("PMD.ProhibitPublicStaticMethods")
+    public static Compression byName(final String name) {
+        return Arrays.stream(Compression.values())
+            .filter(item -> item.name().toLowerCase(Locale.ROOT).equals(name))
+            .findFirst()
+            .orElseThrow(
+                () -> new IllegalArgumentException(
+                    String.format("Illegal config: compression `%s` is not supported", name)
+                )
+            );
+    }
+}
@@ -34,7 +34,10 @@ public interface Control {
     String asString();
 
     /**
-     * Control from debian binary package.
+     * Control from debian binary package. Package archive is read only up to the end of the
+     * `control` file: ar members preceding `control.tar.*` are skipped by the sizes from their
+     * headers and members following it (`data.tar.*`) are not read at all, the stream is
+     * closed as soon as control is found.
      * Check <a href="https://www.debian.org/doc/debian-policy/ch-controlfields.html#binary-package-control-files-debian-control">docs</a>.
      * @since 0.1
      */
@@ -70,15 +73,14 @@ public interface Control {
             ) {
                 ArchiveEntry entry;
                 while ((entry = input.getNextEntry()) != null) {
-                    if (!input.canReadEntryData(entry)) {
-                        continue;
-                    }
-                    if (entry.getName().startsWith(FromInputStream.FILE_NAME)) {
+                    if (input.canReadEntryData(entry)
+                        && entry.getName().startsWith(FromInputStream.FILE_NAME)) {
                         res = Optional.of(
                             FromInputStream.unpackTar(
                                 FromInputStream.stream(input, entry.getName())
                             )
                         );
+                        break;
                     }
                 }
             } catch (final ArchiveException | IOException ex) {
@@ -100,7 +102,9 @@ public interface Control {
         private static InputStream stream(final ArchiveInputStream input, final String name)
             throws IOException {
             final InputStream res;
-            if (name.endsWith("gz")) {
+            if (name.endsWith("tar")) {
+                res = input;
+            } else if (name.endsWith("gz")) {
                 res = new GzipCompressorInputStream(input);
             } else if (name.endsWith("xz")) {
                 res = new XZCompressorInputStream(input);
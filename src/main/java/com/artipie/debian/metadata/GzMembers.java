@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.Digests;
+import com.artipie.asto.streams.StorageValuePipeline;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.util.concurrent.CompletionStage;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Packages.gz index stored as multi-member gzip. New data is compressed into a separate
+ * gzip member written after the existing index bytes, which are copied as is, so appending
+ * costs as much as compressing the new data only. Concatenated gzip members form a valid
+ * gzip file, which is read by apt and gzip tools as a single stream. Each member adds its
+ * header and trailer and does not share compression dictionary with the others, so
+ * compaction folds all the members back into one after some appends.
+ * @since 0.9
+ */
+public final class GzMembers {
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Index key.
+     */
+    private final Key index;
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param index Index key
+     */
+    public GzMembers(final Storage asto, final Key index) {
+        this.asto = asto;
+        this.index = index;
+    }
+
+    /**
+     * Appends data to the index as a new gzip member, creates the index if it does not exist.
+     * @param data Data to append
+     * @param sep Separator to write before the data if the index already exists
+     * @return Completion action with SHA-256 hex of the resulting index
+     */
+    public CompletionStage<String> append(final String data, final String sep) {
+        return new StorageValuePipeline<String>(this.asto, this.index).processWithResult(
+            (opt, out) -> {
+                final DigestOutputStream digest = new DigestOutputStream(
+                    out, Digests.SHA256.get()
+                );
+                try {
+                    final String member;
+                    if (opt.isPresent()) {
+                        IOUtils.copy(opt.get(), digest);
+                        member = String.join("", sep, data);
+                    } else {
+                        member = data;
+                    }
+                    GzMembers.member(member.getBytes(StandardCharsets.UTF_8), digest);
+                } catch (final IOException err) {
+                    throw new UncheckedIOException(err);
+                }
+                return Hex.encodeHexString(digest.getMessageDigest().digest());
+            }
+        );
+    }
+
+    /**
+     * Compacts the index: all gzip members are decompressed and written as one gzip stream.
+     * @return Completion action with SHA-256 hex of the resulting index
+     */
+    public CompletionStage<String> compact() {
+        return new StorageValuePipeline<String>(this.asto, this.index).processWithResult(
+            (opt, out) -> {
+                final DigestOutputStream digest = new DigestOutputStream(
+                    out, Digests.SHA256.get()
+                );
+                GzMembers.recompress(opt.get(), digest);
+                return Hex.encodeHexString(digest.getMessageDigest().digest());
+            }
+        );
+    }
+
+    /**
+     * Writes data as gzip member into the output, output is closed.
+     * @param data Data to compress
+     * @param out Output stream
+     * @throws IOException On IO error
+     */
+    private static void member(final byte[] data, final OutputStream out) throws IOException {
+        try (GZIPOutputStream gop = new GZIPOutputStream(new BufferedOutputStream(out))) {
+            gop.write(data);
+        }
+    }
+
+    /**
+     * Decompresses all the gzip members from the input and compresses them into one.
+     * @param input Multi-member gzip input
+     * @param out Output stream
+     */
+    private static void recompress(final InputStream input, final OutputStream out) {
+        try (
+            InputStream gis = new GzipCompressorInputStream(input, true);
+            GZIPOutputStream gop = new GZIPOutputStream(new BufferedOutputStream(out))
+        ) {
+            IOUtils.copy(gis, gop);
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import com.artipie.debian.Config;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * HTTP cache validators of the repository dists files taken from the storage metadata of the
+ * served file, so neither the file itself nor the Release index is read to check whether the
+ * client copy is up to date, it costs one metadata request, which is answered from memory for
+ * the files cached by {@link com.artipie.debian.misc.DistsCache}:
+ * <ul>
+ *  <li>entity tag is the quoted MD5 digest of the file reported by the storage;</li>
+ *  <li>last modification time is the update time of the file reported by the storage,
+ *  truncated to seconds.</li>
+ * </ul>
+ * Validators are bound to the stored file and not to its Release index entry, so they stay
+ * correct while the file is rewritten before the Release index is updated, unlike the SHA256
+ * checksums listed in the Release index. Files which do not exist (metadata request fails)
+ * and files the storage reports neither digest nor update time for have no validators.
+ * @since 0.9
+ */
+public final class IndexValidators {
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repository config.
+     */
+    private final Config config;
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository config
+     */
+    public IndexValidators(final Storage asto, final Config config) {
+        this.asto = asto;
+        this.config = config;
+    }
+
+    /**
+     * Validators of the repository file.
+     * @param key Storage key of the file
+     * @return Validators if the file is a dists file which exists in the storage
+     */
+    public CompletionStage<Optional<Validator>> validator(final Key key) {
+        final CompletionStage<Optional<Validator>> res;
+        if (key.string().startsWith(String.format("dists/%s/", this.config.codename()))) {
+            res = this.asto.metadata(key).<Optional<Validator>>thenApply(
+                IndexValidators::validator
+            ).exceptionally(err -> Optional.empty());
+        } else {
+            res = CompletableFuture.completedFuture(Optional.empty());
+        }
+        return res;
+    }
+
+    /**
+     * Validators of the file by its storage metadata.
+     * @param meta Storage metadata of the file
+     * @return Validators if the storage reports digest or update time of the file
+     */
+    private static Optional<Validator> validator(final Meta meta) {
+        final Optional<String> etag = meta.read(Meta.OP_MD5)
+            .map(hex -> String.format("\"%s\"", hex));
+        final Optional<ZonedDateTime> modified = meta.read(Meta.OP_UPDATED_AT).map(
+            time -> time.truncatedTo(ChronoUnit.SECONDS).atZone(ZoneOffset.UTC)
+        );
+        final Optional<Validator> res;
+        if (etag.isPresent() || modified.isPresent()) {
+            res = Optional.of(new Validator(etag, modified));
+        } else {
+            res = Optional.empty();
+        }
+        return res;
+    }
+
+    /**
+     * HTTP cache validators of the file.
+     * @since 0.9
+     */
+    public static final class Validator {
+
+        /**
+         * Entity tag.
+         */
+        private final Optional<String> tag;
+
+        /**
+         * Last modification time.
+         */
+        private final Optional<ZonedDateTime> modified;
+
+        /**
+         * Ctor.
+         * @param tag Entity tag
+         * @param modified Last modification time
+         */
+        Validator(final Optional<String> tag, final Optional<ZonedDateTime> modified) {
+            this.tag = tag;
+            this.modified = modified;
+        }
+
+        /**
+         * Entity tag.
+         * @return Quoted entity tag if it is known
+         */
+        public Optional<String> etag() {
+            return this.tag;
+        }
+
+        /**
+         * Last modification time.
+         * @return Time if it is known
+         */
+        public Optional<ZonedDateTime> modified() {
+            return this.modified;
+        }
+    }
+}
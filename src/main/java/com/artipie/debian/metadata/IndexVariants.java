@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.streams.StorageValuePipeline;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Packages index variants: plain, xz and zstd compressed copies of the gzip compressed
+ * Packages index. Variants are generated one after another in the thread reading the index,
+ * each variant is streamed from the unpacked index into a temporary storage item, which
+ * replaces the variant once it is complete, so neither the index nor the variants are kept in
+ * memory and compression does not occupy the shared thread pools. Variants are always
+ * generated from the whole index, so when they are configured each index update costs full
+ * decompression and compression of the index no matter how few items are appended to the gzip
+ * compressed index: variants are generated once per Packages index update, that is once per
+ * group commit batch of the uploads, and not per uploaded package.
+ * @since 0.9
+ */
+public final class IndexVariants {
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Compression levels by compression.
+     */
+    private final Map<Compression, Integer> variants;
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param variants Compression levels by compression, gzip compression is ignored as
+     *  gzip compressed index is the origin of the variants
+     */
+    public IndexVariants(final Storage asto, final Map<Compression, Integer> variants) {
+        this.asto = asto;
+        this.variants = new EnumMap<>(variants);
+        this.variants.remove(Compression.GZ);
+    }
+
+    /**
+     * Generates index variants next to the gzip compressed Packages index.
+     * @param index Key of the gzip compressed Packages index
+     * @return Completion action
+     */
+    public CompletionStage<Void> generate(final Key index) {
+        CompletionStage<Void> res = CompletableFuture.allOf();
+        for (final Map.Entry<Compression, Integer> entry : this.variants.entrySet()) {
+            res = res.thenCompose(
+                nothing -> this.generate(index, entry.getKey(), entry.getValue())
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Generates one index variant: the variant is written into a temporary item, which is
+     * then moved to the variant key, the temporary item is removed on failure.
+     * @param index Key of the gzip compressed Packages index
+     * @param comp Variant compression
+     * @param level Compression level
+     * @return Completion action
+     */
+    private CompletionStage<Void> generate(
+        final Key index, final Compression comp, final int level
+    ) {
+        final Key temp = new Key.From(".meta", "tmp", UUID.randomUUID().toString());
+        return new StorageValuePipeline<Void>(this.asto, index, temp).processWithResult(
+            (input, out) -> {
+                IndexVariants.compress(input.get(), out, comp, level);
+                return null;
+            }
+        ).thenCompose(
+            nothing -> this.asto.move(temp, new Key.From(comp.variant(index.string())))
+        ).handle(
+            (nothing, err) -> {
+                final CompletionStage<Void> done;
+                if (err == null) {
+                    done = CompletableFuture.allOf();
+                } else {
+                    done = this.asto.exists(temp).thenCompose(
+                        exists -> {
+                            final CompletionStage<Void> del;
+                            if (exists) {
+                                del = this.asto.delete(temp);
+                            } else {
+                                del = CompletableFuture.allOf();
+                            }
+                            return del;
+                        }
+                    ).thenCompose(
+                        none -> {
+                            final CompletableFuture<Void> failed = new CompletableFuture<>();
+                            failed.completeExceptionally(err);
+                            return failed;
+                        }
+                    );
+                }
+                return done;
+            }
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Unpacks gzip compressed index and compresses it into the variant.
+     * @param input Gzip compressed index
+     * @param out Variant output, it is closed
+     * @param comp Variant compression
+     * @param level Compression level
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private static void compress(
+        final InputStream input, final OutputStream out, final Compression comp, final int level
+    ) {
+        try (
+            InputStream gis = new GzipCompressorInputStream(input, true);
+            OutputStream cos = comp.compress(new BufferedOutputStream(out), level)
+        ) {
+            IOUtils.copy(gis, cos);
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        }
+    }
+}
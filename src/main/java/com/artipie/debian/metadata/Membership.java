@@ -0,0 +1,326 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Membership of the packages (name and version pairs) in the Packages index: Bloom filter
+ * backed by the sorted set of 64-bit fingerprints. Bloom filter quickly rejects absent
+ * packages, fingerprints make the answer exact up to fingerprint collisions, which can
+ * only cause false positives. Membership is persisted outside of the published repository tree
+ * and is bound to the index by the stamp: storage metadata of the index (MD5 or size and last
+ * modification time) or, if the storage reports neither, SHA-256 digest of the compressed
+ * index, so any change of the index makes it stale. It also keeps the separator to write after the
+ * index content before appending new items and the count of the gzip members appended to the
+ * index since it was compressed as a whole.
+ * @since 0.9
+ */
+final class Membership {
+
+    /**
+     * Persisted format magic.
+     */
+    private static final int MAGIC = 0x44454249;
+
+    /**
+     * Persisted format version.
+     */
+    private static final byte VERSION = 3;
+
+    /**
+     * Bloom filter bits per item.
+     */
+    private static final int BITS = 10;
+
+    /**
+     * Bloom filter hash functions count.
+     */
+    private static final int HASHES = 7;
+
+    /**
+     * Bits in long word.
+     */
+    private static final int WORD = 64;
+
+    /**
+     * Index stamp.
+     */
+    private final String stamp;
+
+    /**
+     * Separator to write before new items.
+     */
+    private final String sep;
+
+    /**
+     * Count of the appended gzip members.
+     */
+    private final int members;
+
+    /**
+     * Sorted fingerprints.
+     */
+    private final long[] prints;
+
+    /**
+     * Bloom filter bits.
+     */
+    private final long[] bloom;
+
+    /**
+     * Ctor.
+     * @param stamp Index stamp
+     * @param sep Separator to write before new items
+     * @param prints Fingerprints of the index packages
+     */
+    Membership(final String stamp, final String sep, final long... prints) {
+        this(stamp, sep, 0, Membership.sorted(prints), Membership.filter(prints));
+    }
+
+    /**
+     * Primary ctor.
+     * @param stamp Index stamp
+     * @param sep Separator to write before new items
+     * @param members Count of the appended gzip members
+     * @param prints Sorted fingerprints
+     * @param bloom Bloom filter bits
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private Membership(
+        final String stamp, final String sep, final int members, final long[] prints,
+        final long[] bloom
+    ) {
+        this.stamp = stamp;
+        this.sep = sep;
+        this.members = members;
+        this.prints = prints;
+        this.bloom = bloom;
+    }
+
+    /**
+     * Whether membership describes the index with provided stamp.
+     * @param current Current stamp of the index
+     * @return True if membership is actual
+     */
+    boolean actual(final String current) {
+        return this.stamp.equals(current);
+    }
+
+    /**
+     * The same membership bound to the index by another stamp.
+     * @param current Current stamp of the index
+     * @return New membership
+     */
+    Membership stamped(final String current) {
+        return new Membership(current, this.sep, this.members, this.prints, this.bloom);
+    }
+
+    /**
+     * Separator to write after the index content before new items.
+     * @return Separator
+     */
+    String separator() {
+        return this.sep;
+    }
+
+    /**
+     * Count of the gzip members appended to the index since it was compressed as a whole.
+     * @return Members count
+     */
+    int members() {
+        return this.members;
+    }
+
+    /**
+     * Whether any of the packages may be present in the index.
+     * @param pairs Packages names and versions
+     * @return False if none of the packages is in the index
+     */
+    boolean mayContainAny(final Collection<Pair<String, String>> pairs) {
+        boolean res = false;
+        for (final Pair<String, String> pair : pairs) {
+            final long print = Membership.fingerprint(pair);
+            if (this.mayContain(print) && Arrays.binarySearch(this.prints, print) >= 0) {
+                res = true;
+                break;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Membership of the index with new packages added.
+     * @param pairs Added packages names and versions
+     * @param current Stamp of the new index
+     * @param next Separator to write after the new index content
+     * @return New membership with one more appended member
+     */
+    Membership with(
+        final Collection<Pair<String, String>> pairs, final String current, final String next
+    ) {
+        final long[] all = LongStream.concat(
+            Arrays.stream(this.prints), pairs.stream().mapToLong(Membership::fingerprint)
+        ).toArray();
+        return new Membership(
+            current, next, this.members + 1, Membership.sorted(all), Membership.filter(all)
+        );
+    }
+
+    /**
+     * Membership of the same index compressed as a whole.
+     * @param current Stamp of the compacted index
+     * @return New membership without appended members
+     */
+    Membership compacted(final String current) {
+        return new Membership(current, this.sep, 0, this.prints, this.bloom);
+    }
+
+    /**
+     * Serializes membership.
+     * @return Bytes
+     */
+    byte[] bytes() {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(res)) {
+            out.writeInt(Membership.MAGIC);
+            out.writeByte(Membership.VERSION);
+            out.writeUTF(this.stamp);
+            out.writeUTF(this.sep);
+            out.writeInt(this.members);
+            out.writeInt(this.bloom.length);
+            for (final long word : this.bloom) {
+                out.writeLong(word);
+            }
+            out.writeInt(this.prints.length);
+            for (final long print : this.prints) {
+                out.writeLong(print);
+            }
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        }
+        return res.toByteArray();
+    }
+
+    /**
+     * Reads persisted membership.
+     * @param bytes Persisted bytes
+     * @return Membership or empty if bytes are not valid persisted membership
+     */
+    static Optional<Membership> read(final byte[] bytes) {
+        Optional<Membership> res = Optional.empty();
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (input.readInt() == Membership.MAGIC && input.readByte() == Membership.VERSION) {
+                final String stamp = input.readUTF();
+                final String sep = input.readUTF();
+                final int members = input.readInt();
+                final long[] bloom = Membership.longs(input);
+                final long[] prints = Membership.longs(input);
+                if (bloom.length > 0) {
+                    res = Optional.of(new Membership(stamp, sep, members, prints, bloom));
+                }
+            }
+        } catch (final IOException | NegativeArraySizeException err) {
+            res = Optional.empty();
+        }
+        return res;
+    }
+
+    /**
+     * Reads array of longs prefixed by its length.
+     * @param input Input
+     * @return Array
+     * @throws IOException On IO error
+     */
+    private static long[] longs(final DataInputStream input) throws IOException {
+        final long[] res = new long[input.readInt()];
+        for (int idx = 0; idx < res.length; idx = idx + 1) {
+            res[idx] = input.readLong();
+        }
+        return res;
+    }
+
+    /**
+     * 64-bit FNV-1a fingerprint of the package name and version.
+     * @param pair Package name and version
+     * @return Fingerprint
+     * @checkstyle MagicNumberCheck (10 lines)
+     */
+    static long fingerprint(final Pair<String, String> pair) {
+        long res = 0xcbf29ce484222325L;
+        final String str = String.join("\u0000", pair.getKey(), pair.getValue());
+        for (int idx = 0; idx < str.length(); idx = idx + 1) {
+            res = res ^ str.charAt(idx);
+            res = res * 0x100000001b3L;
+        }
+        return res;
+    }
+
+    /**
+     * Checks Bloom filter.
+     * @param print Fingerprint
+     * @return False if fingerprint is definitely absent
+     */
+    private boolean mayContain(final long print) {
+        boolean res = true;
+        final long bits = (long) this.bloom.length * Membership.WORD;
+        for (int idx = 0; idx < Membership.HASHES; idx = idx + 1) {
+            final long bit = Membership.bit(print, idx, bits);
+            if ((this.bloom[(int) (bit / Membership.WORD)] & 1L << bit % Membership.WORD) == 0) {
+                res = false;
+                break;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Builds Bloom filter from fingerprints.
+     * @param prints Fingerprints
+     * @return Bloom filter bits
+     */
+    private static long[] filter(final long... prints) {
+        final long[] res = new long[prints.length * Membership.BITS / Membership.WORD + 1];
+        final long bits = (long) res.length * Membership.WORD;
+        for (final long print : prints) {
+            for (int idx = 0; idx < Membership.HASHES; idx = idx + 1) {
+                final long bit = Membership.bit(print, idx, bits);
+                res[(int) (bit / Membership.WORD)] |= 1L << bit % Membership.WORD;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Bloom filter bit for the fingerprint with double hashing.
+     * @param print Fingerprint
+     * @param num Hash function number
+     * @param bits Bloom filter size in bits
+     * @return Bit index
+     * @checkstyle MagicNumberCheck (5 lines)
+     */
+    private static long bit(final long print, final int num, final long bits) {
+        return Math.floorMod(print + num * (print >>> 32 | 1L), bits);
+    }
+
+    /**
+     * Sorts and removes duplicated fingerprints.
+     * @param prints Fingerprints
+     * @return Sorted distinct fingerprints
+     */
+    private static long[] sorted(final long... prints) {
+        return Arrays.stream(prints).sorted().distinct().toArray();
+    }
+}
@@ -6,18 +6,8 @@ package com.artipie.debian.metadata;
 
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.asto.streams.StorageValuePipeline;
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.io.UncheckedIOException;
-import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 
 /**
  * Package index.
@@ -35,8 +25,9 @@ public interface Package {
 
     /**
      * Simple {@link Package} implementation: it appends item to the index without any validation.
+     * New items are appended as a separate gzip member, existing index is not recompressed,
+     * see {@link GzMembers}.
      * @since 0.1
-     * @checkstyle ClassDataAbstractionCouplingCheck (100 lines)
      */
     final class Asto implements Package {
 
@@ -60,66 +51,13 @@ public interface Package {
 
         @Override
         public CompletionStage<Void> add(final Iterable<String> items, final Key index) {
-            return CompletableFuture.supplyAsync(
-                () -> String.join(Asto.SEP, items).getBytes(StandardCharsets.UTF_8)
-            ).thenCompose(
-                bytes -> new StorageValuePipeline<>(this.asto, index).process(
-                    (opt, out) -> {
-                        if (opt.isPresent()) {
-                            Asto.decompressAppendCompress(opt.get(), out, bytes);
-                        } else {
-                            Asto.compress(bytes, out);
-                        }
-                    }
-                )
-            );
-        }
-
-        /**
-         * Decompresses Packages.gz file, appends information and writes compressed result
-         * into new file.
-         * @param decompress File to decompress
-         * @param res Where to write the result
-         * @param append New bytes to append
-         */
-        @SuppressWarnings("PMD.AssignmentInOperand")
-        private static void decompressAppendCompress(
-            final InputStream decompress, final OutputStream res, final byte[] append
-        ) {
-            try (
-                OutputStream baos = new BufferedOutputStream(res);
-                GzipCompressorInputStream gcis = new GzipCompressorInputStream(
-                    new BufferedInputStream(decompress)
+            return CompletableFuture.supplyAsync(() -> String.join(Asto.SEP, items))
+                .thenCompose(
+                    data -> CompletableFuture.allOf(
+                        new GzMembers(this.asto, index).append(data, Asto.SEP)
+                            .toCompletableFuture()
+                    )
                 );
-                GzipCompressorOutputStream gcos =
-                    new GzipCompressorOutputStream(new BufferedOutputStream(baos))
-            ) {
-                // @checkstyle MagicNumberCheck (1 line)
-                final byte[] buf = new byte[1024];
-                int cnt;
-                while (-1 != (cnt = gcis.read(buf))) {
-                    gcos.write(buf, 0, cnt);
-                }
-                gcos.write(Asto.SEP.getBytes(StandardCharsets.UTF_8));
-                gcos.write(append);
-            } catch (final IOException err) {
-                throw new UncheckedIOException(err);
-            }
-        }
-
-        /**
-         * Compress text for new Package index.
-         * @param bytes Bytes to compress
-         * @param res Output stream to write the result
-         */
-        private static void compress(final byte[] bytes, final OutputStream res) {
-            try (GzipCompressorOutputStream gcos =
-                new GzipCompressorOutputStream(new BufferedOutputStream(res))
-                ) {
-                gcos.write(bytes);
-            } catch (final IOException err) {
-                throw new UncheckedIOException(err);
-            }
         }
     }
 
@@ -0,0 +1,453 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.Digests;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.streams.ContentAsStream;
+import com.artipie.debian.misc.EdDiff;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+
+/**
+ * Diffs of the Packages index (pdiffs) for incremental index updates: when Packages index
+ * changes, ed script from the previous version to the current one is saved gzip compressed as
+ * `Packages.diff/<name>.gz` and is added to `Packages.diff/Index`, which lists the history of
+ * the index versions with the diffs applying to them. Previous version of the index is read
+ * from its by-hash copy. Clients having one of the listed versions download and apply the
+ * diffs instead of the whole index. Only the configured number of the latest diffs is kept,
+ * older diffs are removed. If the previous version is unavailable, the change can not be
+ * expressed with a diff (see {@link EdDiff}) or any of the versions is larger than
+ * {@link #MAX_SIZE} uncompressed, diffs are removed altogether, so clients download the whole
+ * index. Diffs index and diffs published by hash are kept, they are collected along with other
+ * by-hash items.
+ * @since 0.9
+ */
+final class PackagesDiffs {
+
+    /**
+     * Diffs directory name.
+     */
+    private static final String DIR = "Packages.diff";
+
+    /**
+     * Diff names format.
+     */
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern(
+        "yyyy-MM-dd-HHmm.ss"
+    );
+
+    /**
+     * Max size of the uncompressed index versions to diff: both versions are kept in memory
+     * while the diff is calculated.
+     */
+    static final int MAX_SIZE = 32 * 1024 * 1024;
+
+    /**
+     * Field of the diffs index with the current version of the Packages index.
+     */
+    private static final String CURRENT = "SHA256-Current";
+
+    /**
+     * Sections of the diffs index: versions history, diffs and compressed diffs.
+     */
+    private static final List<String> SECTIONS = Arrays.asList(
+        "SHA256-History", "SHA256-Patches", "SHA256-Download"
+    );
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Release index directory, ends with `/`.
+     */
+    private final String root;
+
+    /**
+     * Diffs history size.
+     */
+    private final int history;
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param root Release index directory, ends with `/`
+     * @param history Diffs history size
+     */
+    PackagesDiffs(final Storage asto, final String root, final int history) {
+        this.asto = asto;
+        this.root = root;
+        this.history = history;
+    }
+
+    /**
+     * Path of the diffs index.
+     * @param path Packages index path relative to the Release index
+     * @return Diffs index path relative to the Release index
+     */
+    static String index(final String path) {
+        return String.format("%s/Index", PackagesDiffs.dir(path));
+    }
+
+    /**
+     * Adds the diff from the previous version of the Packages index to the current one.
+     * Previous version is read from its by-hash copy as a stream and is decompressed up to
+     * {@link #MAX_SIZE} bytes.
+     * @param path Gzip compressed Packages index path relative to the Release index
+     * @param previous SHA256 hex of the previous version of the gzip compressed index
+     * @param current Uncompressed current version of the index, empty if it is larger than
+     *  {@link #MAX_SIZE}
+     * @return Diffs index key or empty if diffs were removed
+     */
+    CompletionStage<Optional<Key>> update(
+        final String path, final String previous, final Optional<byte[]> current
+    ) {
+        final Key prev = new ByHash(this.asto, this.root).key(path, previous);
+        return this.asto.exists(prev).thenCompose(
+            exists -> {
+                final CompletionStage<Optional<Key>> res;
+                if (exists && current.isPresent()) {
+                    res = this.asto.value(prev).thenCompose(
+                        content -> new ContentAsStream<Optional<byte[]>>(content)
+                            .process(PackagesDiffs::gunzip)
+                    ).thenCompose(
+                        before -> {
+                            final CompletionStage<Optional<Key>> upd;
+                            if (before.isPresent()) {
+                                upd = this.update(path, before.get(), current.get());
+                            } else {
+                                upd = this.clear(path);
+                            }
+                            return upd;
+                        }
+                    );
+                } else {
+                    res = this.clear(path);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Adds the diff between the versions of the index, diffs index is kept as is if the index
+     * has not changed.
+     * @param path Gzip compressed Packages index path relative to the Release index
+     * @param old Previous version of the index
+     * @param cur Current version of the index
+     * @return Diffs index key or empty if diffs were removed
+     */
+    private CompletionStage<Optional<Key>> update(
+        final String path, final byte[] old, final byte[] cur
+    ) {
+        final Key key = new Key.From(this.root + PackagesDiffs.index(path));
+        final String dir = this.root + PackagesDiffs.dir(path);
+        final Optional<String> script = new EdDiff(
+            PackagesDiffs.lines(old), PackagesDiffs.lines(cur)
+        ).script();
+        final CompletionStage<Optional<Key>> res;
+        if (Arrays.equals(old, cur)) {
+            res = this.asto.exists(key).thenApply(
+                exists -> Optional.of(key).filter(item -> exists)
+            );
+        } else if (script.isPresent()) {
+            res = this.asto.exists(key).thenCompose(
+                exists -> {
+                    final CompletionStage<byte[]> bytes;
+                    if (exists) {
+                        bytes = this.bytes(key);
+                    } else {
+                        bytes = CompletableFuture.completedFuture(new byte[0]);
+                    }
+                    return bytes;
+                }
+            ).thenCompose(
+                bytes -> this.save(
+                    dir, PackagesDiffs.parse(bytes), new String[] {
+                        PackagesDiffs.entry(old), PackagesDiffs.entry(cur),
+                    },
+                    script.get().getBytes(StandardCharsets.UTF_8)
+                )
+            ).thenApply(nothing -> Optional.of(key));
+        } else {
+            res = this.clear(path);
+        }
+        return res;
+    }
+
+    /**
+     * Saves the diff and the diffs index, removes diffs beyond the history size. If the
+     * previous version is not the current version of the diffs index, the history is
+     * started anew.
+     * @param dir Diffs directory
+     * @param index Parsed diffs index
+     * @param versions SHA256 hexes and sizes of the previous and the current index versions
+     * @param patch Diff from the previous version to the current one
+     * @return Completion action
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Void> save(final String dir, final Map<String, List<String>> index,
+        final String[] versions, final byte[] patch) {
+        final boolean reset = !index.get(PackagesDiffs.CURRENT).contains(versions[0]);
+        final List<CompletableFuture<Void>> removed = new ArrayList<>(1);
+        while (!index.get(PackagesDiffs.SECTIONS.get(0)).isEmpty()
+            && (reset || index.get(PackagesDiffs.SECTIONS.get(0)).size() >= this.history)) {
+            final String[] parts = index.get(PackagesDiffs.SECTIONS.get(0)).remove(0).split(" ");
+            index.get(PackagesDiffs.SECTIONS.get(1)).remove(0);
+            index.get(PackagesDiffs.SECTIONS.get(2)).remove(0);
+            removed.add(this.asto.delete(new Key.From(dir, String.format("%s.gz", parts[2]))));
+        }
+        final String name = String.format(
+            "%s-%s",
+            PackagesDiffs.NAME.format(ZonedDateTime.now(ZoneOffset.UTC)),
+            versions[1].substring(0, 8)
+        );
+        final byte[] gzip = PackagesDiffs.gzip(patch);
+        index.get(PackagesDiffs.CURRENT).clear();
+        index.get(PackagesDiffs.CURRENT).add(versions[1]);
+        index.get(PackagesDiffs.SECTIONS.get(0)).add(String.format("%s %s", versions[0], name));
+        index.get(PackagesDiffs.SECTIONS.get(1)).add(
+            String.format("%s %s", PackagesDiffs.entry(patch), name)
+        );
+        index.get(PackagesDiffs.SECTIONS.get(2)).add(
+            String.format("%s %s.gz", PackagesDiffs.entry(gzip), name)
+        );
+        return CompletableFuture.allOf(removed.toArray(new CompletableFuture[0]))
+            .thenCompose(
+                nothing -> this.asto.save(
+                    new Key.From(dir, String.format("%s.gz", name)), new Content.From(gzip)
+                )
+            ).thenCompose(
+                nothing -> this.asto.save(
+                    new Key.From(dir, "Index"), new Content.From(PackagesDiffs.serialize(index))
+                )
+            );
+    }
+
+    /**
+     * Removes diffs of the index and the diffs index. Items published by hash are kept: clients
+     * holding the previous Release index may still request them, they are removed once the
+     * retention period is over.
+     * @param path Packages index path relative to the Release index
+     * @return Empty diffs index key
+     */
+    private CompletionStage<Optional<Key>> clear(final String path) {
+        final String dir = this.root + PackagesDiffs.dir(path);
+        final String hashed = String.format("%s/by-hash/", dir);
+        return this.asto.list(new Key.From(dir)).thenCompose(
+            keys -> CompletableFuture.allOf(
+                keys.stream().filter(key -> !key.string().startsWith(hashed))
+                    .map(this.asto::delete).toArray(CompletableFuture[]::new)
+            )
+        ).thenApply(nothing -> Optional.empty());
+    }
+
+    /**
+     * Reads storage item.
+     * @param key Item key
+     * @return Item bytes
+     */
+    private CompletionStage<byte[]> bytes(final Key key) {
+        return this.asto.value(key).thenApply(PublisherAs::new).thenCompose(PublisherAs::bytes);
+    }
+
+    /**
+     * Path of the diffs directory.
+     * @param path Packages index path relative to the Release index
+     * @return Diffs directory path relative to the Release index
+     */
+    private static String dir(final String path) {
+        return String.format(
+            "%s%s", path.substring(0, path.lastIndexOf('/') + 1), PackagesDiffs.DIR
+        );
+    }
+
+    /**
+     * Parses diffs index.
+     * @param bytes Diffs index bytes
+     * @return Entries by section name, current version is the only entry of `SHA256-Current`
+     */
+    private static Map<String, List<String>> parse(final byte[] bytes) {
+        final Map<String, List<String>> res = new LinkedHashMap<>();
+        res.put(PackagesDiffs.CURRENT, new ArrayList<>(1));
+        PackagesDiffs.SECTIONS.forEach(section -> res.put(section, new ArrayList<>(1)));
+        String section = "";
+        for (final String line : new String(bytes, StandardCharsets.UTF_8).split("\n")) {
+            if (line.startsWith(" ") && res.containsKey(section)) {
+                res.get(section).add(line.trim());
+            } else if (line.contains(":")) {
+                section = line.substring(0, line.indexOf(':'));
+                final String value = line.substring(line.indexOf(':') + 1).trim();
+                if (!value.isEmpty() && res.containsKey(section)) {
+                    res.get(section).add(value);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Serializes diffs index.
+     * @param index Entries by section name
+     * @return Diffs index bytes
+     */
+    private static byte[] serialize(final Map<String, List<String>> index) {
+        final StringBuilder res = new StringBuilder();
+        index.forEach(
+            (section, entries) -> {
+                if (PackagesDiffs.CURRENT.equals(section)) {
+                    res.append(section).append(": ").append(entries.get(0)).append('\n');
+                } else {
+                    res.append(section).append(":\n");
+                    entries.forEach(entry -> res.append(' ').append(entry).append('\n'));
+                }
+            }
+        );
+        return res.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * SHA256 hex and size of the bytes.
+     * @param bytes Bytes
+     * @return Diffs index entry
+     */
+    private static String entry(final byte[] bytes) {
+        return String.format(
+            "%s %d", Hex.encodeHexString(Digests.SHA256.get().digest(bytes)), bytes.length
+        );
+    }
+
+    /**
+     * Splits text into lines.
+     * @param bytes Text bytes
+     * @return Lines with line breaks, the last line has no line break if the text does not
+     *  end with it
+     */
+    private static List<String> lines(final byte[] bytes) {
+        final String text = new String(bytes, StandardCharsets.UTF_8);
+        final List<String> res = new ArrayList<>(16);
+        int start = 0;
+        int end = text.indexOf('\n');
+        while (end >= 0) {
+            res.add(text.substring(start, end + 1));
+            start = end + 1;
+            end = text.indexOf('\n', start);
+        }
+        if (start < text.length()) {
+            res.add(text.substring(start));
+        }
+        return res;
+    }
+
+    /**
+     * Decompresses gzip stream, several gzip members are decompressed one after another.
+     * Decompression stops as soon as the size limit is exceeded.
+     * @param input Gzip compressed stream
+     * @return Decompressed bytes or empty if they are larger than {@link #MAX_SIZE}
+     */
+    private static Optional<byte[]> gunzip(final InputStream input) {
+        try (InputStream gis = new BoundedInputStream(
+            new GzipCompressorInputStream(input, true), PackagesDiffs.MAX_SIZE + 1L
+        )) {
+            return Optional.of(IOUtils.toByteArray(gis))
+                .filter(res -> res.length <= PackagesDiffs.MAX_SIZE);
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        }
+    }
+
+    /**
+     * Compresses bytes with gzip.
+     * @param bytes Bytes to compress
+     * @return Gzip compressed bytes
+     */
+    private static byte[] gzip(final byte[] bytes) {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (OutputStream gos = Compression.GZ.compress(res, Compression.GZ.level())) {
+            gos.write(bytes);
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        }
+        return res.toByteArray();
+    }
+
+    /**
+     * Output stream keeping the written bytes in memory up to the limit: once more bytes are
+     * written, the kept bytes are dropped and the rest is discarded. It is used to collect
+     * the uncompressed current version of the index while the index is read for its
+     * checksums, limit is {@link #MAX_SIZE} if diffs are enabled and zero otherwise.
+     * @since 0.9
+     */
+    static final class Bounded extends OutputStream {
+
+        /**
+         * Size limit.
+         */
+        private final int limit;
+
+        /**
+         * Kept bytes, empty once the limit is exceeded.
+         */
+        private Optional<ByteArrayOutputStream> kept;
+
+        /**
+         * Ctor.
+         * @param limit Size limit
+         */
+        Bounded(final int limit) {
+            super();
+            this.limit = limit;
+            this.kept = Optional.of(new ByteArrayOutputStream());
+        }
+
+        @Override
+        public void write(final int data) {
+            this.write(new byte[] {(byte) data}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] data, final int off, final int len) {
+            if (this.kept.isPresent()) {
+                if (this.kept.get().size() + (long) len > this.limit) {
+                    this.kept = Optional.empty();
+                } else {
+                    this.kept.get().write(data, off, len);
+                }
+            }
+        }
+
+        /**
+         * Written bytes.
+         * @return Bytes or empty if the limit was exceeded
+         */
+        Optional<byte[]> bytes() {
+            return this.kept.map(ByteArrayOutputStream::toByteArray);
+        }
+    }
+}
@@ -6,8 +6,11 @@ package com.artipie.debian.metadata;
 
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.asto.ext.ContentDigest;
 import com.artipie.asto.ext.Digests;
+import com.artipie.debian.misc.MultiDigest;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import hu.akarnokd.rxjava2.interop.SingleInterop;
+import io.reactivex.Flowable;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -26,12 +29,25 @@ public interface PackagesItem {
      */
     CompletionStage<String> format(String content, Key key);
 
+    /**
+     * Formats packages item reading control file, size and checksums from the package
+     * at once, in a single pass over the package content.
+     * @param key Deb package key
+     * @return Completion action with formatted package item
+     */
+    CompletionStage<String> format(Key key);
+
     /**
      * {@link PackagesItem} from abstract storage.
      * @since 0.1
      */
     final class Asto implements PackagesItem {
 
+        /**
+         * Digests of the package to add into the item.
+         */
+        static final Digests[] DIGESTS = {Digests.MD5, Digests.SHA1, Digests.SHA256};
+
         /**
          * Abstract storage.
          */
@@ -47,74 +63,60 @@ public interface PackagesItem {
 
         @Override
         public CompletionStage<String> format(final String control, final Key deb) {
-            return this.asto.value(deb).thenApply(
-                val -> Asto.addSizeAndFilename(
-                    val.size().orElseThrow(
-                        () -> new IllegalStateException("Content size unknown")
-                    ), deb.string(), control
-                )
-            )
-            .thenCompose(
-                res -> this.digests(deb, Digests.MD5)
-                    .thenApply(hex -> Asto.addDigest(res, "MD5sum", hex))
-            )
-            .thenCompose(
-                res -> this.digests(deb, Digests.SHA1)
-                    .thenApply(hex -> Asto.addDigest(res, "SHA1", hex))
-            )
-            .thenCompose(
-                res -> this.digests(deb, Digests.SHA256)
-                    .thenApply(hex -> Asto.addDigest(res, "SHA256", hex))
-            )
-            .thenApply(Asto::sort);
+            return this.digest(deb).thenApply(digest -> Asto.item(control, deb.string(), digest));
         }
 
         /**
-         * Calculates digest for the given algorithm.
-         * @param deb Debian package key
-         * @param alg Algorithm
-         * @return Digest hex
+         * {@inheritDoc}
+         * <p>
+         * Package content is read once without blocking: each chunk updates size and digests
+         * and only control archive member is kept until it is complete, see
+         * {@link StreamedItem}.
          */
-        private CompletionStage<String> digests(final Key deb, final Digests alg) {
+        @Override
+        public CompletionStage<String> format(final Key deb) {
+            final StreamedItem streamed = new StreamedItem(deb.string());
             return this.asto.value(deb).thenCompose(
-                val -> new ContentDigest(val, alg).hex()
-            );
+                val -> Flowable.fromPublisher(streamed.content(val)).ignoreElements()
+                    .to(CompletableInterop.await())
+            ).thenApply(nothing -> streamed.item());
         }
 
         /**
-         * Adds digest to control.
-         * @param control Control to append info to
-         * @param alg Algorithm
-         * @param hex Hex
-         * @return Control with digest
+         * Calculates package size and digests.
+         * @param deb Deb package key
+         * @return Completion action with calculated size and digests
          */
-        private static String addDigest(final String control, final String alg, final String hex) {
-            return Stream.concat(
-                Stream.of(control.split("\n")),
-                Stream.of(
-                    String.format("%s: %s", alg, hex)
-                )
-            ).collect(Collectors.joining("\n"));
+        private CompletionStage<MultiDigest> digest(final Key deb) {
+            return this.asto.value(deb).thenCompose(
+                val -> Flowable.fromPublisher(val).collect(
+                    () -> new MultiDigest(Asto.DIGESTS), MultiDigest::update
+                ).to(SingleInterop.get())
+            );
         }
 
         /**
-         * Adds size and filename to the control.
-         * @param size Package size
-         * @param filename Filename
+         * Adds filename, size and checksums to control and sorts the result.
          * @param control Control file
-         * @return Control with size and file name
-         * @checkstyle ParameterNumberCheck (5 lines)
+         * @param filename Filename
+         * @param digest Calculated package size and digests
+         * @return Packages item
          */
-        private static String addSizeAndFilename(
-            final long size, final String filename, final String control
+        static String item(
+            final String control, final String filename, final MultiDigest digest
         ) {
-            return Stream.concat(
-                Stream.of(control.split("\n")),
-                Stream.of(
-                    String.format("Filename: %s", filename),
-                    String.format("Size: %d", size)
-                )
-            ).collect(Collectors.joining("\n"));
+            return Asto.sort(
+                Stream.concat(
+                    Stream.of(control.split("\n")),
+                    Stream.of(
+                        String.format("Filename: %s", filename),
+                        String.format("Size: %d", digest.size()),
+                        String.format("MD5sum: %s", digest.hex(Digests.MD5)),
+                        String.format("SHA1: %s", digest.hex(Digests.SHA1)),
+                        String.format("SHA256: %s", digest.hex(Digests.SHA256))
+                    )
+                ).collect(Collectors.joining("\n"))
+            );
         }
 
         /**
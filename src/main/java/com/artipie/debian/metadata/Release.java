@@ -7,24 +7,36 @@ package com.artipie.debian.metadata;
 import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.asto.ext.ContentDigest;
 import com.artipie.asto.ext.Digests;
 import com.artipie.asto.ext.PublisherAs;
 import com.artipie.asto.rx.RxStorageWrapper;
-import com.artipie.asto.streams.ContentAsStream;
+import com.artipie.asto.streams.StorageValuePipeline;
 import com.artipie.debian.Config;
 import com.artipie.debian.GpgConfig;
 import com.artipie.debian.misc.GpgClearsign;
-import com.artipie.debian.misc.SizeAndDigest;
+import com.artipie.debian.misc.GzDigests;
+import com.artipie.debian.misc.MultiDigest;
+import com.artipie.debian.misc.StripedLocks;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
 import io.reactivex.Observable;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.regex.Pattern;
-import org.apache.commons.lang3.tuple.ImmutablePair;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.apache.commons.io.input.TeeInputStream;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang3.tuple.Pair;
 
 /**
@@ -36,18 +48,28 @@ import org.apache.commons.lang3.tuple.Pair;
 public interface Release {
 
     /**
-     * Creates Release metadata file for the repository.
+     * Creates Release metadata file for the repository along with Release.gpg signature
+     * and InRelease index.
      * @return Completed action
      */
     CompletionStage<Void> create();
 
     /**
-     * Updates (or adds) info of the package.
+     * Updates (or adds) info of the package, Release.gpg signature and InRelease index
+     * are updated as well.
      * @param pckg Package index key to update/add
      * @return Completed action
      */
     CompletionStage<Void> update(Key pckg);
 
+    /**
+     * Updates (or adds) info of the packages indexes at once: Release index is read, signed
+     * and saved along with Release.gpg signature and InRelease index only once.
+     * @param pckgs Package indexes keys to update/add
+     * @return Completed action
+     */
+    CompletionStage<Void> update(Collection<Key> pckgs);
+
     /**
      * Release index file storage key.
      * @return Item key
@@ -66,6 +88,14 @@ public interface Release {
      */
     final class Asto implements Release {
 
+        /**
+         * Digest algorithms of the checksum sections, in the order of
+         * {@link ReleaseIndex#SECTIONS}.
+         */
+        private static final Digests[] DIGESTS = {
+            Digests.MD5, Digests.SHA1, Digests.SHA256, Digests.SHA512,
+        };
+
         /**
          * Abstract storage.
          */
@@ -76,56 +106,46 @@ public interface Release {
          */
         private final Config config;
 
+        /**
+         * Locks to update Release index.
+         */
+        private final StripedLocks locks;
+
         /**
          * Ctor.
          * @param asto Abstract storage
          * @param config Repository config
          */
         public Asto(final Storage asto, final Config config) {
+            this(asto, config, StripedLocks.SHARED);
+        }
+
+        /**
+         * Ctor.
+         * @param asto Abstract storage
+         * @param config Repository config
+         * @param locks Locks to update Release index, Release index is created and updated
+         *  holding the lock of its key
+         */
+        public Asto(final Storage asto, final Config config, final StripedLocks locks) {
             this.asto = asto;
             this.config = config;
+            this.locks = locks;
         }
 
         @Override
         public CompletionStage<Void> create() {
-            return this.checksums()
-                .thenApply(
-                    checksums -> String.join(
-                        "\n",
-                        String.format("Codename: %s", this.config.codename()),
-                        String.format("Architectures: %s", String.join(" ", this.config.archs())),
-                        String.format("Components: %s", String.join(" ", this.config.components())),
-                        String.format(
-                            "Date: %s",
-                            DateTimeFormatter.ofPattern("E, MMM dd yyyy HH:mm:ss Z")
-                                .format(ZonedDateTime.now())
-                        ),
-                        "SHA256:",
-                        checksums
-                    )
-                ).thenApply(str -> str.getBytes(StandardCharsets.UTF_8))
-                .thenCompose(
-                    bytes -> this.asto.save(this.key(), new Content.From(bytes))
-                        .thenCompose(nothing -> this.handleGpg(bytes))
-                );
+            return this.locks.run(this.key(), this::createUnlocked);
         }
 
         @Override
         public CompletionStage<Void> update(final Key pckg) {
-            final String key = pckg.string().replace(this.subDir(), "");
-            return this.packageData(pckg).thenCompose(
-                pair -> this.asto.value(this.key()).thenCompose(
-                    content -> new PublisherAs(content).asciiString().thenApply(
-                        str -> Asto.addReplace(str, key, pair.getLeft())
-                    ).thenApply(
-                        str -> Asto.addReplace(str, key.replace(".gz", ""), pair.getRight())
-                    )
-                )
-            ).thenApply(str -> str.getBytes(StandardCharsets.UTF_8))
-                .thenCompose(
-                    bytes -> this.asto.save(this.key(), new Content.From(bytes))
-                        .thenCompose(nothing -> this.handleGpg(bytes))
-            );
+            return this.update(Collections.singletonList(pckg));
+        }
+
+        @Override
+        public CompletionStage<Void> update(final Collection<Key> pckgs) {
+            return this.locks.run(this.key(), () -> this.updateUnlocked(pckgs));
         }
 
         @Override
@@ -139,8 +159,207 @@ public interface Release {
         }
 
         /**
-         * Handles gpg clearsign: generates the signature if corresponding settings are provided or
-         * removes the .gpg file if it is present and settings are not provided.
+         * Creates Release index, the lock should be held. Date of the existing index is kept if
+         * nothing else has changed, so the index is not rewritten and signed again.
+         * @return Completion action
+         */
+        private CompletionStage<Void> createUnlocked() {
+            return this.checksums().thenCompose(
+                checksums -> this.existing().thenCompose(
+                    old -> {
+                        final ReleaseIndex index = new ReleaseIndex()
+                            .field("Codename", this.config.codename())
+                            .field("Architectures", String.join(" ", this.config.archs()))
+                            .field("Components", String.join(" ", this.config.components()))
+                            .field(
+                                "Date",
+                                old.flatMap(
+                                    bytes -> ReleaseIndex.parse(
+                                        new String(bytes, StandardCharsets.UTF_8)
+                                    ).value("Date")
+                                ).orElse("")
+                            )
+                            .field("Acquire-By-Hash", "yes");
+                        ReleaseIndex.SECTIONS.forEach(index::section);
+                        Asto.put(index, checksums);
+                        if (!old.isPresent() || !Arrays.equals(old.get(), index.bytes())) {
+                            index.field("Date", ReleaseIndex.DATE.format(ZonedDateTime.now()));
+                        }
+                        return this.publish(index.bytes(), old);
+                    }
+                )
+            );
+        }
+
+        /**
+         * Updates Release index, the lock should be held. Packages indexes are processed one
+         * by one as they share the parsed Release index, each index is read once as a stream
+         * for its checksums and by-hash copy, uncompressed index is kept in memory for its
+         * diff only if diffs are enabled and up to {@link PackagesDiffs#MAX_SIZE} bytes.
+         * Date is refreshed if the index has changed.
+         * @param pckgs Package indexes keys to update/add
+         * @return Completion action
+         */
+        private CompletionStage<Void> updateUnlocked(final Collection<Key> pckgs) {
+            return this.asto.value(this.key()).thenApply(PublisherAs::new)
+                .thenCompose(PublisherAs::bytes)
+                .thenCompose(
+                    old -> {
+                        final ReleaseIndex index = ReleaseIndex.parse(
+                            new String(old, StandardCharsets.UTF_8)
+                        );
+                        CompletionStage<Void> upd = CompletableFuture.allOf();
+                        for (final Key pckg : pckgs) {
+                            upd = upd.thenCompose(nothing -> this.updatePackage(index, pckg));
+                        }
+                        return upd.thenCompose(
+                            nothing -> {
+                                index.field("Acquire-By-Hash", "yes");
+                                if (!Arrays.equals(old, index.bytes())) {
+                                    index.field(
+                                        "Date", ReleaseIndex.DATE.format(ZonedDateTime.now())
+                                    );
+                                }
+                                return this.publish(index.bytes(), Optional.of(old));
+                            }
+                        );
+                    }
+                );
+        }
+
+        /**
+         * Updates checksums and diffs of the Packages index in the Release index.
+         * @param index Release index
+         * @param pckg Gzip compressed Packages index key
+         * @return Completion action
+         */
+        private CompletionStage<Void> updatePackage(final ReleaseIndex index, final Key pckg) {
+            final PackagesDiffs.Bounded plain;
+            if (this.config.pdiffs() > 0) {
+                plain = new PackagesDiffs.Bounded(PackagesDiffs.MAX_SIZE);
+            } else {
+                plain = new PackagesDiffs.Bounded(0);
+            }
+            return this.packageData(pckg, plain).thenCompose(
+                data -> this.diffs(pckg, index, plain.bytes())
+                    .thenAccept(nothing -> Asto.put(index, data))
+            );
+        }
+
+        /**
+         * Adds the diff of the Packages index to its diffs index and updates the diffs index
+         * entry of the Release index, if diffs are enabled and the previous version of the
+         * Packages index is listed in the Release index.
+         * @param pckg Gzip compressed Packages index key
+         * @param index Release index listing the previous version of the Packages index
+         * @param current Uncompressed current version of the Packages index, empty if it is
+         *  too large to diff
+         * @return Completion action
+         */
+        private CompletionStage<Void> diffs(
+            final Key pckg, final ReleaseIndex index, final Optional<byte[]> current
+        ) {
+            final String path = pckg.string().replace(this.subDir(), "");
+            final Optional<String> previous = index.hex("SHA256", path);
+            final CompletionStage<Void> res;
+            if (this.config.pdiffs() > 0 && previous.isPresent()) {
+                res = new PackagesDiffs(this.asto, this.subDir(), this.config.pdiffs())
+                    .update(path, previous.get(), current)
+                    .thenCompose(
+                        diffs -> {
+                            final CompletionStage<Void> entry;
+                            if (diffs.isPresent()) {
+                                entry = this.digest(diffs.get()).thenAccept(
+                                    sum -> Asto.put(
+                                        index,
+                                        Collections.singletonMap(
+                                            PackagesDiffs.index(path), sum
+                                        )
+                                    )
+                                );
+                            } else {
+                                index.remove(PackagesDiffs.index(path));
+                                entry = CompletableFuture.allOf();
+                            }
+                            return entry;
+                        }
+                    );
+            } else {
+                res = CompletableFuture.allOf();
+            }
+            return res;
+        }
+
+        /**
+         * Bytes of the existing Release index.
+         * @return Index bytes if the index exists
+         */
+        private CompletionStage<Optional<byte[]>> existing() {
+            return this.asto.exists(this.key()).thenCompose(
+                exists -> {
+                    final CompletionStage<Optional<byte[]>> res;
+                    if (exists) {
+                        res = this.asto.value(this.key()).thenApply(PublisherAs::new)
+                            .thenCompose(PublisherAs::bytes)
+                            .thenApply(Optional::of);
+                    } else {
+                        res = CompletableFuture.completedFuture(Optional.empty());
+                    }
+                    return res;
+                }
+            );
+        }
+
+        /**
+         * Publishes Release index along with Release.gpg and InRelease built from the same
+         * bytes. Nothing is signed or written if the stored index has the same content and
+         * its signed companions are in place. Listed index files are published by hash while
+         * their checksums are calculated, from the same bytes, listed files which are still
+         * not published are published before the Release index, so clients never get the
+         * Release index listing missing by-hash items; by-hash items which are not listed
+         * anymore are collected afterwards.
+         * @param release Release index bytes
+         * @param old Bytes of the stored Release index
+         * @return Completion action
+         */
+        private CompletionStage<Void> publish(final byte[] release, final Optional<byte[]> old) {
+            final CompletionStage<Boolean> same;
+            if (old.isPresent() && Arrays.equals(old.get(), release)) {
+                same = this.asto.exists(this.inRelease()).thenCombine(
+                    this.asto.exists(this.gpgSignatureKey()),
+                    (inrelease, gpg) -> inrelease && gpg == this.config.gpg().isPresent()
+                );
+            } else {
+                same = CompletableFuture.completedFuture(false);
+            }
+            return same.thenCompose(
+                unchanged -> {
+                    final CompletionStage<Void> res;
+                    if (unchanged) {
+                        res = CompletableFuture.allOf();
+                    } else {
+                        final Map<String, String> hexes = ReleaseIndex.parse(
+                            new String(release, StandardCharsets.UTF_8)
+                        ).hexes("SHA256");
+                        final ByHash hashed = new ByHash(this.asto, this.subDir());
+                        res = hashed.publish(hexes)
+                            .thenCompose(nothing -> this.handleGpg(release))
+                            .thenCompose(
+                                nothing -> hashed.collect(hexes, this.config.byHashRetention())
+                            );
+                    }
+                    return res;
+                }
+            );
+        }
+
+        /**
+         * Handles gpg signatures: if corresponding settings are provided, Release.gpg detached
+         * signature and InRelease clearsigned index are generated in parallel. Otherwise,
+         * Release index is saved as InRelease and the .gpg file is removed if it is present.
+         * Signed companions are saved before the Release index and Release index is saved last,
+         * so the Release index written by the previous update is replaced only when its
+         * companions are in place and a failed signing leaves it as is.
          * @param release Release file bytes
          * @return Completion action
          */
@@ -148,25 +367,58 @@ public interface Release {
             final CompletionStage<Void> res;
             if (this.config.gpg().isPresent()) {
                 final GpgConfig gpg = this.config.gpg().get();
-                res = gpg.key().thenApply(
-                    key -> new GpgClearsign(release).signature(key, gpg.password())
-                ).thenCompose(
-                    sign -> this.asto.save(this.gpgSignatureKey(), new Content.From(sign))
+                res = gpg.key().thenCompose(
+                    key -> {
+                        final GpgClearsign sign = new GpgClearsign(release);
+                        final CompletableFuture<byte[]> clearsigned = CompletableFuture
+                            .supplyAsync(() -> sign.signedContent(key, gpg.password()));
+                        return CompletableFuture
+                            .supplyAsync(() -> sign.signature(key, gpg.password()))
+                            .thenCompose(
+                                detached -> clearsigned.thenCompose(
+                                    inrelease -> CompletableFuture.allOf(
+                                        this.save(this.gpgSignatureKey(), detached),
+                                        this.save(this.inRelease(), inrelease)
+                                    )
+                                )
+                            );
+                    }
                 );
             } else {
-                res = this.asto.exists(this.gpgSignatureKey()).thenCompose(
-                    exists -> {
-                        final CompletionStage<Void> del;
-                        if (exists) {
-                            del = this.asto.delete(this.gpgSignatureKey());
-                        } else {
-                            del = CompletableFuture.allOf();
+                res = CompletableFuture.allOf(
+                    this.save(this.inRelease(), release),
+                    this.asto.exists(this.gpgSignatureKey()).thenCompose(
+                        exists -> {
+                            final CompletionStage<Void> del;
+                            if (exists) {
+                                del = this.asto.delete(this.gpgSignatureKey());
+                            } else {
+                                del = CompletableFuture.allOf();
+                            }
+                            return del;
                         }
-                        return del;
-                    }
+                    ).toCompletableFuture()
                 );
             }
-            return res;
+            return res.thenCompose(nothing -> this.save(this.key(), release));
+        }
+
+        /**
+         * Saves bytes to storage.
+         * @param key Item key
+         * @param bytes Bytes to save
+         * @return Completion action
+         */
+        private CompletableFuture<Void> save(final Key key, final byte[] bytes) {
+            return this.asto.save(key, new Content.From(bytes)).toCompletableFuture();
+        }
+
+        /**
+         * InRelease index key.
+         * @return Item key
+         */
+        private Key inRelease() {
+            return new InRelease.Asto(this.asto, this.config).key();
         }
 
         /**
@@ -178,75 +430,184 @@ public interface Release {
         }
 
         /**
-         * SHA256 checksums of Packages.gz files.
-         * @return Checksums future
+         * Checksums of Packages.gz files and of the Packages diffs indexes. Only the dists tree
+         * of the repository is listed, so the cost depends on the count of the indexes and not
+         * on the count of the packages.
+         * @return Checksums by Release relative path, sorted by path
          */
-        private CompletionStage<String> checksums() {
+        private CompletionStage<Map<String, MultiDigest>> checksums() {
             final RxStorageWrapper rxsto = new RxStorageWrapper(this.asto);
-            return rxsto.list(Key.ROOT).flatMapObservable(Observable::fromIterable)
-                .filter(key -> key.string().endsWith("Packages.gz"))
-                .flatMapSingle(
-                    item -> SingleInterop.fromFuture(this.packageData(item))
-                ).collect(
-                    StringBuilder::new,
-                    (builder, pair) -> builder.append(pair.getKey()).append("\n")
-                        .append(pair.getValue()).append("\n")
+            return rxsto.list(new Key.From("dists", this.config.codename()))
+                .flatMapObservable(Observable::fromIterable)
+                .filter(
+                    key -> key.string().startsWith(this.subDir())
+                        && (key.string().endsWith("Packages.gz")
+                        || key.string().endsWith("Packages.diff/Index"))
                 )
-                .map(StringBuilder::toString)
+                .flatMapSingle(
+                    item -> {
+                        final CompletionStage<Map<String, MultiDigest>> data;
+                        if (item.string().endsWith("Packages.gz")) {
+                            data = this.packageData(item);
+                        } else {
+                            data = this.digest(item).thenApply(
+                                sum -> Collections.singletonMap(
+                                    item.string().replace(this.subDir(), ""), sum
+                                )
+                            );
+                        }
+                        return SingleInterop.fromFuture(data);
+                    }
+                ).<Map<String, MultiDigest>>collect(TreeMap::new, Map::putAll)
                 .to(SingleInterop.get());
         }
 
         /**
-         * Calculates lines of the following format
-         *  sha256 size relative_path.gz
-         *  sha256 size relative_path
-         * for the Package index file.
+         * Calculates checksums and sizes of the compressed and the uncompressed
+         * Package index file reading it from storage once.
+         * @param pkg Package key
+         * @return Checksums and sizes by Release relative path
+         */
+        private CompletionStage<Map<String, MultiDigest>> packageData(final Key pkg) {
+            return this.packageData(pkg, NullOutputStream.NULL_OUTPUT_STREAM);
+        }
+
+        /**
+         * Calculates checksums and sizes of the compressed and the uncompressed
+         * Package index file reading it from storage once as a stream. Compressed index is
+         * copied to the temporary item while it is read, the copy is published by hash, so
+         * the published bytes are the ones the checksums are calculated of.
          * @param pkg Package key
-         * @return Pair of lines for Package index
+         * @param plain Output stream for the uncompressed index
+         * @return Checksums and sizes by Release relative path
          */
-        private CompletionStage<Pair<String, String>> packageData(final Key pkg) {
+        private CompletionStage<Map<String, MultiDigest>> packageData(
+            final Key pkg, final OutputStream plain
+        ) {
             final String key = pkg.string().replace(this.subDir(), "");
-            return this.asto.value(pkg).thenCompose(
-                content -> new ContentDigest(content, Digests.SHA256).hex()
-            ).thenCompose(
-                hex -> this.asto.value(pkg).thenCompose(
-                    content -> new ContentAsStream<Pair<Long, String>>(content)
-                        .process(new SizeAndDigest()).thenApply(
-                            data -> new ImmutablePair<>(
-                                String.format(
-                                    " %s %d %s", hex,
-                                    content.size().orElseThrow(
-                                        () -> new IllegalStateException("Content size unknown")
-                                    ),
-                                    key
-                                ),
-                                String.format(
-                                    " %s %d %s",
-                                    data.getValue(), data.getKey(), key.replace(".gz", "")
-                                )
-                            )
+            final Key copy = new Key.From(".meta", "tmp", UUID.randomUUID().toString());
+            return new StorageValuePipeline<Pair<MultiDigest, MultiDigest>>(this.asto, pkg, copy)
+                .processWithResult(
+                    (input, out) -> new GzDigests(Asto.DIGESTS)
+                        .apply(new TeeInputStream(input.get(), out, true), plain)
+                ).thenCompose(
+                    digests -> new ByHash(this.asto, this.subDir())
+                        .publish(key, digests.getLeft().hex(Digests.SHA256), copy)
+                        .thenCompose(nothing -> this.variants(pkg))
+                        .thenApply(
+                            variants -> {
+                                final Map<String, MultiDigest> res = new LinkedHashMap<>();
+                                res.put(key, digests.getLeft());
+                                res.put(key.replace(".gz", ""), digests.getRight());
+                                res.putAll(variants);
+                                return res;
+                            }
                         )
-                )
+                ).handle(
+                    (res, err) -> {
+                        final CompletionStage<Map<String, MultiDigest>> done;
+                        if (err == null) {
+                            done = CompletableFuture.completedFuture(res);
+                        } else {
+                            done = this.asto.exists(copy).thenCompose(
+                                exists -> {
+                                    final CompletionStage<Void> del;
+                                    if (exists) {
+                                        del = this.asto.delete(copy);
+                                    } else {
+                                        del = CompletableFuture.allOf();
+                                    }
+                                    return del;
+                                }
+                            ).thenCompose(
+                                nothing -> {
+                                    final CompletableFuture<Map<String, MultiDigest>> failed =
+                                        new CompletableFuture<>();
+                                    failed.completeExceptionally(err);
+                                    return failed;
+                                }
+                            );
+                        }
+                        return done;
+                    }
+                ).thenCompose(Function.identity());
+        }
+
+        /**
+         * Calculates checksums and sizes of the existing compressed Package index variants
+         * configured for the repository, gzip compressed and plain indexes are not included.
+         * @param pkg Gzip compressed Package index key
+         * @return Checksums and sizes by Release relative path, sorted by path
+         */
+        private CompletionStage<Map<String, MultiDigest>> variants(final Key pkg) {
+            final Map<String, MultiDigest> res = new ConcurrentHashMap<>();
+            return CompletableFuture.allOf(
+                this.config.compressions().keySet().stream()
+                    .filter(comp -> comp != Compression.GZ && comp != Compression.PLAIN)
+                    .map(comp -> new Key.From(comp.variant(pkg.string())))
+                    .map(
+                        variant -> this.asto.exists(variant).thenCompose(
+                            exists -> {
+                                final CompletionStage<Void> digest;
+                                if (exists) {
+                                    digest = this.digest(variant).thenAccept(
+                                        sum -> res.put(
+                                            variant.string().replace(this.subDir(), ""), sum
+                                        )
+                                    );
+                                } else {
+                                    digest = CompletableFuture.allOf();
+                                }
+                                return digest;
+                            }
+                        ).toCompletableFuture()
+                    ).toArray(CompletableFuture[]::new)
+            ).thenApply(nothing -> new TreeMap<>(res));
+        }
+
+        /**
+         * Calculates checksums and size of the storage item and publishes the item by hash
+         * from the same bytes.
+         * @param key Item key
+         * @return Checksums and size
+         */
+        private CompletionStage<MultiDigest> digest(final Key key) {
+            return this.bytes(key).thenCompose(
+                bytes -> {
+                    final MultiDigest sum = new MultiDigest(Asto.DIGESTS)
+                        .consume(new ByteArrayInputStream(bytes));
+                    return new ByHash(this.asto, this.subDir()).publish(
+                        key.string().replace(this.subDir(), ""), sum.hex(Digests.SHA256), bytes
+                    ).thenApply(nothing -> sum);
+                }
             );
         }
 
         /**
-         * Adds or replaces Package index line in Release index.
-         * @param origin Release index
-         * @param key Package index relative path
-         * @param repl Replacement
-         * @return Corrected Release index
+         * Reads storage item.
+         * @param key Item key
+         * @return Item bytes
          */
-        private static String addReplace(final String origin, final String key, final String repl) {
-            final String res;
-            if (origin.contains(String.format("%s\n", key)) || origin.endsWith(key)) {
-                res = origin.replaceAll(
-                    String.format(" .* %s(\n|$)", Pattern.quote(key)), String.format("%s\n", repl)
+        private CompletionStage<byte[]> bytes(final Key key) {
+            return this.asto.value(key).thenApply(PublisherAs::new)
+                .thenCompose(PublisherAs::bytes);
+        }
+
+        /**
+         * Adds or replaces checksum sections entries of Release index.
+         * @param index Release index
+         * @param checksums Checksums and sizes by Release relative path
+         */
+        private static void put(
+            final ReleaseIndex index, final Map<String, MultiDigest> checksums
+        ) {
+            for (int num = 0; num < Asto.DIGESTS.length; num = num + 1) {
+                final String section = ReleaseIndex.SECTIONS.get(num);
+                final Digests alg = Asto.DIGESTS[num];
+                checksums.forEach(
+                    (path, sum) -> index.checksum(section, path, sum.hex(alg), sum.size())
                 );
-            } else {
-                res = String.format("%s\n%s\n", origin, repl);
             }
-            return res.replaceAll("\n+", "\n");
         }
     }
 }
@@ -0,0 +1,235 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Parsed Release index: header fields and checksum sections, checksum section entries are
+ * keyed by the file path. Fields, sections and entries keep their order, updated entries
+ * stay in place and new ones are added to the end, so the serialization is deterministic.
+ * Instances are mutable and are not thread safe.
+ * @since 0.9
+ */
+final class ReleaseIndex {
+
+    /**
+     * Names of the checksum sections.
+     */
+    static final List<String> SECTIONS = Collections.unmodifiableList(
+        Arrays.asList("MD5Sum", "SHA1", "SHA256", "SHA512")
+    );
+
+    /**
+     * Format of the Date field.
+     */
+    static final DateTimeFormatter DATE =
+        DateTimeFormatter.ofPattern("E, MMM dd yyyy HH:mm:ss Z", Locale.US);
+
+    /**
+     * Header fields.
+     */
+    private final Map<String, String> fields;
+
+    /**
+     * Checksum sections: entries by path.
+     */
+    private final Map<String, Map<String, Checksum>> sections;
+
+    /**
+     * Ctor.
+     */
+    ReleaseIndex() {
+        this.fields = new LinkedHashMap<>();
+        this.sections = new LinkedHashMap<>();
+    }
+
+    /**
+     * Parses Release index.
+     * @param text Release index text
+     * @return Parsed index
+     */
+    static ReleaseIndex parse(final String text) {
+        final ReleaseIndex res = new ReleaseIndex();
+        Optional<String> section = Optional.empty();
+        String field = "";
+        for (final String line : text.split("\n")) {
+            if (line.trim().isEmpty()) {
+                section = Optional.empty();
+            } else if (line.charAt(0) == ' ') {
+                if (section.isPresent()) {
+                    final String[] parts = line.trim().split("\\s+");
+                    res.checksum(section.get(), parts[2], parts[0], Long.parseLong(parts[1]));
+                } else if (!field.isEmpty()) {
+                    res.field(field, String.join("\n", res.fields.get(field), line));
+                }
+            } else {
+                final int colon = line.indexOf(':');
+                final String name = line.substring(0, Math.max(colon, 0));
+                final String value = line.substring(colon + 1).trim();
+                if (ReleaseIndex.SECTIONS.contains(name)) {
+                    section = Optional.of(name);
+                    res.section(name);
+                } else {
+                    section = Optional.empty();
+                    field = name;
+                    res.field(name, value);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Sets header field value.
+     * @param name Field name
+     * @param value Field value
+     * @return Itself
+     */
+    ReleaseIndex field(final String name, final String value) {
+        this.fields.put(name, value);
+        return this;
+    }
+
+    /**
+     * Header field value.
+     * @param name Field name
+     * @return Field value if the field is present
+     */
+    Optional<String> value(final String name) {
+        return Optional.ofNullable(this.fields.get(name));
+    }
+
+    /**
+     * Checksum hex of the checksum section entry.
+     * @param section Section name
+     * @param path File path relative to the Release index
+     * @return Checksum hex if the entry is present
+     */
+    Optional<String> hex(final String section, final String path) {
+        return Optional.ofNullable(this.sections.get(section))
+            .flatMap(entries -> Optional.ofNullable(entries.get(path)))
+            .map(sum -> sum.hex);
+    }
+
+    /**
+     * Checksum hexes of the checksum section entries.
+     * @param section Section name
+     * @return Checksum hexes by file path relative to the Release index
+     */
+    Map<String, String> hexes(final String section) {
+        final Map<String, String> res = new LinkedHashMap<>();
+        this.sections.getOrDefault(section, Collections.emptyMap())
+            .forEach((path, sum) -> res.put(path, sum.hex));
+        return res;
+    }
+
+    /**
+     * Adds empty checksum section if it is absent.
+     * @param name Section name
+     * @return Itself
+     */
+    ReleaseIndex section(final String name) {
+        this.sections.computeIfAbsent(name, key -> new LinkedHashMap<>());
+        return this;
+    }
+
+    /**
+     * Adds or replaces checksum section entry.
+     * @param section Section name
+     * @param path File path relative to the Release index
+     * @param hex Checksum hex
+     * @param size File size
+     * @return Itself
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    ReleaseIndex checksum(
+        final String section, final String path, final String hex, final long size
+    ) {
+        this.sections.computeIfAbsent(section, key -> new LinkedHashMap<>())
+            .put(path, new Checksum(hex, size));
+        return this;
+    }
+
+    /**
+     * Removes the entries of the file from all checksum sections.
+     * @param path File path relative to the Release index
+     * @return Itself
+     */
+    ReleaseIndex remove(final String path) {
+        this.sections.values().forEach(entries -> entries.remove(path));
+        return this;
+    }
+
+    /**
+     * Serializes Release index.
+     * @return Release index text
+     */
+    String asString() {
+        final StringBuilder res = new StringBuilder();
+        this.fields.forEach(
+            (name, value) -> {
+                res.append(name).append(':');
+                if (!value.isEmpty()) {
+                    res.append(' ').append(value);
+                }
+                res.append('\n');
+            }
+        );
+        this.sections.forEach(
+            (name, entries) -> {
+                res.append(name).append(":\n");
+                entries.forEach(
+                    (path, sum) -> res.append(' ').append(sum.hex).append(' ')
+                        .append(sum.size).append(' ').append(path).append('\n')
+                );
+            }
+        );
+        return res.toString();
+    }
+
+    /**
+     * Serializes Release index.
+     * @return Release index bytes
+     */
+    byte[] bytes() {
+        return this.asString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checksum section entry.
+     * @since 0.9
+     */
+    private static final class Checksum {
+
+        /**
+         * Checksum hex.
+         */
+        private final String hex;
+
+        /**
+         * File size.
+         */
+        private final long size;
+
+        /**
+         * Ctor.
+         * @param hex Checksum hex
+         * @param size File size
+         */
+        Checksum(final String hex, final long size) {
+            this.hex = hex;
+            this.size = size;
+        }
+    }
+}
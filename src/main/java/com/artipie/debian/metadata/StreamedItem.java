@@ -0,0 +1,278 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import com.artipie.debian.misc.MultiDigest;
+import io.reactivex.Flowable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.reactivestreams.Publisher;
+
+/**
+ * Packages index item of the debian package calculated while the package content streams
+ * through: each chunk of the content updates size and digests, and ar archive member headers
+ * are walked as they stream by. Bodies of the members preceding control archive member are
+ * skipped, only the control member is kept until it is complete. Once the content is
+ * consumed, the item is ready without reading the package again. Control can also be read
+ * before the content is consumed by passing the package beginning to
+ * {@link #head(ByteBuffer)}. Instances are not thread safe, the content is expected to be
+ * consumed once.
+ * @since 0.9
+ */
+public final class StreamedItem {
+
+    /**
+     * Max offset of the control archive member header: members preceding control are not
+     * kept here, but the content read ahead while control is searched is kept by the callers
+     * of {@link #head(ByteBuffer)}, so packages with control placed further are rejected.
+     */
+    private static final long MAX_OFFSET = 16L * 1024 * 1024;
+
+    /**
+     * Max size of the control archive member: the control member is kept in memory until
+     * it is complete, packages with larger control members are rejected.
+     */
+    private static final long MAX_CONTROL = 16L * 1024 * 1024;
+
+    /**
+     * Ar archive magic.
+     */
+    private static final byte[] MAGIC = "!<arch>\n".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Ar member header length.
+     */
+    private static final int HEADER = 60;
+
+    /**
+     * Ar member name length.
+     */
+    private static final int NAME = 16;
+
+    /**
+     * Offset of the member size in ar header.
+     */
+    private static final int SIZE_OFFSET = 48;
+
+    /**
+     * Length of the member size field in ar header.
+     */
+    private static final int SIZE_LENGTH = 10;
+
+    /**
+     * Package file name.
+     */
+    private final String filename;
+
+    /**
+     * Size and digests of the package.
+     */
+    private final MultiDigest digest;
+
+    /**
+     * Ar archive with the control member only: archive magic, control member header and
+     * control member body read so far.
+     */
+    private final ByteArrayOutputStream head;
+
+    /**
+     * Archive magic or member header read so far.
+     */
+    private final ByteArrayOutputStream header;
+
+    /**
+     * Count of the bytes walked through.
+     */
+    private long offset;
+
+    /**
+     * Offset of the next member header, zero while archive magic is not read.
+     */
+    private long next;
+
+    /**
+     * Offset of the control archive member end or -1 if it is not known yet.
+     */
+    private long end;
+
+    /**
+     * Ctor.
+     * @param filename Package file name relative to the repository root
+     */
+    public StreamedItem(final String filename) {
+        this.filename = filename;
+        this.digest = new MultiDigest(PackagesItem.Asto.DIGESTS);
+        this.head = new ByteArrayOutputStream();
+        this.header = new ByteArrayOutputStream(StreamedItem.HEADER);
+        this.end = -1;
+    }
+
+    /**
+     * Passes package content through.
+     * @param content Package content
+     * @return The same content, calculating the item while it is consumed
+     */
+    public Publisher<ByteBuffer> content(final Publisher<ByteBuffer> content) {
+        return Flowable.fromPublisher(content).doOnNext(this::update);
+    }
+
+    /**
+     * Walks the chunk of the package beginning if control archive member is not complete
+     * yet: member headers are read, bodies of the members preceding control are skipped and
+     * control member is kept, buffer position is not changed. Chunks should be passed in
+     * order and are not digested: the whole content should be passed through
+     * {@link #content(Publisher)} as well.
+     * @param buf Content chunk
+     * @return True if more bytes are required to read control
+     * @throws IllegalArgumentException If ar member header is malformed, control member is
+     *  larger than the limit or it is placed too far, it is thrown as soon as the header
+     *  is read, before the member is kept
+     */
+    public boolean head(final ByteBuffer buf) {
+        final ByteBuffer dup = buf.duplicate();
+        while (dup.hasRemaining() && this.required()) {
+            if (this.end >= 0) {
+                final int len = (int) Math.min(dup.remaining(), this.end - this.offset);
+                StreamedItem.copy(dup, len, this.head);
+                this.offset = this.offset + len;
+            } else if (this.offset < this.next) {
+                final int len = (int) Math.min(dup.remaining(), this.next - this.offset);
+                dup.position(dup.position() + len);
+                this.offset = this.offset + len;
+            } else {
+                final int size;
+                if (this.next == 0) {
+                    size = StreamedItem.MAGIC.length;
+                } else {
+                    size = StreamedItem.HEADER;
+                }
+                final int len = Math.min(dup.remaining(), size - this.header.size());
+                StreamedItem.copy(dup, len, this.header);
+                this.offset = this.offset + len;
+                if (this.header.size() == size) {
+                    this.parse(this.header.toByteArray());
+                    this.header.reset();
+                }
+            }
+        }
+        return this.required();
+    }
+
+    /**
+     * Control file of the package read from the package beginning.
+     * @return Control file
+     * @throws IllegalStateException If control can not be read from the package
+     */
+    public String control() {
+        return new Control.FromInputStream(new ByteArrayInputStream(this.head.toByteArray()))
+            .asString();
+    }
+
+    /**
+     * Formats packages item from the consumed content.
+     * @return Packages item
+     * @throws IllegalStateException If control can not be read from the package
+     */
+    public String item() {
+        return PackagesItem.Asto.item(this.control(), this.filename, this.digest);
+    }
+
+    /**
+     * Size of the consumed content.
+     * @return Size in bytes
+     */
+    public long size() {
+        return this.digest.size();
+    }
+
+    /**
+     * Updates size and digests with the chunk and walks it if control member is not
+     * complete yet.
+     * @param buf Content chunk
+     */
+    private void update(final ByteBuffer buf) {
+        this.digest.update(buf);
+        this.head(buf);
+    }
+
+    /**
+     * Whether more bytes of the package beginning are required: control member end is not
+     * known or control member is not complete.
+     * @return True if more bytes are required
+     */
+    private boolean required() {
+        return this.end < 0 || this.offset < this.end;
+    }
+
+    /**
+     * Handles archive magic or member header once it is read: the walk stops if the content
+     * is not an ar archive, control member header is kept, other members are skipped.
+     * @param bytes Archive magic or member header
+     * @throws IllegalArgumentException If member size is not a non-negative number, control
+     *  member is larger than the limit or it is placed too far
+     */
+    private void parse(final byte[] bytes) {
+        if (this.next == 0) {
+            if (Arrays.equals(bytes, StreamedItem.MAGIC)) {
+                this.head.write(bytes, 0, bytes.length);
+                this.next = this.offset;
+            } else {
+                this.end = this.offset;
+            }
+        } else {
+            final String name = new String(
+                bytes, 0, StreamedItem.NAME, StandardCharsets.US_ASCII
+            ).trim();
+            final long size = Long.parseLong(
+                new String(
+                    bytes, StreamedItem.SIZE_OFFSET, StreamedItem.SIZE_LENGTH,
+                    StandardCharsets.US_ASCII
+                ).trim()
+            );
+            if (size < 0) {
+                throw new IllegalArgumentException(
+                    String.format("Negative size of ar member %s", name)
+                );
+            }
+            if (name.startsWith("control")) {
+                if (size > StreamedItem.MAX_CONTROL) {
+                    throw new IllegalArgumentException(
+                        String.format(
+                            "Control member size %d exceeds the limit of %d bytes",
+                            size, StreamedItem.MAX_CONTROL
+                        )
+                    );
+                }
+                this.head.write(bytes, 0, bytes.length);
+                this.end = this.offset + size;
+            } else {
+                this.next = this.offset + size + size % 2;
+                if (this.next > StreamedItem.MAX_OFFSET) {
+                    throw new IllegalArgumentException(
+                        String.format(
+                            "Control member is not found in the first %d bytes",
+                            StreamedItem.MAX_OFFSET
+                        )
+                    );
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies bytes from the buffer to the output stream advancing buffer position.
+     * @param buf Buffer
+     * @param len Count of bytes to copy
+     * @param out Output stream
+     */
+    private static void copy(final ByteBuffer buf, final int len, final ByteArrayOutputStream out) {
+        final byte[] bytes = new byte[len];
+        buf.get(bytes);
+        out.write(bytes, 0, len);
+    }
+}
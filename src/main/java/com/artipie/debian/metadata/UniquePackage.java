@@ -4,32 +4,51 @@
  */
 package com.artipie.debian.metadata;
 
+import com.artipie.asto.Content;
 import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
 import com.artipie.asto.Storage;
+import com.artipie.asto.ext.Digests;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.streams.ContentAsStream;
 import com.artipie.asto.streams.StorageValuePipeline;
+import com.artipie.debian.misc.MultiDigest;
+import hu.akarnokd.rxjava2.interop.SingleInterop;
+import io.reactivex.Flowable;
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
-import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.StreamSupport;
-import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.reactivestreams.Publisher;
 
 /**
  * Implementation of {@link Package} that checks uniqueness of the packages index records.
@@ -37,6 +56,7 @@ import org.apache.commons.lang3.tuple.Pair;
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  * @checkstyle ExecutableStatementCountCheck (500 lines)
  */
+@SuppressWarnings("PMD.TooManyMethods")
 public final class UniquePackage implements Package {
 
     /**
@@ -44,6 +64,21 @@ public final class UniquePackage implements Package {
      */
     private static final String SEP = "\n\n";
 
+    /**
+     * Count of the new items compressed into one gzip member.
+     */
+    private static final int BATCH = 16;
+
+    /**
+     * Count of the appended gzip members after which the index is compacted.
+     */
+    private static final int MEMBERS = 64;
+
+    /**
+     * Directory of the repository private items: they are not published.
+     */
+    private static final String META = ".meta";
+
     /**
      * Abstract storage.
      */
@@ -57,8 +92,163 @@ public final class UniquePackage implements Package {
         this.asto = asto;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * New packages are checked against the index {@link Membership} stored under `.meta/`,
+     * which is bound to the index by its storage metadata, so checking it does not read the
+     * index (it is rebuilt by scanning the index when missing or stale): if none of them can be
+     * present in the index, new items are appended as a separate gzip member without
+     * recompressing the index (the index is compacted into one member once too many members
+     * are appended), otherwise the index is rewritten without duplicated items
+     * and the corresponding packages are removed.
+     */
     @Override
     public CompletionStage<Void> add(final Iterable<String> items, final Key index) {
+        final Set<Pair<String, String>> newbies = StreamSupport.stream(items.spliterator(), false)
+            .map(UniquePackage::pair).collect(Collectors.toSet());
+        final CompletionStage<Void> res;
+        if (newbies.isEmpty()) {
+            res = CompletableFuture.allOf();
+        } else {
+            res = this.membership(index).thenCompose(
+                mem -> {
+                    final CompletionStage<List<String>> dupls;
+                    if (mem.isPresent() && !mem.get().mayContainAny(newbies)) {
+                        dupls = this.append(
+                            String.join(UniquePackage.SEP, items), newbies, index, mem.get()
+                        ).thenApply(nothing -> Collections.emptyList());
+                    } else {
+                        dupls = this.rewrite(items, index).thenCompose(
+                            list -> this.invalidate(index).thenApply(nothing -> list)
+                        );
+                    }
+                    return dupls;
+                }
+            ).thenCompose(this::remove);
+        }
+        return res;
+    }
+
+    /**
+     * Adds items to the packages index as they are emitted by the publisher: items are
+     * compressed in batches into a temporary storage item right away and are not collected in
+     * memory, only their names and versions are kept. The index is not touched until all the
+     * items are ready: then existing index items, which are not duplicated by the new ones,
+     * are compressed into another temporary item, and the index is saved as these two
+     * items concatenated (gzip members). Packages of the dropped duplicates are removed.
+     * @param items Index items publisher
+     * @param index Package index key
+     * @return Completion action, it fails without changing the index if any item fails
+     */
+    public CompletionStage<Void> add(final Publisher<String> items, final Key index) {
+        final Key fresh = UniquePackage.temp();
+        final Key rest = UniquePackage.temp();
+        final Set<Pair<String, String>> newbies = ConcurrentHashMap.newKeySet();
+        return this.asto.save(
+            fresh,
+            new Content.From(
+                Flowable.fromPublisher(items)
+                    .doOnNext(item -> newbies.add(UniquePackage.pair(item)))
+                    .buffer(UniquePackage.BATCH)
+                    .map(UniquePackage::member)
+            )
+        ).thenCompose(
+            nothing -> {
+                final CompletionStage<Void> res;
+                if (newbies.isEmpty()) {
+                    res = CompletableFuture.allOf();
+                } else {
+                    res = this.rest(index, rest, newbies).thenCompose(
+                        dupls -> this.concat(index, rest, fresh)
+                            .thenCompose(none -> this.invalidate(index))
+                            .thenCompose(none -> this.remove(dupls))
+                    );
+                }
+                return res;
+            }
+        ).handle(
+            (nothing, err) -> this.remove(Arrays.asList(fresh.string(), rest.string()))
+                .thenCompose(
+                    none -> {
+                        final CompletableFuture<Void> res;
+                        if (err == null) {
+                            res = CompletableFuture.allOf();
+                        } else {
+                            res = new CompletableFuture<>();
+                            res.completeExceptionally(err);
+                        }
+                        return res;
+                    }
+                )
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Compresses existing index items, which are not duplicated by the new ones, into the
+     * temporary item.
+     * @param index Package index key
+     * @param rest Temporary item key
+     * @param newbies Names and versions of the new packages
+     * @return Completion action with the list of the `Filename`s of duplicated packages, the
+     *  temporary item is not created if the index does not exist
+     */
+    private CompletionStage<List<String>> rest(
+        final Key index, final Key rest, final Set<Pair<String, String>> newbies
+    ) {
+        return this.asto.exists(index).thenCompose(
+            exists -> {
+                final CompletionStage<List<String>> res;
+                if (exists) {
+                    res = new StorageValuePipeline<List<String>>(this.asto, index, rest)
+                        .processWithResult(
+                            (opt, out) -> UniquePackage.decompressCompress(
+                                opt.get(), out, newbies
+                            )
+                        );
+                } else {
+                    res = CompletableFuture.completedFuture(Collections.emptyList());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Saves the index as existing items followed by the new ones.
+     * @param index Package index key
+     * @param rest Temporary item with existing items, may be absent
+     * @param fresh Temporary item with new items
+     * @return Completion action
+     */
+    private CompletionStage<Void> concat(final Key index, final Key rest, final Key fresh) {
+        return this.asto.exists(rest).thenCompose(
+            exists -> {
+                final CompletionStage<Content> head;
+                if (exists) {
+                    head = this.asto.value(rest);
+                } else {
+                    head = CompletableFuture.completedFuture(Content.EMPTY);
+                }
+                return head;
+            }
+        ).thenCompose(
+            head -> this.asto.value(fresh).thenCompose(
+                tail -> this.asto.save(
+                    index, new Content.From(Flowable.concat(head, tail))
+                )
+            )
+        );
+    }
+
+    /**
+     * Rewrites the index: existing items duplicated by the new ones are dropped, new items
+     * are appended and all the index is compressed again.
+     * @param items Items to add
+     * @param index Package index key
+     * @return Completion action with the list of the `Filename`s of duplicated packages
+     */
+    private CompletionStage<List<String>> rewrite(final Iterable<String> items, final Key index) {
         return new StorageValuePipeline<List<String>>(this.asto, index).processWithResult(
             (opt, out) -> {
                 List<String> duplicates = Collections.emptyList();
@@ -69,7 +259,190 @@ public final class UniquePackage implements Package {
                 }
                 return duplicates;
             }
-        ).thenCompose(this::remove);
+        );
+    }
+
+    /**
+     * Appends items to the index as a new gzip member and updates index membership, compacts
+     * the index when count of the appended members exceeds the limit.
+     * @param data Items to append
+     * @param newbies Appended packages names and versions
+     * @param index Package index key
+     * @param mem Current index membership
+     * @return Completion action
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Void> append(
+        final String data, final Set<Pair<String, String>> newbies, final Key index,
+        final Membership mem
+    ) {
+        final GzMembers members = new GzMembers(this.asto, index);
+        return members.append(data, mem.separator()).thenCompose(
+            digest -> this.stamp(index, digest)
+        ).thenCompose(
+            stamp -> {
+                final Membership next = mem.with(newbies, stamp, UniquePackage.separator(data));
+                final CompletionStage<Membership> res;
+                if (next.members() > UniquePackage.MEMBERS) {
+                    res = members.compact()
+                        .thenCompose(digest -> this.stamp(index, digest))
+                        .thenApply(next::compacted);
+                } else {
+                    res = CompletableFuture.completedFuture(next);
+                }
+                return res;
+            }
+        ).thenCompose(
+            next -> this.asto.save(UniquePackage.sidecar(index), new Content.From(next.bytes()))
+        );
+    }
+
+    /**
+     * Obtains membership of the existing index, persisted membership is used if it is
+     * actual, otherwise it is rebuilt by scanning the index and persisted. Membership stamp
+     * is compared with the index metadata, the index is read to check the stamp only if the
+     * storage reports neither MD5 nor last modification time of the index.
+     * @param index Package index key
+     * @return Completion action with membership or empty if index does not exist
+     */
+    private CompletionStage<Optional<Membership>> membership(final Key index) {
+        return this.asto.exists(index).thenCompose(
+            exists -> {
+                final CompletionStage<Optional<Membership>> res;
+                if (exists) {
+                    res = this.stamp(index).thenCompose(
+                        stamp -> this.persisted(index).thenCompose(
+                            mem -> {
+                                final CompletionStage<Boolean> fresh;
+                                if (!mem.isPresent()) {
+                                    fresh = CompletableFuture.completedFuture(false);
+                                } else if (stamp.isPresent()) {
+                                    fresh = CompletableFuture.completedFuture(
+                                        mem.get().actual(stamp.get())
+                                    );
+                                } else {
+                                    fresh = this.digest(index).thenApply(mem.get()::actual);
+                                }
+                                return fresh.thenCompose(
+                                    actual -> {
+                                        final CompletionStage<Membership> found;
+                                        if (actual) {
+                                            found = CompletableFuture.completedFuture(
+                                                mem.get()
+                                            );
+                                        } else {
+                                            found = this.rebuild(index, stamp);
+                                        }
+                                        return found;
+                                    }
+                                ).thenApply(Optional::of);
+                            }
+                        )
+                    );
+                } else {
+                    res = CompletableFuture.completedFuture(Optional.empty());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Reads persisted index membership.
+     * @param index Package index key
+     * @return Completion action with membership or empty if it is absent or not valid
+     */
+    private CompletionStage<Optional<Membership>> persisted(final Key index) {
+        final Key sidecar = UniquePackage.sidecar(index);
+        return this.asto.exists(sidecar).thenCompose(
+            exists -> {
+                final CompletionStage<Optional<Membership>> res;
+                if (exists) {
+                    res = this.asto.value(sidecar)
+                        .thenCompose(val -> new PublisherAs(val).bytes())
+                        .thenApply(Membership::read);
+                } else {
+                    res = CompletableFuture.completedFuture(Optional.empty());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Rebuilds index membership by scanning the index and persists it.
+     * @param index Package index key
+     * @param stamp Index stamp from storage metadata, read before the index, scanned
+     *  membership keeps the digest of the index as the stamp if it is empty
+     * @return Completion action with membership
+     */
+    private CompletionStage<Membership> rebuild(final Key index, final Optional<String> stamp) {
+        return this.asto.value(index).thenCompose(
+            val -> new ContentAsStream<Membership>(val).process(UniquePackage::scan)
+        ).thenApply(
+            mem -> stamp.map(mem::stamped).orElse(mem)
+        ).thenCompose(
+            mem -> this.asto.save(UniquePackage.sidecar(index), new Content.From(mem.bytes()))
+                .thenApply(nothing -> mem)
+        );
+    }
+
+    /**
+     * Removes persisted index membership.
+     * @param index Package index key
+     * @return Completion action
+     */
+    private CompletionStage<Void> invalidate(final Key index) {
+        return this.remove(Collections.singletonList(UniquePackage.sidecar(index).string()));
+    }
+
+    /**
+     * Stamp of the index from storage metadata: MD5 reported by the storage or last
+     * modification time, along with the size.
+     * @param index Package index key
+     * @return Completion action with the stamp or empty if the storage reports neither MD5
+     *  nor last modification time
+     */
+    private CompletionStage<Optional<String>> stamp(final Key index) {
+        return this.asto.metadata(index).thenApply(
+            meta -> {
+                final long size = meta.read(Meta.OP_SIZE).orElse(-1L);
+                final Optional<String> md5 = meta.read(Meta.OP_MD5);
+                final Optional<String> res;
+                if (md5.isPresent()) {
+                    res = Optional.of(String.format("md5:%s:%d", md5.get(), size));
+                } else {
+                    res = meta.read(Meta.OP_UPDATED_AT).map(
+                        time -> String.format("updated:%d:%d", time.toEpochMilli(), size)
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Stamp of the index which was just written.
+     * @param index Package index key
+     * @param digest SHA-256 hex of the written index, the stamp if the storage reports
+     *  neither MD5 nor last modification time
+     * @return Completion action with the stamp
+     */
+    private CompletionStage<String> stamp(final Key index, final String digest) {
+        return this.stamp(index).thenApply(stamp -> stamp.orElse(digest));
+    }
+
+    /**
+     * SHA-256 digest of the storage item.
+     * @param key Item key
+     * @return Completion action with the digest hex
+     */
+    private CompletionStage<String> digest(final Key key) {
+        return this.asto.value(key).thenCompose(
+            val -> Flowable.fromPublisher(val).collect(
+                () -> new MultiDigest(Digests.SHA256), MultiDigest::update
+            ).to(SingleInterop.get())
+        ).thenApply(digest -> digest.hex(Digests.SHA256));
     }
 
     /**
@@ -104,48 +477,143 @@ public final class UniquePackage implements Package {
      * @param items Items to append
      * @return List of the `Filename`s fields of the duplicated packages.
      */
-    @SuppressWarnings({"PMD.AssignmentInOperand", "PMD.CyclomaticComplexity"})
     private static List<String> decompressAppendCompress(
         final InputStream decompress, final OutputStream res, final Iterable<String> items
     ) {
         final byte[] bytes = String.join(UniquePackage.SEP, items).getBytes(StandardCharsets.UTF_8);
         final Set<Pair<String, String>> newbies = StreamSupport.stream(items.spliterator(), false)
-            .<Pair<String, String>>map(
-                item -> new ImmutablePair<>(
-                    new ControlField.Package().value(item).get(0),
-                    new ControlField.Version().value(item).get(0)
-                )
-            ).collect(Collectors.toSet());
+            .map(UniquePackage::pair).collect(Collectors.toSet());
         final List<String> duplicates = new ArrayList<>(5);
-        try (
-            GZIPInputStream gis = new GZIPInputStream(decompress);
-            BufferedReader rdr =
-                new BufferedReader(new InputStreamReader(gis, StandardCharsets.UTF_8));
-            GZIPOutputStream gop = new GZIPOutputStream(new BufferedOutputStream(res))
-        ) {
-            String line;
-            StringBuilder item = new StringBuilder();
-            do {
-                line = rdr.readLine();
-                if ((line == null || line.isEmpty()) && item.length() > 0) {
-                    final Optional<String> dupl = UniquePackage.duplicate(item.toString(), newbies);
+        try (GZIPOutputStream gop = new GZIPOutputStream(new BufferedOutputStream(res))) {
+            UniquePackage.copyUnique(decompress, gop, newbies, duplicates);
+            gop.write(bytes);
+        } catch (final IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+        return duplicates;
+    }
+
+    /**
+     * Decompresses Packages.gz file, drops the duplicates and writes compressed result into
+     * new file.
+     * @param decompress File to decompress
+     * @param res Where to write the result
+     * @param newbies Newly added packages names and versions
+     * @return List of the `Filename`s fields of the duplicated packages.
+     */
+    private static List<String> decompressCompress(
+        final InputStream decompress, final OutputStream res,
+        final Set<Pair<String, String>> newbies
+    ) {
+        final List<String> duplicates = new ArrayList<>(5);
+        try (GZIPOutputStream gop = new GZIPOutputStream(new BufferedOutputStream(res))) {
+            UniquePackage.copyUnique(decompress, gop, newbies, duplicates);
+        } catch (final IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+        return duplicates;
+    }
+
+    /**
+     * Compresses batch of new items into a gzip member, each item is followed by the items
+     * separator.
+     * @param batch Items
+     * @return Compressed bytes
+     */
+    private static ByteBuffer member(final List<String> batch) {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (GZIPOutputStream gop = new GZIPOutputStream(res)) {
+            for (final String item : batch) {
+                gop.write(
+                    String.join("", StringUtils.stripEnd(item, "\n"), UniquePackage.SEP)
+                        .getBytes(StandardCharsets.UTF_8)
+                );
+            }
+        } catch (final IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+        return ByteBuffer.wrap(res.toByteArray());
+    }
+
+    /**
+     * Decompresses Packages.gz file and copies items, which are not present in the set of
+     * new packages, to the output. `Filename`s of the skipped items are added to duplicates.
+     * @param decompress File to decompress
+     * @param out Where to write the items
+     * @param newbies Newly added packages names and versions
+     * @param duplicates Duplicated packages `Filename`s
+     * @throws IOException On IO error
+     */
+    private static void copyUnique(
+        final InputStream decompress, final OutputStream out,
+        final Set<Pair<String, String>> newbies, final List<String> duplicates
+    ) throws IOException {
+        try (InputStream gis = new GzipCompressorInputStream(decompress, true)) {
+            UniquePackage.forEachItem(
+                gis,
+                item -> {
+                    final Optional<String> dupl = UniquePackage.duplicate(item, newbies);
                     if (dupl.isPresent()) {
                         duplicates.add(dupl.get());
                     } else {
-                        gop.write(item.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+                        out.write(item.concat("\n").getBytes(StandardCharsets.UTF_8));
                     }
-                    item = new StringBuilder();
-                } else if (line != null && !line.isEmpty()) {
-                    item.append(line).append('\n');
                 }
-            } while (line != null);
-            gop.write(bytes);
-        } catch (final UnsupportedEncodingException err) {
-            throw new IllegalStateException(err);
-        } catch (final IOException ioe) {
-            throw new UncheckedIOException(ioe);
+            );
         }
-        return duplicates;
+    }
+
+    /**
+     * Decompresses Packages.gz file and builds its membership, the membership is stamped
+     * with the digest of the read compressed bytes.
+     * @param decompress File to decompress
+     * @return Index membership
+     * @throws UncheckedIOException On IO error
+     */
+    static Membership scan(final InputStream decompress) {
+        final LongStream.Builder prints = LongStream.builder();
+        final MultiDigest digest = new MultiDigest(Digests.SHA256);
+        final InputStream input = digest.stream(decompress);
+        try (
+            Tail tail = new Tail(
+                new GzipCompressorInputStream(new CloseShieldInputStream(input), true)
+            )
+        ) {
+            UniquePackage.forEachItem(
+                tail, item -> prints.add(Membership.fingerprint(UniquePackage.pair(item)))
+            );
+            IOUtils.skip(input, Long.MAX_VALUE);
+            return new Membership(
+                digest.hex(Digests.SHA256), tail.separator(), prints.build().toArray()
+            );
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        }
+    }
+
+    /**
+     * Reads Packages index items one by one.
+     * @param input Decompressed index input
+     * @param action Action to perform with each item
+     * @throws IOException On IO error
+     */
+    @SuppressWarnings({"PMD.AssignmentInOperand", "PMD.CyclomaticComplexity"})
+    private static void forEachItem(final InputStream input, final ItemAction action)
+        throws IOException {
+        final BufferedReader rdr = new BufferedReader(
+            new InputStreamReader(input, StandardCharsets.UTF_8)
+        );
+        String line;
+        StringBuilder item = new StringBuilder();
+        do {
+            line = rdr.readLine();
+            if ((line == null || line.isEmpty()) && item.length() > 0) {
+                action.accept(item.toString());
+                item = new StringBuilder();
+            } else if (line != null && !line.isEmpty()) {
+                item.append(line).append('\n');
+            }
+        } while (line != null);
     }
 
     /**
@@ -158,17 +626,71 @@ public final class UniquePackage implements Package {
     private static Optional<String> duplicate(
         final String item, final Set<Pair<String, String>> newbies
     ) {
-        final Pair<String, String> pair = new ImmutablePair<>(
+        Optional<String> res = Optional.empty();
+        if (newbies.contains(UniquePackage.pair(item))) {
+            res = Optional.of(new ControlField.Filename().value(item).get(0));
+        }
+        return res;
+    }
+
+    /**
+     * Package name and version of the item.
+     * @param item Packages item
+     * @return Pair of name and version
+     */
+    private static Pair<String, String> pair(final String item) {
+        return new ImmutablePair<>(
             new ControlField.Package().value(item).get(0),
             new ControlField.Version().value(item).get(0)
         );
-        Optional<String> res = Optional.empty();
-        if (newbies.contains(pair)) {
-            res = Optional.of(new ControlField.Filename().value(item).get(0));
+    }
+
+    /**
+     * Separator to write after the text to start new item.
+     * @param text Text
+     * @return Separator
+     */
+    private static String separator(final String text) {
+        return UniquePackage.separator(
+            text.isEmpty(), text.length() - StringUtils.stripEnd(text, "\n").length()
+        );
+    }
+
+    /**
+     * Separator to write after the content to start new item.
+     * @param empty Whether content is empty
+     * @param breaks Count of the trailing line breaks of the content
+     * @return Separator
+     */
+    private static String separator(final boolean empty, final int breaks) {
+        final String res;
+        if (empty || breaks >= 2) {
+            res = "";
+        } else if (breaks == 1) {
+            res = "\n";
+        } else {
+            res = UniquePackage.SEP;
         }
         return res;
     }
 
+    /**
+     * Unique key of the temporary storage item.
+     * @return Key
+     */
+    private static Key temp() {
+        return new Key.From(UniquePackage.META, "tmp", UUID.randomUUID().toString());
+    }
+
+    /**
+     * Sidecar key of the index membership.
+     * @param index Package index key
+     * @return Membership key
+     */
+    private static Key sidecar(final Key index) {
+        return new Key.From(UniquePackage.META, "members", index.string());
+    }
+
     /**
      * Compress text for new Package index.
      * @param items Items to compress
@@ -181,4 +703,85 @@ public final class UniquePackage implements Package {
             throw new UncheckedIOException(err);
         }
     }
+
+    /**
+     * Action with the index item.
+     * @since 0.9
+     */
+    @FunctionalInterface
+    private interface ItemAction {
+
+        /**
+         * Performs the action.
+         * @param item Index item
+         * @throws IOException On IO error
+         */
+        void accept(String item) throws IOException;
+    }
+
+    /**
+     * Input stream which remembers how the content ends: whether it is empty and how many
+     * line breaks it ends with.
+     * @since 0.9
+     */
+    private static final class Tail extends FilterInputStream {
+
+        /**
+         * Whether no bytes were read.
+         */
+        private boolean empty;
+
+        /**
+         * Count of the trailing line breaks, not more than two.
+         */
+        private int breaks;
+
+        /**
+         * Ctor.
+         * @param origin Origin stream
+         */
+        Tail(final InputStream origin) {
+            super(origin);
+            this.empty = true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int res = super.read();
+            if (res >= 0) {
+                this.track((byte) res);
+            }
+            return res;
+        }
+
+        @Override
+        public int read(final byte[] buf, final int off, final int len) throws IOException {
+            final int res = super.read(buf, off, len);
+            for (int idx = off; idx < off + res; idx = idx + 1) {
+                this.track(buf[idx]);
+            }
+            return res;
+        }
+
+        /**
+         * Separator to write after the read content to start new item.
+         * @return Separator
+         */
+        String separator() {
+            return UniquePackage.separator(this.empty, this.breaks);
+        }
+
+        /**
+         * Tracks read byte.
+         * @param val Byte
+         */
+        private void track(final byte val) {
+            this.empty = false;
+            if (val == '\n') {
+                this.breaks = Math.min(2, this.breaks + 1);
+            } else {
+                this.breaks = 0;
+            }
+        }
+    }
 }
@@ -0,0 +1,203 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Predicate;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Beginning of the content read ahead: chunks are requested one by one while the predicate
+ * asks for more, the rest of the content is not requested until the returned content is
+ * consumed. Returned content emits the chunks read ahead and then the rest of the origin, it
+ * can be subscribed once. If it is not needed, it should be consumed to drain the origin.
+ * @since 0.9
+ */
+public final class ContentHead {
+
+    /**
+     * Origin content.
+     */
+    private final Publisher<ByteBuffer> origin;
+
+    /**
+     * Predicate which tells whether the next chunk is required, it is tested with each chunk
+     * read ahead, buffer position should not be changed.
+     */
+    private final Predicate<ByteBuffer> more;
+
+    /**
+     * Ctor.
+     * @param origin Origin content
+     * @param more Predicate which tells whether the next chunk is required, it is tested
+     *  with each chunk read ahead, buffer position should not be changed
+     */
+    public ContentHead(final Publisher<ByteBuffer> origin, final Predicate<ByteBuffer> more) {
+        this.origin = origin;
+        this.more = more;
+    }
+
+    /**
+     * Reads the content beginning.
+     * @return Completion action with the whole content, it fails if origin content fails
+     *  or if the predicate throws an exception while the beginning is read, the origin is
+     *  cancelled in the latter case
+     */
+    public CompletionStage<Publisher<ByteBuffer>> read() {
+        final Split split = new Split(this.more);
+        this.origin.subscribe(split);
+        return split.future;
+    }
+
+    /**
+     * Origin content subscriber: reads the beginning and then passes the rest to the
+     * subscriber of the content tail.
+     * @since 0.9
+     */
+    private static final class Split implements Subscriber<ByteBuffer>, Publisher<ByteBuffer> {
+
+        /**
+         * Predicate which tells whether the next chunk is required.
+         */
+        private final Predicate<ByteBuffer> more;
+
+        /**
+         * Chunks read ahead.
+         */
+        private final List<ByteBuffer> head;
+
+        /**
+         * Whole content, completed once the beginning is read.
+         */
+        private final CompletableFuture<Publisher<ByteBuffer>> future;
+
+        /**
+         * Origin subscription.
+         */
+        private Subscription upstream;
+
+        /**
+         * Subscriber of the content tail.
+         */
+        private Optional<Subscriber<? super ByteBuffer>> downstream;
+
+        /**
+         * Origin completion: empty while origin is not terminated, error or empty
+         * optional for successful completion.
+         */
+        private Optional<Optional<Throwable>> done;
+
+        /**
+         * Ctor.
+         * @param more Predicate which tells whether the next chunk is required
+         */
+        Split(final Predicate<ByteBuffer> more) {
+            this.more = more;
+            this.head = new ArrayList<>(1);
+            this.future = new CompletableFuture<>();
+            this.downstream = Optional.empty();
+            this.done = Optional.empty();
+        }
+
+        @Override
+        public void onSubscribe(final Subscription sub) {
+            this.upstream = sub;
+            sub.request(1);
+        }
+
+        @Override
+        public void onNext(final ByteBuffer buf) {
+            if (this.future.isDone()) {
+                this.downstream.ifPresent(sub -> sub.onNext(buf));
+            } else {
+                this.head.add(buf);
+                boolean next;
+                try {
+                    next = this.more.test(buf);
+                } catch (final IllegalStateException | IllegalArgumentException err) {
+                    this.upstream.cancel();
+                    this.future.completeExceptionally(err);
+                    next = false;
+                }
+                if (next) {
+                    this.upstream.request(1);
+                } else if (!this.future.isDone()) {
+                    this.future.complete(Flowable.concat(Flowable.fromIterable(this.head), this));
+                }
+            }
+        }
+
+        @Override
+        public void onError(final Throwable err) {
+            this.terminate(Optional.of(err));
+        }
+
+        @Override
+        public void onComplete() {
+            this.terminate(Optional.empty());
+        }
+
+        @Override
+        public synchronized void subscribe(final Subscriber<? super ByteBuffer> sub) {
+            final Optional<Optional<Throwable>> before = this.done;
+            this.downstream = Optional.of(sub);
+            sub.onSubscribe(
+                new Subscription() {
+                    @Override
+                    public void request(final long num) {
+                        Split.this.upstream.request(num);
+                    }
+
+                    @Override
+                    public void cancel() {
+                        Split.this.upstream.cancel();
+                    }
+                }
+            );
+            before.ifPresent(err -> Split.signal(sub, err));
+        }
+
+        /**
+         * Handles origin termination: completes the future if the beginning is still being
+         * read or passes termination to the tail subscriber.
+         * @param err Error or empty for successful completion
+         */
+        private synchronized void terminate(final Optional<Throwable> err) {
+            this.done = Optional.of(err);
+            if (!this.future.isDone()) {
+                if (err.isPresent()) {
+                    this.future.completeExceptionally(err.get());
+                } else {
+                    this.future.complete(Flowable.fromIterable(this.head));
+                }
+            } else {
+                this.downstream.ifPresent(sub -> Split.signal(sub, err));
+            }
+        }
+
+        /**
+         * Signals termination to the subscriber.
+         * @param sub Subscriber
+         * @param err Error or empty for successful completion
+         */
+        private static void signal(
+            final Subscriber<? super ByteBuffer> sub, final Optional<Throwable> err
+        ) {
+            if (err.isPresent()) {
+                sub.onError(err.get());
+            } else {
+                sub.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,415 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import io.reactivex.Flowable;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Storage with the bounded in-memory LRU cache of the `dists/*` index files: InRelease,
+ * Release and Packages indexes are small and are requested by every client, so they are
+ * served from memory once read or written. Existence and metadata checks of the cached items
+ * are answered from memory as well, metadata is cached on the first request. Items written
+ * through this storage are put into the cache once they are saved, items deleted or moved are
+ * evicted. Least recently used items are evicted when the total size of the cached items
+ * exceeds the budget.
+ * <p>
+ * Each key gets a new version from the common clock when it is modified and again when its
+ * saving is completed: items read while the key was modified are not cached, so a stale item
+ * is never put into the cache and modification of one key does not affect reads of the
+ * others. Only the versions of the recently modified keys are kept, older versions are
+ * folded into the common floor version: items read before the floor version are not cached,
+ * which can only cause a cache miss.
+ * <p>
+ * The cache is in-process: use it only if the repository storage is not modified
+ * bypassing this instance, for example, by another process.
+ * @since 0.9
+ */
+public final class DistsCache extends Storage.Wrap {
+
+    /**
+     * Prefix of the cached items.
+     */
+    private static final String DISTS = "dists/";
+
+    /**
+     * Max count of the kept versions of the modified keys.
+     */
+    private static final int VERSIONS = 1024;
+
+    /**
+     * Underlying storage.
+     */
+    private final Storage origin;
+
+    /**
+     * Max total size of the cached items in bytes.
+     */
+    private final long budget;
+
+    /**
+     * Cached items by key in the access order, also guards the versions.
+     */
+    private final LinkedHashMap<String, Entry> items;
+
+    /**
+     * Versions of the recently modified keys in the modification order.
+     */
+    private final LinkedHashMap<String, Long> versions;
+
+    /**
+     * Clock of the versions, guarded by the cached items.
+     */
+    private long clock;
+
+    /**
+     * Version of the keys which versions are not kept, guarded by the cached items.
+     */
+    private long floor;
+
+    /**
+     * Total size of the cached items in bytes.
+     */
+    private final AtomicLong used;
+
+    /**
+     * Cache hits counter.
+     */
+    private final AtomicLong hit;
+
+    /**
+     * Cache misses counter.
+     */
+    private final AtomicLong miss;
+
+    /**
+     * Evictions counter.
+     */
+    private final AtomicLong evicted;
+
+    /**
+     * Ctor.
+     * @param origin Underlying storage
+     * @param budget Max total size of the cached items in bytes
+     */
+    public DistsCache(final Storage origin, final long budget) {
+        super(origin);
+        this.origin = origin;
+        this.budget = budget;
+        this.items = new LinkedHashMap<>(16, 0.75f, true);
+        this.versions = new LinkedHashMap<>();
+        this.used = new AtomicLong();
+        this.hit = new AtomicLong();
+        this.miss = new AtomicLong();
+        this.evicted = new AtomicLong();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(final Key key) {
+        final CompletableFuture<Boolean> res;
+        if (this.cached(key).isPresent()) {
+            res = CompletableFuture.completedFuture(true);
+        } else {
+            res = this.origin.exists(key);
+        }
+        return res;
+    }
+
+    @Override
+    public CompletableFuture<? extends Meta> metadata(final Key key) {
+        final Optional<Entry> cached = this.cached(key);
+        final CompletableFuture<? extends Meta> res;
+        if (cached.isPresent() && cached.get().meta.isPresent()) {
+            res = CompletableFuture.completedFuture(cached.get().meta.get());
+        } else if (cached.isPresent()) {
+            final long ver = this.version();
+            res = this.origin.metadata(key).thenApply(
+                meta -> {
+                    this.meta(key, meta, ver);
+                    return meta;
+                }
+            );
+        } else {
+            res = this.origin.metadata(key);
+        }
+        return res;
+    }
+
+    @Override
+    public CompletableFuture<Content> value(final Key key) {
+        final CompletableFuture<Content> res;
+        if (key.string().startsWith(DistsCache.DISTS)) {
+            final Optional<Entry> cached = this.cached(key);
+            if (cached.isPresent()) {
+                this.hit.incrementAndGet();
+                res = CompletableFuture.completedFuture(new Content.From(cached.get().bytes));
+            } else {
+                this.miss.incrementAndGet();
+                final long ver = this.version();
+                res = this.origin.value(key).thenApply(
+                    content -> this.tee(
+                        content, bytes -> this.put(key, bytes, ver)
+                    )
+                );
+            }
+        } else {
+            res = this.origin.value(key);
+        }
+        return res;
+    }
+
+    @Override
+    public CompletableFuture<Void> save(final Key key, final Content content) {
+        final CompletableFuture<Void> res;
+        if (key.string().startsWith(DistsCache.DISTS)) {
+            this.evict(key);
+            final CompletableFuture<byte[]> copy = new CompletableFuture<>();
+            res = this.origin.save(key, this.tee(content, copy::complete)).thenRun(
+                () -> {
+                    final long ver = this.evict(key);
+                    copy.thenAccept(bytes -> this.put(key, bytes, ver));
+                }
+            );
+        } else {
+            res = this.origin.save(key, content);
+        }
+        return res;
+    }
+
+    @Override
+    public CompletableFuture<Void> move(final Key source, final Key destination) {
+        this.evict(source);
+        this.evict(destination);
+        return this.origin.move(source, destination).thenRun(
+            () -> {
+                this.evict(source);
+                this.evict(destination);
+            }
+        );
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Key key) {
+        this.evict(key);
+        return this.origin.delete(key).thenRun(() -> this.evict(key));
+    }
+
+    /**
+     * Cache hits count.
+     * @return Hits
+     */
+    public long hits() {
+        return this.hit.get();
+    }
+
+    /**
+     * Cache misses count.
+     * @return Misses
+     */
+    public long misses() {
+        return this.miss.get();
+    }
+
+    /**
+     * Count of the items evicted to keep the cache within the budget.
+     * @return Evictions
+     */
+    public long evictions() {
+        return this.evicted.get();
+    }
+
+    /**
+     * Total size of the cached items.
+     * @return Size in bytes
+     */
+    public long size() {
+        return this.used.get();
+    }
+
+    /**
+     * Cached item.
+     * @param key Item key
+     * @return Item if cached
+     */
+    private Optional<Entry> cached(final Key key) {
+        synchronized (this.items) {
+            return Optional.ofNullable(this.items.get(key.string()));
+        }
+    }
+
+    /**
+     * Current version to read the items with: item read is cached if its key is not modified
+     * afterwards.
+     * @return Version
+     */
+    private long version() {
+        synchronized (this.items) {
+            return this.clock;
+        }
+    }
+
+    /**
+     * Whether the key was not modified since the version was taken, should be called
+     * holding the cached items lock.
+     * @param key Item key
+     * @param ver Version
+     * @return True if the key was not modified
+     */
+    private boolean unmodified(final Key key, final long ver) {
+        return this.versions.getOrDefault(key.string(), this.floor) <= ver;
+    }
+
+    /**
+     * Copies content bytes as they are read and passes the copy to the consumer when the
+     * content is read completely. Items larger than the budget are not copied.
+     * @param content Item content
+     * @param copied Consumer of the content copy
+     * @return Content to read or save
+     */
+    private Content tee(final Content content, final Consumer<byte[]> copied) {
+        final Content res;
+        if (content.size().map(size -> size <= this.budget).orElse(true)) {
+            final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            res = new Content.From(
+                content.size(),
+                Flowable.fromPublisher(content).doOnNext(
+                    buf -> {
+                        if (copy.size() <= this.budget) {
+                            final ByteBuffer dup = buf.duplicate();
+                            final byte[] bytes = new byte[dup.remaining()];
+                            dup.get(bytes);
+                            copy.write(bytes);
+                        }
+                    }
+                ).doOnComplete(
+                    () -> {
+                        if (copy.size() <= this.budget) {
+                            copied.accept(copy.toByteArray());
+                        }
+                    }
+                )
+            );
+        } else {
+            res = content;
+        }
+        return res;
+    }
+
+    /**
+     * Puts item into the cache evicting least recently used items to fit the budget, if
+     * the key was not modified since the version was taken.
+     * @param key Item key
+     * @param bytes Item bytes
+     * @param ver Version of the key when reading or writing started
+     */
+    private void put(final Key key, final byte[] bytes, final long ver) {
+        synchronized (this.items) {
+            if (this.unmodified(key, ver)) {
+                final Entry prev = this.items.put(key.string(), new Entry(bytes, Optional.empty()));
+                if (prev != null) {
+                    this.used.addAndGet(-prev.bytes.length);
+                }
+                this.used.addAndGet(bytes.length);
+                final Iterator<Map.Entry<String, Entry>> iter = this.items.entrySet().iterator();
+                while (this.used.get() > this.budget && iter.hasNext()) {
+                    final Map.Entry<String, Entry> eldest = iter.next();
+                    iter.remove();
+                    this.used.addAndGet(-eldest.getValue().bytes.length);
+                    this.evicted.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Attaches metadata to the cached item, if the item is still cached and the key was not
+     * modified since the version was taken.
+     * @param key Item key
+     * @param meta Item metadata
+     * @param ver Version of the key when metadata request started
+     */
+    private void meta(final Key key, final Meta meta, final long ver) {
+        synchronized (this.items) {
+            final Entry entry = this.items.get(key.string());
+            if (entry != null && this.unmodified(key, ver)) {
+                this.items.put(key.string(), new Entry(entry.bytes, Optional.of(meta)));
+            }
+        }
+    }
+
+    /**
+     * Removes item from the cache and sets new version of the key, so the item being
+     * read or written now is not cached. Version of the least recently modified key is folded
+     * into the floor version if too many versions are kept.
+     * @param key Item key
+     * @return New version of the key
+     */
+    private long evict(final Key key) {
+        synchronized (this.items) {
+            final Entry prev = this.items.remove(key.string());
+            if (prev != null) {
+                this.used.addAndGet(-prev.bytes.length);
+            }
+            this.clock = this.clock + 1;
+            this.versions.remove(key.string());
+            this.versions.put(key.string(), this.clock);
+            if (this.versions.size() > DistsCache.VERSIONS) {
+                final Iterator<Map.Entry<String, Long>> iter = this.versions.entrySet().iterator();
+                this.floor = Math.max(this.floor, iter.next().getValue());
+                iter.remove();
+            }
+            return this.clock;
+        }
+    }
+
+    /**
+     * Count of the kept versions of the modified keys.
+     * @return Versions count
+     */
+    int versions() {
+        synchronized (this.items) {
+            return this.versions.size();
+        }
+    }
+
+    /**
+     * Cached item.
+     * @since 0.9
+     */
+    private static final class Entry {
+
+        /**
+         * Item bytes.
+         */
+        private final byte[] bytes;
+
+        /**
+         * Item metadata if it was requested.
+         */
+        private final Optional<Meta> meta;
+
+        /**
+         * Ctor.
+         * @param bytes Item bytes
+         * @param meta Item metadata
+         */
+        Entry(final byte[] bytes, final Optional<Meta> meta) {
+            this.bytes = bytes;
+            this.meta = meta;
+        }
+    }
+}
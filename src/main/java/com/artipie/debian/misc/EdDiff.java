@@ -0,0 +1,187 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Line diff in the `ed` script format, as produced by `diff --ed`: hunks are listed from the
+ * end of the file to its beginning, so line numbers of each command refer to the original
+ * file. Lines are compared along with their line breaks, so the script reproduces the changed
+ * text byte to byte or is not produced at all. Differences are found with the Myers algorithm
+ * after the common prefix and suffix are skipped, the memory required grows with the square of
+ * the number of changed lines, so the number of changes is limited.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (200 lines)
+ */
+public final class EdDiff {
+
+    /**
+     * Max number of inserted and deleted lines.
+     */
+    private static final int MAX = 2048;
+
+    /**
+     * Original lines.
+     */
+    private final List<String> old;
+
+    /**
+     * Changed lines.
+     */
+    private final List<String> cur;
+
+    /**
+     * Ctor.
+     * @param old Original lines with line breaks, the last line may have no line break
+     * @param cur Changed lines with line breaks, the last line may have no line break
+     */
+    public EdDiff(final List<String> old, final List<String> cur) {
+        this.old = old;
+        this.cur = cur;
+    }
+
+    /**
+     * Ed script which turns original lines into changed ones.
+     * @return Script or empty if there are too many changes or if an added line can not be
+     *  expressed in ed script: it has no line break or consists of a single dot
+     */
+    public Optional<String> script() {
+        final Optional<List<int[]>> hunks = this.hunks();
+        Optional<String> res = Optional.empty();
+        if (hunks.isPresent()) {
+            final StringBuilder script = new StringBuilder();
+            boolean valid = true;
+            for (int idx = hunks.get().size() - 1; idx >= 0; idx = idx - 1) {
+                final int[] hunk = hunks.get().get(idx);
+                if (hunk[1] > hunk[0]) {
+                    script.append(hunk[0] + 1);
+                    if (hunk[1] > hunk[0] + 1) {
+                        script.append(',').append(hunk[1]);
+                    }
+                    if (hunk[3] > hunk[2]) {
+                        script.append("c\n");
+                    } else {
+                        script.append("d\n");
+                    }
+                } else {
+                    script.append(hunk[0]).append("a\n");
+                }
+                if (hunk[3] > hunk[2]) {
+                    for (final String line : this.cur.subList(hunk[2], hunk[3])) {
+                        valid = valid && line.endsWith("\n") && !".\n".equals(line);
+                        script.append(line);
+                    }
+                    script.append(".\n");
+                }
+            }
+            if (valid) {
+                res = Optional.of(script.toString());
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Changed regions: original lines from index 0 (inclusive) to 1 (exclusive) are replaced
+     * with changed lines from index 2 (inclusive) to 3 (exclusive), regions are sorted.
+     * @return Changed regions or empty if there are too many changes
+     * @checkstyle ExecutableStatementCountCheck (100 lines)
+     */
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    private Optional<List<int[]>> hunks() {
+        int head = 0;
+        while (head < this.old.size() && head < this.cur.size()
+            && this.old.get(head).equals(this.cur.get(head))) {
+            head = head + 1;
+        }
+        int tail = 0;
+        while (tail < this.old.size() - head && tail < this.cur.size() - head
+            && this.old.get(this.old.size() - 1 - tail)
+            .equals(this.cur.get(this.cur.size() - 1 - tail))) {
+            tail = tail + 1;
+        }
+        final List<String> left = this.old.subList(head, this.old.size() - tail);
+        final List<String> right = this.cur.subList(head, this.cur.size() - tail);
+        final int max = Math.min(left.size() + right.size(), EdDiff.MAX);
+        final int off = max + 1;
+        final int[] ends = new int[2 * off + 1];
+        final List<int[]> trace = new ArrayList<>(off);
+        int found = -1;
+        for (int dist = 0; dist <= max && found < 0; dist = dist + 1) {
+            for (int diag = -dist; diag <= dist && found < 0; diag = diag + 2) {
+                int posx;
+                if (diag == -dist || diag != dist && ends[off + diag - 1] < ends[off + diag + 1]) {
+                    posx = ends[off + diag + 1];
+                } else {
+                    posx = ends[off + diag - 1] + 1;
+                }
+                int posy = posx - diag;
+                while (posx < left.size() && posy < right.size()
+                    && left.get(posx).equals(right.get(posy))) {
+                    posx = posx + 1;
+                    posy = posy + 1;
+                }
+                ends[off + diag] = posx;
+                if (posx >= left.size() && posy >= right.size()) {
+                    found = dist;
+                }
+            }
+            trace.add(Arrays.copyOfRange(ends, off - dist, off + dist + 1));
+        }
+        Optional<List<int[]>> res = Optional.empty();
+        if (found >= 0) {
+            final List<int[]> edits = new ArrayList<>(found);
+            int posx = left.size();
+            int posy = right.size();
+            for (int dist = found; dist > 0; dist = dist - 1) {
+                final int[] prev = trace.get(dist - 1);
+                final int diag = posx - posy;
+                final int from;
+                if (diag == -dist
+                    || diag != dist && prev[diag - 1 + dist - 1] < prev[diag + 1 + dist - 1]) {
+                    from = diag + 1;
+                } else {
+                    from = diag - 1;
+                }
+                final int prevx = prev[from + dist - 1];
+                final int prevy = prevx - from;
+                edits.add(0, new int[] {prevx + head, prevy + head, from - diag});
+                posx = prevx;
+                posy = prevy;
+            }
+            res = Optional.of(EdDiff.group(edits));
+        }
+        return res;
+    }
+
+    /**
+     * Groups adjacent edits into regions.
+     * @param edits Edits in order: original line index, changed line index and 1 for
+     *  insertion of the changed line or -1 for deletion of the original line
+     * @return Changed regions
+     */
+    private static List<int[]> group(final List<int[]> edits) {
+        final List<int[]> res = new ArrayList<>(edits.size());
+        for (final int[] edit : edits) {
+            final boolean adjacent = !res.isEmpty()
+                && res.get(res.size() - 1)[1] == edit[0]
+                && res.get(res.size() - 1)[3] == edit[1];
+            if (!adjacent) {
+                res.add(new int[] {edit[0], edit[0], edit[1], edit[1]});
+            }
+            final int[] hunk = res.get(res.size() - 1);
+            if (edit[2] > 0) {
+                hunk[3] = hunk[3] + 1;
+            } else {
+                hunk[1] = hunk[1] + 1;
+            }
+        }
+        return res;
+    }
+}
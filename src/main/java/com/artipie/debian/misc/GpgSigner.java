@@ -0,0 +1,237 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.ArtipieIOException;
+import com.jcabi.log.Logger;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.bouncycastle.bcpg.ArmoredOutputStream;
+import org.bouncycastle.bcpg.BCPGOutputStream;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPSignatureGenerator;
+import org.bouncycastle.openpgp.PGPUtil;
+
+/**
+ * Streaming GPG signer: content is read from the input stream and signed output is written
+ * to the output stream chunk by chunk, so memory consumption does not depend on the content
+ * size.
+ * @since 0.9
+ */
+public final class GpgSigner {
+
+    /**
+     * Read buffer size.
+     */
+    private static final int BUF = 8192;
+
+    /**
+     * Secret key ring bytes.
+     */
+    private final byte[] key;
+
+    /**
+     * Password to unlock private key.
+     */
+    private final String pass;
+
+    /**
+     * Signing keys cache.
+     */
+    private final SigningKeys keys;
+
+    /**
+     * Ctor.
+     * @param key Secret key ring bytes
+     * @param pass Password to unlock private key
+     */
+    public GpgSigner(final byte[] key, final String pass) {
+        this(key, pass, SigningKeys.SHARED);
+    }
+
+    /**
+     * Ctor.
+     * @param key Secret key ring bytes
+     * @param pass Password to unlock private key
+     * @param keys Signing keys cache
+     */
+    public GpgSigner(final byte[] key, final String pass, final SigningKeys keys) {
+        this.key = key.clone();
+        this.pass = pass;
+        this.keys = keys;
+    }
+
+    /**
+     * Writes content along with its GPG clearsign signature. Trailing white space is excluded
+     * from the signed lines and lines are signed with CRLF line endings according to
+     * RFC 4880 Section 7.1, content itself is written as is.
+     * @param input Content to sign, stream is not closed
+     * @param out Where to write signed content, stream is not closed
+     * @throws ArtipieIOException On IO errors
+     * @throws ArtipieException On problems with GPG
+     */
+    public void clearsign(final InputStream input, final OutputStream out) {
+        try {
+            final PGPSignatureGenerator sgen = this.keys.generator(this.key, this.pass);
+            final ArmoredOutputStream armored = new ArmoredOutputStream(new Unclosed(out));
+            armored.beginClearText(PGPUtil.SHA256);
+            final Canonical text = new Canonical(sgen);
+            final byte[] buf = new byte[GpgSigner.BUF];
+            int cnt = input.read(buf);
+            while (cnt >= 0) {
+                text.update(buf, cnt);
+                armored.write(buf, 0, cnt);
+                cnt = input.read(buf);
+            }
+            armored.endClearText();
+            sgen.generate().encode(new BCPGOutputStream(armored));
+            armored.close();
+        } catch (final PGPException err) {
+            Logger.error(this, "Error while generating gpg-signature:\n%s", err.getMessage());
+            throw new ArtipieException(err);
+        } catch (final IOException err) {
+            Logger.error(this, "IO error while generating gpg-signature:\n%s", err.getMessage());
+            throw new ArtipieIOException(err);
+        }
+    }
+
+    /**
+     * Writes armored detached GPG signature of the content.
+     * @param input Content to sign, stream is not closed
+     * @param out Where to write the signature, stream is not closed
+     * @throws ArtipieIOException On IO errors
+     * @throws ArtipieException On problems with GPG
+     */
+    public void detached(final InputStream input, final OutputStream out) {
+        try {
+            final PGPSignatureGenerator sgen = this.keys.generator(this.key, this.pass);
+            final ArmoredOutputStream armored = new ArmoredOutputStream(new Unclosed(out));
+            armored.setHeader(ArmoredOutputStream.VERSION_HDR, null);
+            final byte[] buf = new byte[GpgSigner.BUF];
+            int cnt = input.read(buf);
+            while (cnt >= 0) {
+                sgen.update(buf, 0, cnt);
+                cnt = input.read(buf);
+            }
+            sgen.generate().encode(new BCPGOutputStream(armored));
+            armored.close();
+        } catch (final PGPException err) {
+            Logger.error(this, "Error while generating gpg-signature:\n%s", err.getMessage());
+            throw new ArtipieException(err);
+        } catch (final IOException err) {
+            Logger.error(this, "IO error while generating gpg-signature:\n%s", err.getMessage());
+            throw new ArtipieIOException(err);
+        }
+    }
+
+    /**
+     * Canonical text signing: feeds the signature generator with the lines without trailing
+     * white space joined with CRLF. White space is held back until a non white space symbol
+     * of the same line comes, so lines can span several chunks.
+     * @since 0.9
+     */
+    private static final class Canonical {
+
+        /**
+         * Line separator for the signature.
+         */
+        private static final byte[] CRLF = {'\r', '\n'};
+
+        /**
+         * Signature generator.
+         */
+        private final PGPSignatureGenerator sgen;
+
+        /**
+         * White space held back.
+         */
+        private final ByteArrayOutputStream space;
+
+        /**
+         * Whether line ending was the last symbol.
+         */
+        private boolean eol;
+
+        /**
+         * Whether carriage return was the last symbol.
+         */
+        private boolean carriage;
+
+        /**
+         * Ctor.
+         * @param sgen Signature generator
+         */
+        Canonical(final PGPSignatureGenerator sgen) {
+            this.sgen = sgen;
+            this.space = new ByteArrayOutputStream();
+        }
+
+        /**
+         * Signs the chunk: runs of the line symbols are passed to the generator at once.
+         * @param buf Chunk buffer
+         * @param len Chunk length
+         */
+        void update(final byte[] buf, final int len) {
+            int start = 0;
+            for (int idx = 0; idx < len; idx = idx + 1) {
+                final byte sym = buf[idx];
+                if (this.carriage && sym == '\n') {
+                    this.carriage = false;
+                    start = idx + 1;
+                } else {
+                    this.carriage = false;
+                    if (this.eol) {
+                        this.sgen.update(Canonical.CRLF);
+                        this.eol = false;
+                    }
+                    if (sym == '\r' || sym == '\n') {
+                        this.sgen.update(buf, start, idx - start);
+                        this.space.reset();
+                        this.eol = true;
+                        this.carriage = sym == '\r';
+                        start = idx + 1;
+                    } else if (sym == ' ' || sym == '\t') {
+                        this.sgen.update(buf, start, idx - start);
+                        this.space.write(sym);
+                        start = idx + 1;
+                    } else if (this.space.size() > 0) {
+                        this.sgen.update(this.space.toByteArray());
+                        this.space.reset();
+                    }
+                }
+            }
+            this.sgen.update(buf, start, len - start);
+        }
+    }
+
+    /**
+     * Output stream which is not closed with the wrapping stream.
+     * @since 0.9
+     */
+    private static final class Unclosed extends FilterOutputStream {
+
+        /**
+         * Ctor.
+         * @param origin Origin stream
+         */
+        Unclosed(final OutputStream origin) {
+            super(origin);
+        }
+
+        @Override
+        public void write(final byte[] buf, final int off, final int len) throws IOException {
+            this.out.write(buf, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.flush();
+        }
+    }
+}
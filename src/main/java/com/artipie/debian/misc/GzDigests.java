@@ -0,0 +1,71 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.ext.Digests;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.Function;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Calculates sizes and digests of the gz packed content provided as input stream and of the
+ * unpacked content in one pass: packed bytes are digested as they are read by the gzip
+ * decompressor, all the members of multi-member gzip are read.
+ * @since 0.9
+ */
+public final class GzDigests implements Function<InputStream, Pair<MultiDigest, MultiDigest>> {
+
+    /**
+     * Digest algorithms to calculate.
+     */
+    private final Digests[] algs;
+
+    /**
+     * Ctor.
+     * @param algs Digest algorithms to calculate
+     */
+    public GzDigests(final Digests... algs) {
+        this.algs = algs.clone();
+    }
+
+    /**
+     * Calculates digests.
+     * @param input Gz packed content
+     * @return Digests of the packed (left) and unpacked (right) content
+     */
+    @Override
+    public Pair<MultiDigest, MultiDigest> apply(final InputStream input) {
+        return this.apply(input, NullOutputStream.NULL_OUTPUT_STREAM);
+    }
+
+    /**
+     * Calculates digests and copies the unpacked content to the output stream as it is read.
+     * @param input Gz packed content
+     * @param unpack Output stream for the unpacked content, it is not closed
+     * @return Digests of the packed (left) and unpacked (right) content
+     */
+    public Pair<MultiDigest, MultiDigest> apply(
+        final InputStream input, final OutputStream unpack
+    ) {
+        final MultiDigest packed = new MultiDigest(this.algs);
+        final MultiDigest unpacked = new MultiDigest(this.algs);
+        final InputStream raw = packed.stream(input);
+        try (GzipCompressorInputStream gcis = new GzipCompressorInputStream(raw, true)) {
+            unpacked.consume(new TeeInputStream(gcis, unpack));
+            IOUtils.skip(raw, Long.MAX_VALUE);
+        } catch (final IOException err) {
+            throw new ArtipieIOException(err);
+        }
+        return new ImmutablePair<>(packed, unpacked);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Limit of the concurrently running (in-flight) asynchronous tasks.
+ * @since 0.9
+ */
+public interface InFlight {
+
+    /**
+     * Runs the task as soon as the limit allows it.
+     * @param task Task to run
+     * @param <T> Task result type
+     * @return Completion action with the task result
+     */
+    <T> CompletionStage<T> run(Supplier<? extends CompletionStage<T>> task);
+
+    /**
+     * Maximum number of the tasks this limit can let run at once.
+     * @return Max in-flight tasks count
+     */
+    int max();
+
+    /**
+     * Fixed limit: not more than the given number of tasks run at once.
+     * @since 0.9
+     */
+    final class Fixed implements InFlight {
+
+        /**
+         * Origin limit.
+         */
+        private final InFlight origin;
+
+        /**
+         * Ctor.
+         * @param max Max in-flight tasks count
+         */
+        public Fixed(final int max) {
+            this.origin = new Aimd(max, max, Duration.ZERO);
+        }
+
+        @Override
+        public <T> CompletionStage<T> run(final Supplier<? extends CompletionStage<T>> task) {
+            return this.origin.run(task);
+        }
+
+        @Override
+        public int max() {
+            return this.origin.max();
+        }
+    }
+
+    /**
+     * Adaptive limit, which follows additive increase/multiplicative decrease (AIMD) policy:
+     * the limit grows by one once the window of the currently allowed tasks count is completed
+     * within the target latency and is halved when a task fails or takes longer than the target.
+     * The limit is halved at most once per the window as well and always stays between min
+     * and max.
+     * @since 0.9
+     */
+    final class Aimd implements InFlight {
+
+        /**
+         * Min limit.
+         */
+        private final int min;
+
+        /**
+         * Max limit.
+         */
+        private final int max;
+
+        /**
+         * Target task latency in nanoseconds.
+         */
+        private final long target;
+
+        /**
+         * Tasks waiting for the permission to run, also guards the counters.
+         */
+        private final Queue<CompletableFuture<Void>> waiting;
+
+        /**
+         * Current limit.
+         */
+        private int limit;
+
+        /**
+         * Currently running tasks count.
+         */
+        private int active;
+
+        /**
+         * Tasks completed since the last decrease.
+         */
+        private int since;
+
+        /**
+         * Tasks completed within the target latency since the last limit change.
+         */
+        private int fast;
+
+        /**
+         * Ctor.
+         * @param min Min in-flight tasks count
+         * @param max Max in-flight tasks count
+         * @param target Target task latency
+         */
+        public Aimd(final int min, final int max, final Duration target) {
+            if (min < 1 || max < min) {
+                throw new IllegalArgumentException(
+                    String.format("Invalid in-flight limits: min %d, max %d", min, max)
+                );
+            }
+            this.min = min;
+            this.max = max;
+            this.target = target.toNanos();
+            this.waiting = new LinkedList<>();
+            this.limit = min;
+        }
+
+        @Override
+        public <T> CompletionStage<T> run(final Supplier<? extends CompletionStage<T>> task) {
+            return this.acquire().thenCompose(
+                nothing -> {
+                    final long start = System.nanoTime();
+                    CompletionStage<T> res;
+                    try {
+                        res = task.get();
+                    } catch (final RuntimeException err) {
+                        final CompletableFuture<T> failed = new CompletableFuture<>();
+                        failed.completeExceptionally(err);
+                        res = failed;
+                    }
+                    return res.whenComplete(
+                        (val, err) -> this.release(System.nanoTime() - start, err == null)
+                    );
+                }
+            );
+        }
+
+        @Override
+        public int max() {
+            return this.max;
+        }
+
+        /**
+         * Obtains permission to run the task.
+         * @return Completion action, completed when the task is allowed to run
+         */
+        private CompletableFuture<Void> acquire() {
+            final CompletableFuture<Void> res = new CompletableFuture<>();
+            final boolean now;
+            synchronized (this.waiting) {
+                now = this.active < this.limit;
+                if (now) {
+                    this.active = this.active + 1;
+                } else {
+                    this.waiting.add(res);
+                }
+            }
+            if (now) {
+                res.complete(null);
+            }
+            return res;
+        }
+
+        /**
+         * Releases the permission, adjusts the limit and lets waiting tasks run.
+         * @param nanos Task latency
+         * @param success Whether task completed successfully
+         */
+        private void release(final long nanos, final boolean success) {
+            final List<CompletableFuture<Void>> next = new ArrayList<>(1);
+            synchronized (this.waiting) {
+                this.active = this.active - 1;
+                this.since = this.since + 1;
+                if (success && nanos <= this.target) {
+                    this.fast = this.fast + 1;
+                    if (this.fast >= this.limit) {
+                        this.limit = Math.min(this.max, this.limit + 1);
+                        this.fast = 0;
+                    }
+                } else if (this.since >= this.limit) {
+                    this.limit = Math.max(this.min, this.limit / 2);
+                    this.since = 0;
+                    this.fast = 0;
+                }
+                while (this.active < this.limit && !this.waiting.isEmpty()) {
+                    this.active = this.active + 1;
+                    next.add(this.waiting.poll());
+                }
+            }
+            next.forEach(item -> item.complete(null));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.ext.Digests;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.EnumMap;
+import java.util.Map;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Calculates size and several digests of the content at once: content is read only one time
+ * no matter how many checksums are required. Instances are not thread safe.
+ * @since 0.9
+ */
+public final class MultiDigest {
+
+    /**
+     * Read buffer size.
+     */
+    private static final int BUF = 8192;
+
+    /**
+     * Message digests by algorithm.
+     */
+    private final Map<Digests, MessageDigest> digests;
+
+    /**
+     * Calculated hex digests by algorithm.
+     */
+    private final Map<Digests, String> hexes;
+
+    /**
+     * Content size.
+     */
+    private long size;
+
+    /**
+     * Ctor.
+     * @param algs Digest algorithms to calculate
+     */
+    public MultiDigest(final Digests... algs) {
+        this.digests = new EnumMap<>(Digests.class);
+        this.hexes = new EnumMap<>(Digests.class);
+        for (final Digests alg : algs) {
+            this.digests.put(alg, alg.get());
+        }
+    }
+
+    /**
+     * Updates digests with the bytes.
+     * @param bytes Bytes
+     * @param off Offset
+     * @param len Length
+     */
+    public void update(final byte[] bytes, final int off, final int len) {
+        for (final MessageDigest digest : this.digests.values()) {
+            digest.update(bytes, off, len);
+        }
+        this.size = this.size + len;
+    }
+
+    /**
+     * Updates digests with the buffer remaining bytes, buffer position is not changed.
+     * @param buf Byte buffer
+     */
+    public void update(final ByteBuffer buf) {
+        for (final MessageDigest digest : this.digests.values()) {
+            digest.update(buf.duplicate());
+        }
+        this.size = this.size + buf.remaining();
+    }
+
+    /**
+     * Reads provided input stream till the end updating digests, stream is not closed.
+     * @param input Input stream
+     * @return Itself
+     * @throws ArtipieIOException On IO error
+     */
+    public MultiDigest consume(final InputStream input) {
+        try {
+            IOUtils.skip(this.stream(input), Long.MAX_VALUE);
+        } catch (final IOException err) {
+            throw new ArtipieIOException(err);
+        }
+        return this;
+    }
+
+    /**
+     * Wraps input stream: all the bytes read from (or skipped in) the returned stream
+     * update the digests.
+     * @param origin Origin input stream
+     * @return Digesting input stream
+     */
+    public InputStream stream(final InputStream origin) {
+        return new Input(origin);
+    }
+
+    /**
+     * Size of the digested content.
+     * @return Size in bytes
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Hex of the digest, once obtained, digest is not updated anymore.
+     * @param alg Digest algorithm
+     * @return Hex string
+     */
+    public String hex(final Digests alg) {
+        final MessageDigest digest = this.digests.get(alg);
+        if (digest == null) {
+            throw new IllegalArgumentException(
+                String.format("Digest %s is not calculated", alg.name())
+            );
+        }
+        return this.hexes.computeIfAbsent(alg, key -> Hex.encodeHexString(digest.digest()));
+    }
+
+    /**
+     * Input stream which updates digests with all read or skipped bytes.
+     * @since 0.9
+     */
+    private final class Input extends FilterInputStream {
+
+        /**
+         * Ctor.
+         * @param origin Origin stream
+         */
+        Input(final InputStream origin) {
+            super(origin);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int res = super.read();
+            if (res >= 0) {
+                MultiDigest.this.update(new byte[]{(byte) res}, 0, 1);
+            }
+            return res;
+        }
+
+        @Override
+        public int read(final byte[] buf, final int off, final int len) throws IOException {
+            final int res = super.read(buf, off, len);
+            if (res > 0) {
+                MultiDigest.this.update(buf, off, res);
+            }
+            return res;
+        }
+
+        @Override
+        public long skip(final long num) throws IOException {
+            final byte[] buf = new byte[(int) Math.min(num, MultiDigest.BUF)];
+            long left = num;
+            while (left > 0) {
+                final int cnt = this.read(buf, 0, (int) Math.min(left, buf.length));
+                if (cnt < 0) {
+                    break;
+                }
+                left = left - cnt;
+            }
+            return num - left;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
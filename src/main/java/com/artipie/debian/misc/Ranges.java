@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.ValueNotFoundException;
+import io.reactivex.Flowable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Partial (ranged) reads of the storage items. Abstract storage always reads items
+ * from the first byte, this interface allows to read only the required part of the item
+ * when the underlying storage supports it.
+ * @since 0.9
+ */
+public interface Ranges {
+
+    /**
+     * Reads part of the storage item.
+     * @param key Storage item key
+     * @param offset Offset of the first byte to read
+     * @param length Max count of the bytes to read
+     * @return Completion action with the item part content or empty if storage does not
+     *  support ranged reads
+     */
+    CompletionStage<Optional<Content>> value(Key key, long offset, long length);
+
+    /**
+     * Storage does not support ranged reads.
+     * @since 0.9
+     */
+    final class None implements Ranges {
+
+        @Override
+        public CompletionStage<Optional<Content>> value(
+            final Key key, final long offset, final long length
+        ) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+    }
+
+    /**
+     * Ranged reads from the file system storage: items are read with positional reads
+     * from the files under the storage root directory.
+     * @since 0.9
+     */
+    final class FileSystem implements Ranges {
+
+        /**
+         * Read chunk size.
+         */
+        private static final int CHUNK = 64 * 1024;
+
+        /**
+         * Storage root directory.
+         */
+        private final Path root;
+
+        /**
+         * Ctor.
+         * @param root Storage root directory
+         */
+        public FileSystem(final Path root) {
+            this.root = root;
+        }
+
+        @Override
+        public CompletionStage<Optional<Content>> value(
+            final Key key, final long offset, final long length
+        ) {
+            final Path path = this.root.resolve(key.string());
+            return CompletableFuture.supplyAsync(
+                () -> {
+                    final long size;
+                    try {
+                        size = Files.size(path);
+                    } catch (final NoSuchFileException err) {
+                        throw new ValueNotFoundException(key);
+                    } catch (final IOException err) {
+                        throw new ArtipieIOException(err);
+                    }
+                    final long start = Math.min(offset, size);
+                    final long len = Math.min(length, size - start);
+                    return Optional.of(
+                        new Content.From(Optional.of(len), FileSystem.chunks(path, start, len))
+                    );
+                }
+            );
+        }
+
+        /**
+         * Reads file part by chunks.
+         * @param path File path
+         * @param start Start position
+         * @param len Length to read
+         * @return Publisher of the file part chunks
+         */
+        private static Flowable<ByteBuffer> chunks(
+            final Path path, final long start, final long len
+        ) {
+            return Flowable.using(
+                () -> FileChannel.open(path, StandardOpenOption.READ),
+                chan -> {
+                    final AtomicLong pos = new AtomicLong(start);
+                    return Flowable.<ByteBuffer>generate(
+                        emitter -> {
+                            final long left = start + len - pos.get();
+                            if (left > 0) {
+                                final ByteBuffer buf = ByteBuffer.allocate(
+                                    (int) Math.min(left, FileSystem.CHUNK)
+                                );
+                                final int cnt = chan.read(buf, pos.get());
+                                if (cnt < 0) {
+                                    emitter.onComplete();
+                                } else {
+                                    pos.addAndGet(cnt);
+                                    buf.flip();
+                                    emitter.onNext(buf);
+                                }
+                            } else {
+                                emitter.onComplete();
+                            }
+                        }
+                    );
+                },
+                FileChannel::close
+            );
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.ext.Digests;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Provider;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.commons.codec.binary.Hex;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPPrivateKey;
+import org.bouncycastle.openpgp.PGPSecretKey;
+import org.bouncycastle.openpgp.PGPSecretKeyRing;
+import org.bouncycastle.openpgp.PGPSecretKeyRingCollection;
+import org.bouncycastle.openpgp.PGPSignature;
+import org.bouncycastle.openpgp.PGPSignatureGenerator;
+import org.bouncycastle.openpgp.PGPSignatureSubpacketGenerator;
+import org.bouncycastle.openpgp.PGPUtil;
+import org.bouncycastle.openpgp.operator.jcajce.JcaKeyFingerprintCalculator;
+import org.bouncycastle.openpgp.operator.jcajce.JcaPGPContentSignerBuilder;
+import org.bouncycastle.openpgp.operator.jcajce.JcePBESecretKeyDecryptorBuilder;
+
+/**
+ * Cache of the unlocked GPG signing keys. Keys are cached by the digests of the key ring
+ * content and of the password: key ring is parsed and the private key is unlocked only once
+ * for the key ring content, new key ring content (for example, after the key file was
+ * changed) is parsed again. Least recently used keys are evicted once the cache is full.
+ * @since 0.9
+ */
+public final class SigningKeys {
+
+    /**
+     * Keys cache shared by all the repositories.
+     */
+    public static final SigningKeys SHARED = new SigningKeys(SigningKeys.MAX);
+
+    /**
+     * Default max count of the cached keys.
+     */
+    private static final int MAX = 16;
+
+    /**
+     * Bouncy castle security provider.
+     */
+    private static final Provider PROVIDER = new BouncyCastleProvider();
+
+    /**
+     * Cached keys, access is synchronized on the map.
+     */
+    private final Map<String, Unlocked> keys;
+
+    /**
+     * Ctor.
+     * @param max Max count of the cached keys, least recently used key is evicted when it
+     *  is exceeded
+     */
+    public SigningKeys(final int max) {
+        this.keys = new Lru<>(max);
+    }
+
+    /**
+     * Signature generator initialized with the signing key from the key ring.
+     * @param ring Secret key ring bytes
+     * @param pass Password to unlock private key
+     * @return Signature generator
+     * @throws IOException On IO error
+     * @throws PGPException On problems with the key
+     */
+    public PGPSignatureGenerator generator(final byte[] ring, final String pass)
+        throws IOException, PGPException {
+        final String id = String.join(
+            ":",
+            SigningKeys.digest(ring),
+            SigningKeys.digest(pass.getBytes(StandardCharsets.UTF_8))
+        );
+        final Optional<Unlocked> cached;
+        synchronized (this.keys) {
+            cached = Optional.ofNullable(this.keys.get(id));
+        }
+        final Unlocked key;
+        if (cached.isPresent()) {
+            key = cached.get();
+        } else {
+            key = SigningKeys.unlock(ring, pass);
+            synchronized (this.keys) {
+                this.keys.put(id, key);
+            }
+        }
+        return key.generator();
+    }
+
+    /**
+     * Parses key ring and unlocks the signing key.
+     * @param ring Secret key ring bytes
+     * @param pass Password
+     * @return Unlocked key
+     * @throws IOException On IO error
+     * @throws PGPException On problems with the key
+     */
+    private static Unlocked unlock(final byte[] ring, final String pass)
+        throws IOException, PGPException {
+        final PGPSecretKey skey = SigningKeys.secret(ring);
+        final Iterator<String> ids = skey.getPublicKey().getUserIDs();
+        Optional<String> user = Optional.empty();
+        if (ids.hasNext()) {
+            user = Optional.of(ids.next());
+        }
+        return new Unlocked(
+            skey.extractPrivateKey(
+                new JcePBESecretKeyDecryptorBuilder().setProvider(SigningKeys.PROVIDER)
+                    .build(pass.toCharArray())
+            ),
+            skey.getPublicKey().getAlgorithm(),
+            user
+        );
+    }
+
+    /**
+     * Reads the first signing secret key from the key ring.
+     * @param ring Secret key ring bytes
+     * @return Instance of PGPSecretKey
+     * @throws IOException On IO errors
+     * @throws PGPException On Keys errors
+     */
+    private static PGPSecretKey secret(final byte[] ring) throws IOException, PGPException {
+        final Iterator<PGPSecretKeyRing> rings = new PGPSecretKeyRingCollection(
+            PGPUtil.getDecoderStream(new ByteArrayInputStream(ring)),
+            new JcaKeyFingerprintCalculator()
+        ).getKeyRings();
+        Optional<PGPSecretKey> res = Optional.empty();
+        while (rings.hasNext() && !res.isPresent()) {
+            final Iterator<PGPSecretKey> skeys = rings.next().getSecretKeys();
+            while (skeys.hasNext() && !res.isPresent()) {
+                final PGPSecretKey key = skeys.next();
+                if (key.isSigningKey()) {
+                    res = Optional.of(key);
+                }
+            }
+        }
+        return res.orElseThrow(
+            () -> new IllegalArgumentException("Can't find signing key in key ring.")
+        );
+    }
+
+    /**
+     * Hex of the SHA256 digest.
+     * @param bytes Bytes to digest
+     * @return Hex string
+     */
+    private static String digest(final byte[] bytes) {
+        return Hex.encodeHexString(Digests.SHA256.get().digest(bytes));
+    }
+
+    /**
+     * Map of limited size ordered by access, least recently accessed entry is removed when
+     * the size is exceeded. Map is not thread safe.
+     * @param <K> Key type
+     * @param <V> Value type
+     * @since 0.9
+     */
+    static final class Lru<K, V> extends LinkedHashMap<K, V> {
+
+        /**
+         * Serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Max size.
+         */
+        private final int max;
+
+        /**
+         * Ctor.
+         * @param max Max size
+         */
+        Lru(final int max) {
+            super(max + 1, 1.0f, true);
+            this.max = max;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+            return this.size() > this.max;
+        }
+    }
+
+    /**
+     * Unlocked signing key.
+     * @since 0.9
+     */
+    private static final class Unlocked {
+
+        /**
+         * Private key.
+         */
+        private final PGPPrivateKey pkey;
+
+        /**
+         * Public key algorithm.
+         */
+        private final int alg;
+
+        /**
+         * Signer user id.
+         */
+        private final Optional<String> user;
+
+        /**
+         * Ctor.
+         * @param pkey Private key
+         * @param alg Public key algorithm
+         * @param user Signer user id
+         */
+        Unlocked(final PGPPrivateKey pkey, final int alg, final Optional<String> user) {
+            this.pkey = pkey;
+            this.alg = alg;
+            this.user = user;
+        }
+
+        /**
+         * Creates new signature generator with this key.
+         * @return Signature generator
+         * @throws PGPException On problems with the key
+         */
+        PGPSignatureGenerator generator() throws PGPException {
+            final PGPSignatureGenerator sgen = new PGPSignatureGenerator(
+                new JcaPGPContentSignerBuilder(this.alg, PGPUtil.SHA256)
+                    .setProvider(SigningKeys.PROVIDER)
+            );
+            sgen.init(PGPSignature.CANONICAL_TEXT_DOCUMENT, this.pkey);
+            if (this.user.isPresent()) {
+                final PGPSignatureSubpacketGenerator ssgen = new PGPSignatureSubpacketGenerator();
+                ssgen.setSignerUserID(false, this.user.get());
+                sgen.setHashedSubpackets(ssgen.generate());
+            }
+            return sgen;
+        }
+    }
+}
@@ -17,7 +17,8 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 /**
- * Calculates size and digest of the gz packed content provided as input stream.
+ * Calculates size and digest of the gz packed content provided as input stream, all the
+ * members of multi-member gzip are read.
  * @since 0.6
  */
 @SuppressWarnings("PMD.AssignmentInOperand")
@@ -28,7 +29,7 @@ public final class SizeAndDigest implements Function<InputStream, Pair<Long, Str
         try {
             final MessageDigest digest = MessageDigest.getInstance("SHA-256");
             long size = 0;
-            try (GzipCompressorInputStream gcis = new GzipCompressorInputStream(input)) {
+            try (GzipCompressorInputStream gcis = new GzipCompressorInputStream(input, true)) {
                 // @checkstyle MagicNumberCheck (1 line)
                 final byte[] buf = new byte[1024];
                 int cnt;
@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.Key;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * In-process asynchronous locks striped by storage key: actions for the keys from the same
+ * stripe run one after another, actions for the keys from different stripes run in
+ * parallel. Locks are not reentrant, so an action must not wait for another action
+ * on any key under the same locks.
+ * @since 0.9
+ */
+public final class StripedLocks {
+
+    /**
+     * Locks shared in the process, used by repository classes by default.
+     */
+    public static final StripedLocks SHARED = new StripedLocks(StripedLocks.STRIPES);
+
+    /**
+     * Default stripes count.
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * Stripes.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * Ctor.
+     * @param count Stripes count
+     */
+    public StripedLocks(final int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException(
+                String.format("Stripes count should be positive, %d provided", count)
+            );
+        }
+        this.stripes = new Stripe[count];
+        for (int idx = 0; idx < count; idx = idx + 1) {
+            this.stripes[idx] = new Stripe();
+        }
+    }
+
+    /**
+     * Runs action holding the lock of the key: action starts when all the actions
+     * previously submitted for the key stripe complete.
+     * @param key Storage key to lock
+     * @param action Action to run
+     * @param <T> Action result type
+     * @return Completion action with the action result
+     */
+    public <T> CompletionStage<T> run(
+        final Key key, final Supplier<? extends CompletionStage<T>> action
+    ) {
+        return this.stripes[Math.floorMod(key.string().hashCode(), this.stripes.length)]
+            .run(action);
+    }
+
+    /**
+     * Lock stripe: chain of the actions.
+     * @since 0.9
+     */
+    private static final class Stripe {
+
+        /**
+         * Completion of the last submitted action.
+         */
+        private CompletableFuture<Void> tail;
+
+        /**
+         * Ctor.
+         */
+        Stripe() {
+            this.tail = CompletableFuture.completedFuture(null);
+        }
+
+        /**
+         * Runs action after all the previously submitted actions.
+         * @param action Action to run
+         * @param <T> Action result type
+         * @return Completion action with the action result
+         */
+        <T> CompletionStage<T> run(final Supplier<? extends CompletionStage<T>> action) {
+            final CompletableFuture<T> res = new CompletableFuture<>();
+            final CompletableFuture<Void> prev;
+            synchronized (this) {
+                prev = this.tail;
+                this.tail = res.handle((val, err) -> null);
+            }
+            prev.whenComplete(
+                (nothing, ignored) -> {
+                    try {
+                        action.get().whenComplete(
+                            (val, err) -> {
+                                if (err == null) {
+                                    res.complete(val);
+                                } else {
+                                    res.completeExceptionally(err);
+                                }
+                            }
+                        );
+                    } catch (final RuntimeException err) {
+                        res.completeExceptionally(err);
+                    }
+                }
+            );
+            return res;
+        }
+    }
+}
@@ -7,7 +7,12 @@ package com.artipie.debian;
 import com.amihaiemil.eoyaml.Yaml;
 import com.artipie.asto.Content;
 import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.debian.metadata.Compression;
 import com.artipie.http.slice.KeyFromPath;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
@@ -129,4 +134,97 @@ class ConfigFromYamlTest {
         );
     }
 
+    @Test
+    void returnsCompressions() {
+        final Map<Compression, Integer> res = new EnumMap<>(Compression.class);
+        res.put(Compression.PLAIN, 0);
+        res.put(Compression.GZ, Compression.GZ.level());
+        // @checkstyle MagicNumberCheck (2 lines)
+        res.put(Compression.XZ, 9);
+        res.put(Compression.ZST, Compression.ZST.level());
+        MatcherAssert.assertThat(
+            new Config.FromYaml(
+                "deb",
+                Yaml.createYamlMappingBuilder().add("Compressions", "plain xz:9 zst").build(),
+                new InMemoryStorage()
+            ).compressions(),
+            new IsEqual<>(res)
+        );
+    }
+
+    @Test
+    void returnsGzipCompressionByDefault() {
+        MatcherAssert.assertThat(
+            new Config.FromYaml(
+                "deb", Yaml.createYamlMappingBuilder().build(), new InMemoryStorage()
+            ).compressions(),
+            new IsEqual<>(Collections.singletonMap(Compression.GZ, Compression.GZ.level()))
+        );
+    }
+
+    @Test
+    void failsOnUnsupportedCompression() {
+        MatcherAssert.assertThat(
+            Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new Config.FromYaml(
+                    "deb",
+                    Yaml.createYamlMappingBuilder().add("Compressions", "bz2").build(),
+                    new InMemoryStorage()
+                ).compressions()
+            ).getMessage(),
+            new IsEqual<>("Illegal config: compression `bz2` is not supported")
+        );
+    }
+
+    @Test
+    void failsOnGzipCompressionLevel() {
+        MatcherAssert.assertThat(
+            Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new Config.FromYaml(
+                    "deb",
+                    Yaml.createYamlMappingBuilder().add("Compressions", "gz:9 xz").build(),
+                    new InMemoryStorage()
+                ).compressions()
+            ).getMessage(),
+            new IsEqual<>("Illegal config: `gz` compression level can not be configured")
+        );
+    }
+
+    @Test
+    void returnsByHashRetention() {
+        MatcherAssert.assertThat(
+            new Config.FromYaml(
+                "deb",
+                Yaml.createYamlMappingBuilder().add("ByHashRetention", "PT6H").build(),
+                new InMemoryStorage()
+            ).byHashRetention(),
+            new IsEqual<>(Duration.ofHours(6))
+        );
+    }
+
+    @Test
+    void returnsPdiffsHistorySize() {
+        MatcherAssert.assertThat(
+            new Config.FromYaml(
+                "deb",
+                Yaml.createYamlMappingBuilder().add("PDiffs", "14").build(),
+                new InMemoryStorage()
+            ).pdiffs(),
+            // @checkstyle MagicNumberCheck (1 line)
+            new IsEqual<>(14)
+        );
+    }
+
+    @Test
+    void keepsByHashFilesForOneDayByDefault() {
+        MatcherAssert.assertThat(
+            new Config.FromYaml(
+                "deb", Yaml.createYamlMappingBuilder().build(), new InMemoryStorage()
+            ).byHashRetention(),
+            new IsEqual<>(Duration.ofDays(1))
+        );
+    }
+
 }
@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.debian.metadata.Compression;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Config} default methods.
+ * @since 0.9
+ */
+class ConfigTest {
+
+    @Test
+    void keepsByHashItemsForOneDayByDefault() {
+        MatcherAssert.assertThat(
+            new Minimal().byHashRetention(),
+            new IsEqual<>(Duration.ofDays(1))
+        );
+    }
+
+    @Test
+    void hasSameByHashRetentionAsYamlConfigByDefault() {
+        MatcherAssert.assertThat(
+            new Minimal().byHashRetention(),
+            new IsEqual<>(
+                new Config.FromYaml(
+                    "my-deb", Optional.of(Yaml.createYamlMappingBuilder().build()),
+                    new InMemoryStorage()
+                ).byHashRetention()
+            )
+        );
+    }
+
+    @Test
+    void generatesGzipIndexOnlyByDefault() {
+        MatcherAssert.assertThat(
+            new Minimal().compressions().keySet(),
+            new IsEqual<>(Collections.singleton(Compression.GZ))
+        );
+    }
+
+    @Test
+    void disablesDiffsByDefault() {
+        MatcherAssert.assertThat(
+            new Minimal().pdiffs(),
+            new IsEqual<>(0)
+        );
+    }
+
+    /**
+     * Config which implements only the required methods.
+     * @since 0.9
+     */
+    private static final class Minimal implements Config {
+
+        @Override
+        public String codename() {
+            return "my-deb";
+        }
+
+        @Override
+        public Collection<String> components() {
+            return Collections.singletonList("main");
+        }
+
+        @Override
+        public Collection<String> archs() {
+            return Collections.singletonList("amd64");
+        }
+
+        @Override
+        public Optional<GpgConfig> gpg() {
+            return Optional.empty();
+        }
+    }
+}
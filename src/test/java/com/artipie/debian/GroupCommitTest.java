@@ -0,0 +1,240 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.debian.misc.StripedLocks;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.hamcrest.core.IsNot;
+import org.hamcrest.core.StringContains;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link GroupCommit}.
+ * @since 0.9
+ */
+class GroupCommitTest {
+
+    /**
+     * Packages index key.
+     */
+    private static final Key INDEX = new Key.From("dists/my_repo/main/binary-amd64/Packages.gz");
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    /**
+     * Repository config.
+     */
+    private Config config;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+        this.asto.save(new Key.From("dists/my_repo/Release"), Content.EMPTY).join();
+        this.config = new Config.FromYaml(
+            "my_repo",
+            Yaml.createYamlMappingBuilder().add("Architectures", "amd64")
+                .add("Components", "main").build(),
+            new InMemoryStorage()
+        );
+    }
+
+    @Test
+    void commitsConcurrentlySubmittedItems() {
+        final StripedLocks locks = new StripedLocks(1);
+        final CompletableFuture<Void> blocker = new CompletableFuture<>();
+        locks.run(GroupCommitTest.INDEX, () -> blocker);
+        final GroupCommit commit = new GroupCommit(this.asto, this.config, locks);
+        final List<CompletableFuture<Void>> done = IntStream.range(0, 5).mapToObj(
+            num -> commit.submit(
+                GroupCommitTest.item(num), Collections.singletonList(GroupCommitTest.INDEX)
+            ).toCompletableFuture()
+        ).collect(Collectors.toList());
+        MatcherAssert.assertThat(
+            "Items are not committed while index is locked",
+            done.stream().anyMatch(CompletableFuture::isDone),
+            new IsEqual<>(false)
+        );
+        blocker.complete(null);
+        CompletableFuture.allOf(done.toArray(new CompletableFuture[0])).join();
+        MatcherAssert.assertThat(
+            "All items are added to the index",
+            new AstoGzArchive(this.asto).unpack(GroupCommitTest.INDEX),
+            new IsEqual<>(
+                IntStream.range(0, 5).mapToObj(GroupCommitTest::item)
+                    .collect(Collectors.joining("\n\n"))
+            )
+        );
+        MatcherAssert.assertThat(
+            "InRelease is generated",
+            this.asto.exists(new Key.From("dists/my_repo/InRelease")).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void keepsLastSubmittedDuplicateInBatch() {
+        final StripedLocks locks = new StripedLocks(1);
+        final CompletableFuture<Void> blocker = new CompletableFuture<>();
+        locks.run(GroupCommitTest.INDEX, () -> blocker);
+        final GroupCommit commit = new GroupCommit(this.asto, this.config, locks, 10);
+        final String first = GroupCommitTest.item(1).concat("\nDescription: first");
+        final String second = GroupCommitTest.item(1).concat("\nDescription: second");
+        final CompletableFuture<Void> one = commit.submit(
+            first, Collections.singletonList(GroupCommitTest.INDEX)
+        ).toCompletableFuture();
+        final CompletableFuture<Void> two = commit.submit(
+            second, Collections.singletonList(GroupCommitTest.INDEX)
+        ).toCompletableFuture();
+        final CompletableFuture<Void> three = commit.submit(
+            second, Collections.singletonList(GroupCommitTest.INDEX)
+        ).toCompletableFuture();
+        blocker.complete(null);
+        CompletableFuture.allOf(two, three).join();
+        MatcherAssert.assertThat(
+            "Replaced item referring to the same file fails as partial failure",
+            Assertions.assertThrows(CompletionException.class, one::join).getCause(),
+            new IsInstanceOf(GroupCommit.PartialFailure.class)
+        );
+        MatcherAssert.assertThat(
+            "Last submitted item is kept",
+            new AstoGzArchive(this.asto).unpack(GroupCommitTest.INDEX),
+            new IsEqual<>(second)
+        );
+    }
+
+    @Test
+    void failsSupersededItemOfOtherFile() {
+        final StripedLocks locks = new StripedLocks(1);
+        final CompletableFuture<Void> blocker = new CompletableFuture<>();
+        locks.run(GroupCommitTest.INDEX, () -> blocker);
+        final GroupCommit commit = new GroupCommit(this.asto, this.config, locks, 10);
+        final String second = GroupCommitTest.item(1)
+            .replace("pkg-1_1.0_amd64.deb", "other/pkg-1_1.0_amd64.deb");
+        final CompletableFuture<Void> one = commit.submit(
+            GroupCommitTest.item(1), Collections.singletonList(GroupCommitTest.INDEX)
+        ).toCompletableFuture();
+        final CompletableFuture<Void> two = commit.submit(
+            second, Collections.singletonList(GroupCommitTest.INDEX)
+        ).toCompletableFuture();
+        blocker.complete(null);
+        two.join();
+        MatcherAssert.assertThat(
+            "Replaced item fails as superseded",
+            Assertions.assertThrows(CompletionException.class, one::join).getCause(),
+            new IsInstanceOf(GroupCommit.Superseded.class)
+        );
+        MatcherAssert.assertThat(
+            "Last submitted item is kept",
+            new AstoGzArchive(this.asto).unpack(GroupCommitTest.INDEX),
+            new IsEqual<>(second)
+        );
+    }
+
+    @Test
+    void updatesReleaseOnceForAllIndexesOfBatch() {
+        final StripedLocks locks = new StripedLocks(1);
+        final CompletableFuture<Void> blocker = new CompletableFuture<>();
+        locks.run(GroupCommitTest.INDEX, () -> blocker);
+        final Key other = new Key.From("dists/my_repo/main/binary-i386/Packages.gz");
+        final GroupCommit commit = new GroupCommit(this.asto, this.config, locks);
+        final CompletableFuture<Void> one = commit.submit(
+            GroupCommitTest.item(1), Collections.singletonList(GroupCommitTest.INDEX)
+        ).toCompletableFuture();
+        final CompletableFuture<Void> two = commit.submit(
+            GroupCommitTest.item(2), Arrays.asList(GroupCommitTest.INDEX, other)
+        ).toCompletableFuture();
+        blocker.complete(null);
+        CompletableFuture.allOf(one, two).join();
+        MatcherAssert.assertThat(
+            new PublisherAs(this.asto.value(new Key.From("dists/my_repo/Release")).join())
+                .asciiString().toCompletableFuture().join(),
+            Matchers.allOf(
+                new StringContains("main/binary-amd64/Packages.gz"),
+                new StringContains("main/binary-i386/Packages.gz")
+            )
+        );
+    }
+
+    @Test
+    void failsOnlyItemsOfFailedIndex() {
+        final Key other = new Key.From("dists/my_repo/main/binary-i386/Packages.gz");
+        final StripedLocks locks = new StripedLocks(1);
+        final CompletableFuture<Void> blocker = new CompletableFuture<>();
+        locks.run(GroupCommitTest.INDEX, () -> blocker);
+        final GroupCommit commit = new GroupCommit(
+            new Storage.Wrap(this.asto) {
+                @Override
+                public CompletableFuture<Boolean> exists(final Key key) {
+                    final CompletableFuture<Boolean> res;
+                    if (key.equals(other)) {
+                        res = new CompletableFuture<>();
+                        res.completeExceptionally(new IllegalStateException("Failed"));
+                    } else {
+                        res = super.exists(key);
+                    }
+                    return res;
+                }
+            },
+            this.config, locks
+        );
+        final CompletableFuture<Void> one = commit.submit(
+            GroupCommitTest.item(1), Collections.singletonList(GroupCommitTest.INDEX)
+        ).toCompletableFuture();
+        final CompletableFuture<Void> two = commit.submit(
+            GroupCommitTest.item(2), Arrays.asList(GroupCommitTest.INDEX, other)
+        ).toCompletableFuture();
+        final CompletableFuture<Void> three = commit.submit(
+            GroupCommitTest.item(3), Collections.singletonList(other)
+        ).toCompletableFuture();
+        blocker.complete(null);
+        one.join();
+        MatcherAssert.assertThat(
+            "Item written to some of its indexes fails as partial failure",
+            Assertions.assertThrows(CompletionException.class, two::join).getCause(),
+            new IsInstanceOf(GroupCommit.PartialFailure.class)
+        );
+        MatcherAssert.assertThat(
+            "Item not written to any index fails with the index error",
+            Assertions.assertThrows(CompletionException.class, three::join).getCause(),
+            new IsNot<>(new IsInstanceOf(GroupCommit.PartialFailure.class))
+        );
+        MatcherAssert.assertThat(
+            "Items are added to the updated index",
+            new AstoGzArchive(this.asto).unpack(GroupCommitTest.INDEX),
+            new IsEqual<>(String.join("\n\n", GroupCommitTest.item(1), GroupCommitTest.item(2)))
+        );
+    }
+
+    private static String item(final int num) {
+        return String.join(
+            "\n",
+            String.format("Package: pkg-%d", num),
+            "Version: 1.0",
+            "Architecture: amd64",
+            String.format("Filename: pool/main/pkg-%d_1.0_amd64.deb", num)
+        );
+    }
+}
@@ -37,7 +37,7 @@ public final class GzArchive {
     }
 
     /**
-     * Decompresses provided gz packed data.
+     * Decompresses provided gz packed data, all gzip members are read.
      * @param data Bytes to unpack
      * @return Unpacked data in string format
      * @checkstyle MagicNumberCheck (15 lines)
@@ -47,7 +47,7 @@ public final class GzArchive {
         final ByteArrayOutputStream out = new ByteArrayOutputStream();
         try (
             GzipCompressorInputStream gcis = new GzipCompressorInputStream(
-                new BufferedInputStream(new ByteArrayInputStream(data))
+                new BufferedInputStream(new ByteArrayInputStream(data)), true
             )
         ) {
             final byte[] buf = new byte[1024];
@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.http.headers.Header;
+import com.artipie.http.hm.RsHasHeaders;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.slice.SliceDownload;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ByHashSlice}.
+ * @since 0.9
+ */
+class ByHashSliceTest {
+
+    /**
+     * Index published by hash.
+     */
+    private static final String HASHED = String.join(
+        "/", "/dists/deb/main/binary-amd64/by-hash/SHA256",
+        "eb8cb7a51d9fe47bde0a32a310b93c01dba531c6f8d14362552f65fcc4277af8"
+    );
+
+    @Test
+    void servesIndexPublishedByHashAsImmutable() {
+        final Storage asto = new InMemoryStorage();
+        new TestResource("Packages.gz").saveTo(asto, new Key.From(ByHashSliceTest.HASHED));
+        MatcherAssert.assertThat(
+            new ByHashSlice(new SliceDownload(asto)),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasHeaders(
+                        new Header("Cache-Control", "public, max-age=31536000, immutable")
+                    )
+                ),
+                new RequestLine(RqMethod.GET, ByHashSliceTest.HASHED)
+            )
+        );
+    }
+
+    @Test
+    void servesAbsentIndexWithoutCacheControl() {
+        final Storage asto = new InMemoryStorage();
+        MatcherAssert.assertThat(
+            new ByHashSlice(new SliceDownload(asto)),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.NOT_FOUND),
+                    Matchers.not(
+                        new RsHasHeaders(
+                            new Header("Cache-Control", "public, max-age=31536000, immutable")
+                        )
+                    )
+                ),
+                new RequestLine(RqMethod.GET, ByHashSliceTest.HASHED)
+            )
+        );
+    }
+}
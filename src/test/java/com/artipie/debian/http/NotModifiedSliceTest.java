@@ -0,0 +1,175 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.debian.Config;
+import com.artipie.debian.metadata.Release;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.headers.Header;
+import com.artipie.http.hm.RsHasHeaders;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.slice.SliceDownload;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link NotModifiedSlice}.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+class NotModifiedSliceTest {
+
+    /**
+     * Entity tag of the Packages.gz test resource.
+     */
+    private static final String ETAG = String.format(
+        "\"%s\"", DigestUtils.md5Hex(new TestResource("Packages.gz").asBytes())
+    );
+
+    /**
+     * Packages index request line.
+     */
+    private static final RequestLine PACKAGES = new RequestLine(
+        RqMethod.GET, "/dists/my-repo/main/binary-amd64/Packages.gz"
+    );
+
+    /**
+     * Test slice.
+     */
+    private Slice slice;
+
+    @BeforeEach
+    void init() {
+        final Storage asto = new InMemoryStorage();
+        new TestResource("Packages.gz")
+            .saveTo(asto, new Key.From("dists/my-repo/main/binary-amd64/Packages.gz"));
+        final Config config = new Config.FromYaml(
+            "my-repo",
+            Yaml.createYamlMappingBuilder()
+                .add("Components", "main")
+                .add("Architectures", "amd64")
+                .build(),
+            new InMemoryStorage()
+        );
+        new Release.Asto(asto, config).create().toCompletableFuture().join();
+        this.slice = new NotModifiedSlice(new SliceDownload(asto), asto, config);
+    }
+
+    @Test
+    void servesIndexWithEtag() {
+        MatcherAssert.assertThat(
+            this.slice,
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasHeaders(new Header("ETag", NotModifiedSliceTest.ETAG))
+                ),
+                NotModifiedSliceTest.PACKAGES
+            )
+        );
+    }
+
+    @Test
+    void returnsNotModifiedForMatchingEtag() {
+        MatcherAssert.assertThat(
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_MODIFIED),
+                NotModifiedSliceTest.PACKAGES,
+                new Headers.From(
+                    "If-None-Match", String.format("\"abc\", %s", NotModifiedSliceTest.ETAG)
+                ),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void servesIndexForDifferentEtag() {
+        MatcherAssert.assertThat(
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                NotModifiedSliceTest.PACKAGES,
+                new Headers.From("If-None-Match", "\"abc\""),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void returnsNotModifiedForReleaseSinceLaterDate() {
+        MatcherAssert.assertThat(
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_MODIFIED),
+                new RequestLine(RqMethod.GET, "/dists/my-repo/Release"),
+                new Headers.From(
+                    "If-Modified-Since",
+                    DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusHours(1))
+                ),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void servesIndexModifiedSinceEarlierDate() {
+        MatcherAssert.assertThat(
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                NotModifiedSliceTest.PACKAGES,
+                new Headers.From(
+                    "If-Modified-Since",
+                    DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().minusDays(1))
+                ),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void passesMissingIndexToOrigin() {
+        MatcherAssert.assertThat(
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.GET, "/dists/my-repo/main/binary-amd64/Packages"),
+                new Headers.From("If-None-Match", "*"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void passesFilesOutsideOfReleaseToOrigin() {
+        MatcherAssert.assertThat(
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.GET, "/main/aglfn_1.7-3_all.deb"),
+                new Headers.From("If-None-Match", "*"),
+                Content.EMPTY
+            )
+        );
+    }
+}
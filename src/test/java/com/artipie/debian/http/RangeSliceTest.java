@@ -0,0 +1,199 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.debian.misc.Ranges;
+import com.artipie.http.Headers;
+import com.artipie.http.headers.Header;
+import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasHeaders;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.slice.SliceDownload;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link RangeSlice}.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+class RangeSliceTest {
+
+    /**
+     * Package request line.
+     */
+    private static final RequestLine DEB = new RequestLine(RqMethod.GET, "/main/aglfn.deb");
+
+    /**
+     * Package content.
+     */
+    private static final byte[] BYTES = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void servesRequestedRange() {
+        final Storage asto = RangeSliceTest.storage(new InMemoryStorage());
+        MatcherAssert.assertThat(
+            new RangeSlice(new SliceDownload(asto), asto),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.PARTIAL_CONTENT),
+                    new RsHasHeaders(new Header("Content-Range", "bytes 2-5/10")),
+                    new RsHasBody("2345".getBytes(StandardCharsets.UTF_8))
+                ),
+                RangeSliceTest.DEB,
+                new Headers.From("Range", "bytes=2-5"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void servesSuffixRangeReadingPartOfFile(@TempDir final Path tmp) {
+        final Storage asto = RangeSliceTest.storage(new FileStorage(tmp));
+        MatcherAssert.assertThat(
+            new RangeSlice(new SliceDownload(asto), asto, new Ranges.FileSystem(tmp)),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.PARTIAL_CONTENT),
+                    new RsHasHeaders(new Header("Content-Range", "bytes 7-9/10")),
+                    new RsHasBody("789".getBytes(StandardCharsets.UTF_8))
+                ),
+                RangeSliceTest.DEB,
+                new Headers.From("Range", "bytes=-3"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void servesFullItemForMultipleRanges() {
+        final Storage asto = RangeSliceTest.storage(new InMemoryStorage());
+        MatcherAssert.assertThat(
+            new RangeSlice(new SliceDownload(asto), asto),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasBody(RangeSliceTest.BYTES)
+                ),
+                RangeSliceTest.DEB,
+                new Headers.From("Range", "bytes=0-1, 5-6"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void rejectsRangeBeyondItemSize() {
+        final Storage asto = RangeSliceTest.storage(new InMemoryStorage());
+        MatcherAssert.assertThat(
+            new RangeSlice(new SliceDownload(asto), asto),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.REQUESTED_RANGE_NOT_SATISFIABLE),
+                    new RsHasHeaders(new Header("Content-Range", "bytes */10"))
+                ),
+                RangeSliceTest.DEB,
+                new Headers.From("Range", "bytes=10-"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void servesFullItemIfRangeDoesNotMatch() {
+        final Storage asto = RangeSliceTest.storage(new InMemoryStorage());
+        MatcherAssert.assertThat(
+            new RangeSlice(new SliceDownload(asto), asto),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasBody(RangeSliceTest.BYTES)
+                ),
+                RangeSliceTest.DEB,
+                new Headers.From(
+                    new Header("Range", "bytes=2-5"), new Header("If-Range", "\"abc\"")
+                ),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void servesRangeIfEntityTagMatches() {
+        final Storage asto = RangeSliceTest.storage(new InMemoryStorage());
+        MatcherAssert.assertThat(
+            new RangeSlice(new SliceDownload(asto), asto),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.PARTIAL_CONTENT),
+                    new RsHasBody("2345".getBytes(StandardCharsets.UTF_8))
+                ),
+                RangeSliceTest.DEB,
+                new Headers.From(
+                    new Header("Range", "bytes=2-5"),
+                    new Header(
+                        "If-Range",
+                        String.format("\"%s\"", DigestUtils.md5Hex(RangeSliceTest.BYTES))
+                    )
+                ),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void servesFullItemIfWeakEntityTagIsGiven() {
+        final Storage asto = RangeSliceTest.storage(new InMemoryStorage());
+        MatcherAssert.assertThat(
+            new RangeSlice(new SliceDownload(asto), asto),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                RangeSliceTest.DEB,
+                new Headers.From(
+                    new Header("Range", "bytes=2-5"),
+                    new Header(
+                        "If-Range",
+                        String.format("W/\"%s\"", DigestUtils.md5Hex(RangeSliceTest.BYTES))
+                    )
+                ),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void servesFullItemWithoutRange() {
+        final Storage asto = RangeSliceTest.storage(new InMemoryStorage());
+        MatcherAssert.assertThat(
+            new RangeSlice(new SliceDownload(asto), asto),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasBody(RangeSliceTest.BYTES)
+                ),
+                RangeSliceTest.DEB
+            )
+        );
+    }
+
+    private static Storage storage(final Storage asto) {
+        asto.save(new Key.From("main/aglfn.deb"), new Content.From(RangeSliceTest.BYTES)).join();
+        return asto;
+    }
+}
@@ -8,8 +8,9 @@ import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.memory.InMemoryStorage;
-import com.artipie.debian.metadata.InRelease;
 import com.artipie.debian.metadata.Release;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
 import com.artipie.http.hm.RsHasStatus;
 import com.artipie.http.hm.SliceHasResponse;
 import com.artipie.http.rq.RequestLine;
@@ -17,8 +18,15 @@ import com.artipie.http.rq.RqMethod;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithStatus;
 import com.artipie.http.slice.SliceSimple;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.lang3.NotImplementedException;
 import org.hamcrest.MatcherAssert;
@@ -46,14 +54,12 @@ class ReleaseSliceTest {
     @Test
     void createsReleaseFileAndForwardsResponse() {
         final FakeRelease release = new FakeRelease(new Key.From("any"));
-        final FakeInRelease inrelease = new FakeInRelease();
         MatcherAssert.assertThat(
             "Response is CREATED",
             new ReleaseSlice(
                 new SliceSimple(new RsWithStatus(RsStatus.CREATED)),
                 this.asto,
-                release,
-                inrelease
+                release
             ),
             new SliceHasResponse(
                 new RsHasStatus(RsStatus.CREATED),
@@ -65,11 +71,6 @@ class ReleaseSliceTest {
             release.count.get(),
             new IsEqual<>(1)
         );
-        MatcherAssert.assertThat(
-            "InRelease file was created",
-            inrelease.count.get(),
-            new IsEqual<>(1)
-        );
     }
 
     @Test
@@ -77,14 +78,12 @@ class ReleaseSliceTest {
         final Key key = new Key.From("dists/my-repo/Release");
         this.asto.save(key, Content.EMPTY).join();
         final FakeRelease release = new FakeRelease(key);
-        final FakeInRelease inrelease = new FakeInRelease();
         MatcherAssert.assertThat(
             "Response is OK",
             new ReleaseSlice(
                 new SliceSimple(new RsWithStatus(RsStatus.OK)),
                 this.asto,
-                release,
-                inrelease
+                release
             ),
             new SliceHasResponse(
                 new RsHasStatus(RsStatus.OK),
@@ -96,11 +95,91 @@ class ReleaseSliceTest {
             release.count.get(),
             new IsEqual<>(0)
         );
+    }
+
+    @Test
+    void remembersReleaseUntilInvalidated() {
+        final Key key = new Key.From("dists/my-repo/Release");
+        this.asto.save(key, Content.EMPTY).join();
+        final FakeRelease release = new FakeRelease(key);
+        final ReleaseState state = new ReleaseState();
+        final ReleaseSlice slice = new ReleaseSlice(
+            new SliceSimple(new RsWithStatus(RsStatus.OK)), this.asto, release, state
+        );
+        final RequestLine get = new RequestLine(RqMethod.GET, "/dists/my-repo/Release");
         MatcherAssert.assertThat(
-            "InRelease file was not created",
-            inrelease.count.get(),
+            "Response is OK",
+            slice,
+            new SliceHasResponse(new RsHasStatus(RsStatus.OK), get)
+        );
+        this.asto.delete(key).join();
+        MatcherAssert.assertThat(
+            "Response is OK for the remembered Release",
+            slice,
+            new SliceHasResponse(new RsHasStatus(RsStatus.OK), get)
+        );
+        MatcherAssert.assertThat(
+            "Release file was not created while remembered",
+            release.count.get(),
             new IsEqual<>(0)
         );
+        state.invalidate();
+        MatcherAssert.assertThat(
+            "Response is OK after invalidation",
+            slice,
+            new SliceHasResponse(new RsHasStatus(RsStatus.OK), get)
+        );
+        MatcherAssert.assertThat(
+            "Release file was created after invalidation",
+            release.count.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void createsReleaseOnceForConcurrentRequests() throws Exception {
+        final int requests = 300;
+        final CompletableFuture<Void> created = new CompletableFuture<>();
+        final FakeRelease release = new FakeRelease(new Key.From("dists/my-repo/Release"), created);
+        final ReleaseSlice slice = new ReleaseSlice(
+            new SliceSimple(new RsWithStatus(RsStatus.OK)), this.asto, release
+        );
+        final ExecutorService pool = Executors.newFixedThreadPool(32);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Response>> responses = new ArrayList<>(requests);
+        for (int num = 0; num < requests; num = num + 1) {
+            responses.add(
+                pool.submit(
+                    () -> {
+                        start.await();
+                        return slice.response(
+                            new RequestLine(RqMethod.GET, "/dists/my-repo/InRelease").toString(),
+                            Headers.EMPTY,
+                            Content.EMPTY
+                        );
+                    }
+                )
+            );
+        }
+        start.countDown();
+        final List<Response> ready = new ArrayList<>(requests);
+        for (final Future<Response> resp : responses) {
+            ready.add(resp.get());
+        }
+        pool.shutdown();
+        created.complete(null);
+        for (final Response resp : ready) {
+            MatcherAssert.assertThat(
+                "Response is OK",
+                resp,
+                new RsHasStatus(RsStatus.OK)
+            );
+        }
+        MatcherAssert.assertThat(
+            "Release file was created once",
+            release.count.get(),
+            new IsEqual<>(1)
+        );
     }
 
     /**
@@ -119,19 +198,34 @@ class ReleaseSliceTest {
          */
         private final Key rfk;
 
+        /**
+         * Creation result.
+         */
+        private final CompletableFuture<Void> result;
+
         /**
          * Ctor.
          * @param key Release file key
          */
         private FakeRelease(final Key key) {
+            this(key, CompletableFuture.allOf());
+        }
+
+        /**
+         * Ctor.
+         * @param key Release file key
+         * @param result Creation result
+         */
+        private FakeRelease(final Key key, final CompletableFuture<Void> result) {
             this.rfk = key;
+            this.result = result;
             this.count = new AtomicInteger(0);
         }
 
         @Override
         public CompletionStage<Void> create() {
             this.count.incrementAndGet();
-            return CompletableFuture.allOf();
+            return this.result;
         }
 
         @Override
@@ -139,6 +233,11 @@ class ReleaseSliceTest {
             throw new NotImplementedException("Not implemented");
         }
 
+        @Override
+        public CompletionStage<Void> update(final Collection<Key> pckgs) {
+            throw new NotImplementedException("Not implemented");
+        }
+
         @Override
         public Key key() {
             return this.rfk;
@@ -150,34 +249,4 @@ class ReleaseSliceTest {
         }
     }
 
-    /**
-     * Fake implementation of {@link InRelease}.
-     * @since 0.4
-     */
-    private static final class FakeInRelease implements InRelease {
-
-        /**
-         * Method calls count.
-         */
-        private final AtomicInteger count;
-
-        /**
-         * Ctor.
-         */
-        private FakeInRelease() {
-            this.count = new AtomicInteger(0);
-        }
-
-        @Override
-        public CompletionStage<Void> generate(final Key release) {
-            this.count.incrementAndGet();
-            return CompletableFuture.allOf();
-        }
-
-        @Override
-        public Key key() {
-            return null;
-        }
-    }
-
 }
@@ -21,9 +21,12 @@ import com.artipie.http.rq.RqMethod;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.scheduling.ArtifactEvent;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.cactoos.list.ListOf;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
@@ -162,11 +165,12 @@ class UpdateSliceTest {
     }
 
     @Test
-    void returnsBadRequestAndRemovesItem() {
+    void returnsBadRequestWithoutSavingItem() {
+        final AtomicInteger saves = new AtomicInteger();
         MatcherAssert.assertThat(
             "Response is bad request",
             new UpdateSlice(
-                this.asto,
+                new Saves(this.asto, saves),
                 new Config.FromYaml(
                     "my_repo",
                     UpdateSliceTest.SETTINGS,
@@ -186,15 +190,17 @@ class UpdateSliceTest {
             this.asto.exists(new Key.From("main/aglfn_1.7-3_all.deb")).join(),
             new IsEqual<>(false)
         );
+        MatcherAssert.assertThat("Storage was not written", saves.get(), new IsEqual<>(0));
         MatcherAssert.assertThat("Artifact event was not added to queue", this.events.isEmpty());
     }
 
     @Test
-    void returnsErrorAndRemovesItem() {
+    void returnsBadRequestOnCorruptedPackageWithoutSavingItem() {
+        final AtomicInteger saves = new AtomicInteger();
         MatcherAssert.assertThat(
-            "Response is internal error",
+            "Response is bad request",
             new UpdateSlice(
-                this.asto,
+                new Saves(this.asto, saves),
                 new Config.FromYaml(
                     "my_repo",
                     UpdateSliceTest.SETTINGS,
@@ -203,7 +209,7 @@ class UpdateSliceTest {
                 Optional.of(this.events)
             ),
             new SliceHasResponse(
-                new RsHasStatus(RsStatus.INTERNAL_ERROR),
+                new RsHasStatus(RsStatus.BAD_REQUEST),
                 new RequestLine(RqMethod.PUT, "/main/corrupted.deb"),
                 Headers.EMPTY,
                 new Content.From("abc123".getBytes())
@@ -214,7 +220,65 @@ class UpdateSliceTest {
             this.asto.exists(new Key.From("main/corrupted.deb")).join(),
             new IsEqual<>(false)
         );
+        MatcherAssert.assertThat("Storage was not written", saves.get(), new IsEqual<>(0));
         MatcherAssert.assertThat("Artifact event was not added to queue", this.events.isEmpty());
     }
 
+    @Test
+    void returnsBadRequestOnTooLargeControlWithoutSavingItem() {
+        final AtomicInteger saves = new AtomicInteger();
+        MatcherAssert.assertThat(
+            "Response is bad request",
+            new UpdateSlice(
+                new Saves(this.asto, saves),
+                new Config.FromYaml(
+                    "my_repo",
+                    UpdateSliceTest.SETTINGS,
+                    new InMemoryStorage()
+                ),
+                Optional.of(this.events)
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.BAD_REQUEST),
+                new RequestLine(RqMethod.PUT, "/main/large.deb"),
+                Headers.EMPTY,
+                new Content.From(
+                    String.format(
+                        "!<arch>\n%-16s%-12s%-6s%-6s%-8s%-10s`\n",
+                        "control.tar.gz", "0", "0", "0", "100644", "9999999999"
+                    ).getBytes(StandardCharsets.US_ASCII)
+                )
+            )
+        );
+        MatcherAssert.assertThat("Storage was not written", saves.get(), new IsEqual<>(0));
+    }
+
+    /**
+     * Storage which counts saves.
+     * @since 0.9
+     */
+    private static final class Saves extends Storage.Wrap {
+
+        /**
+         * Count of the saves.
+         */
+        private final AtomicInteger count;
+
+        /**
+         * Ctor.
+         * @param origin Origin storage
+         * @param count Count of the saves
+         */
+        Saves(final Storage origin, final AtomicInteger count) {
+            super(origin);
+            this.count = count;
+        }
+
+        @Override
+        public CompletableFuture<Void> save(final Key key, final Content content) {
+            this.count.incrementAndGet();
+            return super.save(key, content);
+        }
+    }
+
 }
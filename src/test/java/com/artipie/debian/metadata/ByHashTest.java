@@ -0,0 +1,159 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link ByHash}.
+ * @since 0.9
+ */
+class ByHashTest {
+
+    /**
+     * SHA256 checksum of the Packages.gz test resource.
+     */
+    private static final String SHA =
+        "eb8cb7a51d9fe47bde0a32a310b93c01dba531c6f8d14362552f65fcc4277af8";
+
+    @Test
+    void publishesIndexesByHash() {
+        final Storage asto = new InMemoryStorage();
+        new TestResource("Packages.gz")
+            .saveTo(asto, new Key.From("dists/deb/main/binary-amd64/Packages.gz"));
+        final Map<String, String> hexes = new HashMap<>();
+        hexes.put("main/binary-amd64/Packages.gz", ByHashTest.SHA);
+        hexes.put("main/binary-amd64/Packages", "abc123");
+        new ByHash(asto, "dists/deb/").publish(hexes).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Index is published by hash",
+            new PublisherAs(
+                asto.value(
+                    new Key.From("dists/deb/main/binary-amd64/by-hash/SHA256", ByHashTest.SHA)
+                ).join()
+            ).bytes().toCompletableFuture().join(),
+            new IsEqual<>(new TestResource("Packages.gz").asBytes())
+        );
+        MatcherAssert.assertThat(
+            "Absent index is skipped",
+            asto.list(new Key.From("dists/deb/main/binary-amd64/by-hash")).join().size(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void movesCopyUnderDigest() {
+        final Storage asto = new InMemoryStorage();
+        final Key first = new Key.From(".meta/tmp/first");
+        final Key second = new Key.From(".meta/tmp/second");
+        new TestResource("Packages.gz").saveTo(asto, first);
+        new TestResource("Packages.gz").saveTo(asto, second);
+        final ByHash hashed = new ByHash(asto, "dists/deb/");
+        hashed.publish("main/binary-amd64/Packages.gz", ByHashTest.SHA, first)
+            .toCompletableFuture().join();
+        hashed.publish("main/binary-amd64/Packages.gz", ByHashTest.SHA, second)
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Copy is published by hash",
+            new PublisherAs(
+                asto.value(
+                    new Key.From("dists/deb/main/binary-amd64/by-hash/SHA256", ByHashTest.SHA)
+                ).join()
+            ).bytes().toCompletableFuture().join(),
+            new IsEqual<>(new TestResource("Packages.gz").asBytes())
+        );
+        MatcherAssert.assertThat(
+            "Copies are removed",
+            asto.list(new Key.From(".meta/tmp")).join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void skipsIndexChangedAfterItsDigestWasListed() {
+        final Storage asto = new InMemoryStorage();
+        asto.save(
+            new Key.From("dists/deb/main/binary-amd64/Packages.gz"),
+            new Content.From("changed".getBytes(StandardCharsets.UTF_8))
+        ).join();
+        new ByHash(asto, "dists/deb/").publish(
+            Collections.singletonMap("main/binary-amd64/Packages.gz", ByHashTest.SHA)
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            asto.list(new Key.From("dists/deb/main/binary-amd64/by-hash")).join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void publishesGivenBytesByHash() {
+        final Storage asto = new InMemoryStorage();
+        final byte[] bytes = new TestResource("Packages.gz").asBytes();
+        new ByHash(asto, "dists/deb/")
+            .publish("main/binary-amd64/Packages.gz", ByHashTest.SHA, bytes)
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new PublisherAs(
+                asto.value(
+                    new Key.From("dists/deb/main/binary-amd64/by-hash/SHA256", ByHashTest.SHA)
+                ).join()
+            ).bytes().toCompletableFuture().join(),
+            new IsEqual<>(bytes)
+        );
+    }
+
+    @Test
+    void removesExpiredItemsWhichAreNotListed(@TempDir final Path tmp) throws IOException {
+        final Storage asto = new FileStorage(tmp);
+        final String dir = "dists/deb/main/binary-amd64/by-hash/SHA256";
+        final Instant old = Instant.now().minus(Duration.ofDays(2));
+        for (final String hex : new String[] {ByHashTest.SHA, "expired", "recent"}) {
+            asto.save(
+                new Key.From(dir, hex), new Content.From(hex.getBytes(StandardCharsets.UTF_8))
+            ).join();
+        }
+        Files.setLastModifiedTime(tmp.resolve(dir).resolve("expired"), FileTime.from(old));
+        Files.setLastModifiedTime(tmp.resolve(dir).resolve(ByHashTest.SHA), FileTime.from(old));
+        new ByHash(asto, "dists/deb/").collect(
+            Collections.singletonMap("main/binary-amd64/Packages.gz", ByHashTest.SHA),
+            Duration.ofDays(1)
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Listed item is kept",
+            asto.exists(new Key.From(dir, ByHashTest.SHA)).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Expired item is removed",
+            asto.exists(new Key.From(dir, "expired")).join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Item within retention period is kept",
+            asto.exists(new Key.From(dir, "recent")).join(),
+            new IsEqual<>(true)
+        );
+    }
+}
@@ -5,8 +5,11 @@
 package com.artipie.debian.metadata;
 
 import com.artipie.asto.test.TestResource;
+import java.io.ByteArrayInputStream;
+import org.apache.commons.io.input.CountingInputStream;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsNot;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -101,4 +104,15 @@ class ControlFromInputStreamTest {
         );
     }
 
+    @Test
+    void doesNotReadDataArchive() {
+        final byte[] deb = new TestResource("pspp_1.2.0-3_amd64.deb").asBytes();
+        final CountingInputStream input = new CountingInputStream(new ByteArrayInputStream(deb));
+        new Control.FromInputStream(input).asString();
+        MatcherAssert.assertThat(
+            input.getByteCount(),
+            new IsNot<>(new IsEqual<>((long) deb.length))
+        );
+    }
+
 }
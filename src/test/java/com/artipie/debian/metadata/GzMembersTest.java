@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.debian.AstoGzArchive;
+import com.artipie.debian.GzArchive;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link GzMembers}.
+ * @since 0.9
+ */
+class GzMembersTest {
+
+    /**
+     * Packages index key.
+     */
+    private static final Key KEY = new Key.From("Packages.gz");
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+    }
+
+    @Test
+    void appendsMemberKeepingExistingBytes() {
+        new TestResource(GzMembersTest.KEY.string()).saveTo(this.asto);
+        final byte[] existing = new BlockingStorage(this.asto).value(GzMembersTest.KEY);
+        final String digest = new GzMembers(this.asto, GzMembersTest.KEY)
+            .append("Package: abc", "\n\n").toCompletableFuture().join();
+        final byte[] res = new BlockingStorage(this.asto).value(GzMembersTest.KEY);
+        MatcherAssert.assertThat(
+            "Digest of the resulting index is returned",
+            digest,
+            new IsEqual<>(DigestUtils.sha256Hex(res))
+        );
+        MatcherAssert.assertThat(
+            "Existing compressed bytes are not changed",
+            Arrays.copyOf(res, existing.length),
+            new IsEqual<>(existing)
+        );
+        MatcherAssert.assertThat(
+            "New data is appended",
+            new AstoGzArchive(this.asto).unpack(GzMembersTest.KEY),
+            new IsEqual<>(
+                String.join("\n\n", new GzArchive().decompress(existing), "Package: abc")
+            )
+        );
+    }
+
+    @Test
+    void createsIndexWithoutSeparator() {
+        new GzMembers(this.asto, GzMembersTest.KEY).append("Package: xyz", "\n\n")
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new AstoGzArchive(this.asto).unpack(GzMembersTest.KEY),
+            new IsEqual<>("Package: xyz")
+        );
+    }
+
+    @Test
+    void compactsMembersIntoOne() throws IOException {
+        final GzMembers members = new GzMembers(this.asto, GzMembersTest.KEY);
+        members.append("Package: one", "").toCompletableFuture().join();
+        members.append("Package: two", "\n\n").toCompletableFuture().join();
+        members.compact().toCompletableFuture().join();
+        final byte[] res = new BlockingStorage(this.asto).value(GzMembersTest.KEY);
+        try (
+            InputStream first = new GzipCompressorInputStream(new ByteArrayInputStream(res), false)
+        ) {
+            MatcherAssert.assertThat(
+                "Index is compressed as single gzip member",
+                IOUtils.toString(first, StandardCharsets.UTF_8),
+                new IsEqual<>("Package: one\n\nPackage: two")
+            );
+        }
+        MatcherAssert.assertThat(
+            "Index content is not changed",
+            new AstoGzArchive(this.asto).unpack(GzMembersTest.KEY),
+            new IsEqual<>("Package: one\n\nPackage: two")
+        );
+    }
+}
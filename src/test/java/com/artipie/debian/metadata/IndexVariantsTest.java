@@ -0,0 +1,136 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.debian.AstoGzArchive;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link IndexVariants}.
+ * @since 0.9
+ */
+class IndexVariantsTest {
+
+    /**
+     * Packages index key.
+     */
+    private static final Key INDEX = new Key.From("dists/my-deb/main/binary-amd64/Packages.gz");
+
+    /**
+     * Packages index content.
+     */
+    private static final String CONTENT = String.join(
+        "\n",
+        "Package: aglfn",
+        "Version: 1.7-3",
+        "Architecture: all",
+        "",
+        "Package: pspp",
+        "Version: 1.2.0-3",
+        "Architecture: amd64",
+        ""
+    );
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+        new AstoGzArchive(this.asto)
+            .packAndSave(IndexVariantsTest.CONTENT, IndexVariantsTest.INDEX);
+    }
+
+    @Test
+    void generatesVariants() throws IOException {
+        final Map<Compression, Integer> variants = new EnumMap<>(Compression.class);
+        variants.put(Compression.PLAIN, 0);
+        variants.put(Compression.GZ, Compression.GZ.level());
+        variants.put(Compression.XZ, Compression.XZ.level());
+        variants.put(Compression.ZST, Compression.ZST.level());
+        new IndexVariants(this.asto, variants).generate(IndexVariantsTest.INDEX)
+            .toCompletableFuture().join();
+        final BlockingStorage bsto = new BlockingStorage(this.asto);
+        MatcherAssert.assertThat(
+            "Plain index is generated",
+            new String(
+                bsto.value(new Key.From("dists/my-deb/main/binary-amd64/Packages")),
+                StandardCharsets.UTF_8
+            ),
+            new IsEqual<>(IndexVariantsTest.CONTENT)
+        );
+        MatcherAssert.assertThat(
+            "Xz index is generated",
+            IndexVariantsTest.read(
+                new XZCompressorInputStream(
+                    new ByteArrayInputStream(
+                        bsto.value(new Key.From("dists/my-deb/main/binary-amd64/Packages.xz"))
+                    )
+                )
+            ),
+            new IsEqual<>(IndexVariantsTest.CONTENT)
+        );
+        MatcherAssert.assertThat(
+            "Zstd index is generated",
+            IndexVariantsTest.read(
+                new ZstdCompressorInputStream(
+                    new ByteArrayInputStream(
+                        bsto.value(new Key.From("dists/my-deb/main/binary-amd64/Packages.zst"))
+                    )
+                )
+            ),
+            new IsEqual<>(IndexVariantsTest.CONTENT)
+        );
+    }
+
+    @Test
+    void removesTemporaryItems() {
+        final Map<Compression, Integer> variants = new EnumMap<>(Compression.class);
+        variants.put(Compression.PLAIN, 0);
+        variants.put(Compression.XZ, Compression.XZ.level());
+        new IndexVariants(this.asto, variants).generate(IndexVariantsTest.INDEX)
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.asto.list(new Key.From(".meta")).join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void doesNothingWhenOnlyGzipIsConfigured() {
+        new IndexVariants(
+            this.asto, Collections.singletonMap(Compression.GZ, Compression.GZ.level())
+        ).generate(IndexVariantsTest.INDEX).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.asto.list(new Key.From("dists")).join().size(),
+            new IsEqual<>(1)
+        );
+    }
+
+    private static String read(final InputStream input) throws IOException {
+        try (InputStream stream = input) {
+            return IOUtils.toString(stream, StandardCharsets.UTF_8);
+        }
+    }
+}
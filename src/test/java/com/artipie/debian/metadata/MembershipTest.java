@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import java.util.Collections;
+import java.util.stream.IntStream;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Membership}.
+ * @since 0.9
+ */
+class MembershipTest {
+
+    @Test
+    void findsAddedPackages() {
+        final Membership mem = MembershipTest.membership(1000);
+        MatcherAssert.assertThat(
+            "Present package is found",
+            mem.mayContainAny(new ListOf<>(MembershipTest.pair(5), MembershipTest.pair(5000))),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Absent packages are not found",
+            mem.mayContainAny(new ListOf<>(MembershipTest.pair(1001), MembershipTest.pair(2000))),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void addsPackages() {
+        final Membership mem = MembershipTest.membership(10)
+            .with(Collections.singleton(MembershipTest.pair(11)), "def", "\n");
+        MatcherAssert.assertThat(
+            "New package is found",
+            mem.mayContainAny(Collections.singleton(MembershipTest.pair(11))),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "New stamp is set",
+            mem.actual("def"),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void readsPersisted() {
+        final Membership mem = Membership.read(MembershipTest.membership(100).bytes()).get();
+        MatcherAssert.assertThat(
+            "Packages are read",
+            mem.mayContainAny(Collections.singleton(MembershipTest.pair(42))),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Separator is read",
+            mem.separator(),
+            new IsEqual<>("\n\n")
+        );
+        MatcherAssert.assertThat(
+            "Stamp is read",
+            mem.actual("abc"),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void countsAppendedMembers() {
+        final Membership mem = Membership.read(
+            MembershipTest.membership(10)
+                .with(Collections.singleton(MembershipTest.pair(11)), "def", "\n")
+                .with(Collections.singleton(MembershipTest.pair(12)), "ghi", "\n")
+                .bytes()
+        ).get();
+        MatcherAssert.assertThat(
+            "Appended members are counted",
+            mem.members(),
+            new IsEqual<>(2)
+        );
+        final Membership compacted = mem.compacted("xyz");
+        MatcherAssert.assertThat(
+            "Compaction resets members count",
+            compacted.members(),
+            new IsEqual<>(0)
+        );
+        MatcherAssert.assertThat(
+            "Compaction keeps packages",
+            compacted.mayContainAny(Collections.singleton(MembershipTest.pair(12))),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void doesNotReadInvalidBytes() {
+        MatcherAssert.assertThat(
+            Membership.read("not a membership".getBytes()).isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    private static Membership membership(final int count) {
+        return new Membership(
+            "abc", "\n\n",
+            IntStream.range(0, count).mapToObj(MembershipTest::pair)
+                .mapToLong(Membership::fingerprint).toArray()
+        );
+    }
+
+    private static Pair<String, String> pair(final int num) {
+        return new ImmutablePair<>(String.format("package-%d", num), "1.0");
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link PackagesDiffs}.
+ * @since 0.9
+ */
+class PackagesDiffsTest {
+
+    /**
+     * Packages index path.
+     */
+    private static final String PATH = "main/binary-amd64/Packages.gz";
+
+    /**
+     * Diffs index key.
+     */
+    private static final Key INDEX =
+        new Key.From("dists/deb/main/binary-amd64/Packages.diff/Index");
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+    }
+
+    @Test
+    void addsDiffFromPreviousVersion() throws IOException {
+        final String old = "Package: a\nVersion: 1\n\n";
+        final String cur = "Package: a\nVersion: 2\n\n";
+        final String previous = this.publish(old);
+        this.publish(cur);
+        MatcherAssert.assertThat(
+            "Diffs index key is returned",
+            new PackagesDiffs(this.asto, "dists/deb/", 2)
+                .update(PackagesDiffsTest.PATH, previous, this.current())
+                .toCompletableFuture().join(),
+            new IsEqual<>(Optional.of(PackagesDiffsTest.INDEX))
+        );
+        MatcherAssert.assertThat(
+            "Diffs index lists current and previous versions",
+            new PublisherAs(this.asto.value(PackagesDiffsTest.INDEX).join()).asciiString()
+                .toCompletableFuture().join(),
+            Matchers.stringContainsInOrder(
+                String.format("SHA256-Current: %s %d", DigestUtils.sha256Hex(cur), cur.length()),
+                "SHA256-History:",
+                String.format(" %s %d ", DigestUtils.sha256Hex(old), old.length()),
+                "SHA256-Patches:",
+                String.format(" %s 16 ", DigestUtils.sha256Hex("2c\nVersion: 2\n.\n")),
+                "SHA256-Download:",
+                ".gz\n"
+            )
+        );
+    }
+
+    @Test
+    void keepsBoundedHistory() throws IOException {
+        String previous = this.publish("Package: a\nVersion: 1\n\n");
+        for (final String version : new String[] {"2", "3", "4"}) {
+            final String hex = this.publish(String.format("Package: a\nVersion: %s\n\n", version));
+            new PackagesDiffs(this.asto, "dists/deb/", 2)
+                .update(PackagesDiffsTest.PATH, previous, this.current())
+                .toCompletableFuture().join();
+            previous = hex;
+        }
+        MatcherAssert.assertThat(
+            "Two diffs and diffs index are stored",
+            this.asto.list(new Key.From("dists/deb/main/binary-amd64/Packages.diff")).join()
+                .size(),
+            new IsEqual<>(3)
+        );
+    }
+
+    @Test
+    void removesDiffsIfPreviousVersionIsUnknown() throws IOException {
+        this.asto.save(PackagesDiffsTest.INDEX, Content.EMPTY).join();
+        this.publish("Package: a\nVersion: 1\n\n");
+        MatcherAssert.assertThat(
+            "Empty result is returned",
+            new PackagesDiffs(this.asto, "dists/deb/", 2)
+                .update(PackagesDiffsTest.PATH, "abc", this.current())
+                .toCompletableFuture().join(),
+            new IsEqual<>(Optional.empty())
+        );
+        MatcherAssert.assertThat(
+            "Diffs index is removed",
+            this.asto.exists(PackagesDiffsTest.INDEX).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void keepsDiffsPublishedByHashWhenDiffsAreRemoved() throws IOException {
+        final Key hashed = new Key.From(
+            "dists/deb/main/binary-amd64/Packages.diff/by-hash/SHA256/abc"
+        );
+        this.asto.save(PackagesDiffsTest.INDEX, Content.EMPTY).join();
+        this.asto.save(hashed, Content.EMPTY).join();
+        this.publish("Package: a\nVersion: 1\n\n");
+        new PackagesDiffs(this.asto, "dists/deb/", 2)
+            .update(PackagesDiffsTest.PATH, "abc", this.current())
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Diffs index is removed",
+            this.asto.exists(PackagesDiffsTest.INDEX).join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Diffs index published by hash is kept",
+            this.asto.exists(hashed).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void removesDiffsIfCurrentVersionIsTooLarge() throws IOException {
+        final String previous = this.publish("Package: a\nVersion: 1\n\n");
+        new PackagesDiffs(this.asto, "dists/deb/", 2)
+            .update(PackagesDiffsTest.PATH, previous, this.current())
+            .toCompletableFuture().join();
+        this.publish("Package: a\nVersion: 2\n\n");
+        MatcherAssert.assertThat(
+            "Empty result is returned",
+            new PackagesDiffs(this.asto, "dists/deb/", 2)
+                .update(PackagesDiffsTest.PATH, previous, Optional.empty())
+                .toCompletableFuture().join(),
+            new IsEqual<>(Optional.empty())
+        );
+        MatcherAssert.assertThat(
+            "Diffs index is removed",
+            this.asto.exists(PackagesDiffsTest.INDEX).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void keepsBytesUpToLimit() {
+        final PackagesDiffs.Bounded small = new PackagesDiffs.Bounded(4);
+        small.write(new byte[] {1, 2, 3}, 0, 3);
+        small.write(4);
+        MatcherAssert.assertThat(
+            "Bytes within the limit are kept",
+            small.bytes().get(),
+            new IsEqual<>(new byte[] {1, 2, 3, 4})
+        );
+        small.write(5);
+        MatcherAssert.assertThat(
+            "Bytes are dropped once the limit is exceeded",
+            small.bytes().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    private Optional<byte[]> current() throws IOException {
+        final byte[] gzip = new PublisherAs(
+            this.asto.value(new Key.From("dists/deb", PackagesDiffsTest.PATH)).join()
+        ).bytes().toCompletableFuture().join();
+        try (InputStream gis = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return Optional.of(IOUtils.toByteArray(gis));
+        }
+    }
+
+    private String publish(final String text) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        final String hex = DigestUtils.sha256Hex(bytes.toByteArray());
+        this.asto.save(
+            new Key.From("dists/deb", PackagesDiffsTest.PATH), new Content.From(bytes.toByteArray())
+        ).join();
+        this.asto.save(
+            new Key.From("dists/deb/main/binary-amd64/by-hash/SHA256", hex),
+            new Content.From(bytes.toByteArray())
+        ).join();
+        return hex;
+    }
+}
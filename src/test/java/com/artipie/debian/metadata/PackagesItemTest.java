@@ -8,6 +8,7 @@ import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.Test;
@@ -58,4 +59,45 @@ class PackagesItemTest {
         );
     }
 
+    @Test
+    void formatsItemReadingPackageOnce() {
+        final Storage asto = new InMemoryStorage();
+        final Key.From key = new Key.From("my_deb/aglfn_1.7-3_amd64.deb");
+        new TestResource("aglfn_1.7-3_amd64.deb").saveTo(asto, key);
+        MatcherAssert.assertThat(
+            new PackagesItem.Asto(asto).format(key).toCompletableFuture().join(),
+            new IsEqual<>(
+                String.join(
+                    "\n",
+                    "Package: aglfn",
+                    "Version: 1.7-3",
+                    "Architecture: amd64",
+                    "Maintainer: Debian Fonts Task Force <pkg-fonts-devel@lists.alioth.debian.org>",
+                    "Installed-Size: 138",
+                    "Section: fonts",
+                    "Priority: extra",
+                    "Homepage: http://sourceforge.net/adobe/aglfn/",
+                    "Description: Adobe Glyph List For New Fonts",
+                    " AGL (Adobe Glyph List) maps glyph names to Unicode values for the",
+                    " purpose of deriving content. AGLFN (Adobe Glyph List For New Fonts) is a",
+                    " subset of AGL that excludes the glyph names associated with the PUA",
+                    " (Private Use Area), and is meant to specify preferred glyph names for",
+                    " new fonts. Also included is the ITC Zapf Dingbats Glyph List, which is",
+                    " similar to AGL in that it maps glyph names to Unicode values for the",
+                    " purpose of deriving content, but only for the glyphs in the ITC Zapf",
+                    " Dingbats font.",
+                    " .",
+                    " Be sure to visit the AGL Specification and Developer Documentation pages",
+                    " for detailed information about naming glyphs, interpreting glyph names,",
+                    " and developing OpenType fonts.",
+                    "Filename: my_deb/aglfn_1.7-3_amd64.deb",
+                    "Size: 29936",
+                    "MD5sum: eb647d864e8283cbf5b17e44a2a00b9c",
+                    "SHA1: 246ffaf3e5e06259e663d404f16764171216c538",
+                    "SHA256: 66f92b0628fb5fcbc76b9e1388f4f4d1ebf5a68835f05a03a876e08c56f46ab3"
+                )
+            )
+        );
+    }
+
 }
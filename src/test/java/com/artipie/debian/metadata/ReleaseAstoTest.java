@@ -76,10 +76,16 @@ class ReleaseAstoTest {
                         "Architectures: amd intel",
                         "Components: main",
                         "Date:",
-                        "SHA256:"
+                        "MD5Sum:",
+                        "SHA1:",
+                        "SHA256:",
+                        "SHA512:"
                     )
                 ),
-                // @checkstyle LineLengthCheck (4 lines)
+                // @checkstyle LineLengthCheck (7 lines)
+                new StringContains(" 051cb7ebb71c80a61d13d60e851ac6d3 1351 main/binary-amd64/Packages.gz\n"),
+                new StringContains(" 85779b350e35625f838f1da90579ccf28d0253da 2564 main/binary-intel/Packages\n"),
+                new StringContains(" d6701ae908a33e157ad18312a13a6b29de41e34c65cd4087b58747c054e72288d317852edf6310496f15a6b2a1ab09a4663b54023036c422bf42af5137b5d4d1 2564 main/binary-amd64/Packages\n"),
                 new StringContains(" eb8cb7a51d9fe47bde0a32a310b93c01dba531c6f8d14362552f65fcc4277af8 1351 main/binary-amd64/Packages.gz\n"),
                 new StringContains(" c1cfc96b4ca50645c57e10b65fcc89fd1b2b79eb495c9fa035613af7ff97dbff 2564 main/binary-amd64/Packages\n"),
                 new StringContains(" eb8cb7a51d9fe47bde0a32a310b93c01dba531c6f8d14362552f65fcc4277af8 1351 main/binary-intel/Packages.gz\n"),
@@ -126,6 +132,146 @@ class ReleaseAstoTest {
         );
     }
 
+    @Test
+    void listsOnlyIndexesOfTheRepository() {
+        new TestResource("Packages.gz")
+            .saveTo(this.asto, new Key.From("dists/my-deb/main/binary-amd64/Packages.gz"));
+        new TestResource("Packages.gz")
+            .saveTo(this.asto, new Key.From("dists/my-deb-old/main/binary-amd64/Packages.gz"));
+        new TestResource("Packages.gz")
+            .saveTo(this.asto, new Key.From("pool/main/Packages.gz"));
+        new Release.Asto(
+            this.asto,
+            this.config(false, "my-deb", Yaml.createYamlMappingBuilder())
+        ).create().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new PublisherAs(this.asto.value(new KeyFromPath("dists/my-deb/Release")).join())
+                .asciiString().toCompletableFuture().join(),
+            Matchers.allOf(
+                new StringContains(" main/binary-amd64/Packages.gz\n"),
+                Matchers.not(new StringContains("my-deb-old")),
+                Matchers.not(new StringContains("pool/"))
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void createsInReleaseAlongWithRelease(final boolean gpg) {
+        new TestResource("Packages.gz")
+            .saveTo(this.asto, new Key.From("dists/my-deb/main/binary-amd64/Packages.gz"));
+        new Release.Asto(
+            this.asto,
+            this.config(gpg, "my-deb", Yaml.createYamlMappingBuilder())
+        ).create().toCompletableFuture().join();
+        final String release = new PublisherAs(
+            this.asto.value(new KeyFromPath("dists/my-deb/Release")).join()
+        ).asciiString().toCompletableFuture().join();
+        final String inrelease = new PublisherAs(
+            this.asto.value(new KeyFromPath("dists/my-deb/InRelease")).join()
+        ).asciiString().toCompletableFuture().join();
+        if (gpg) {
+            MatcherAssert.assertThat(
+                "InRelease is clearsigned Release",
+                inrelease,
+                new StringContainsInOrder(
+                    new ListOf<String>(
+                        "-----BEGIN PGP SIGNED MESSAGE-----",
+                        release,
+                        "-----BEGIN PGP SIGNATURE-----"
+                    )
+                )
+            );
+        } else {
+            MatcherAssert.assertThat(
+                "InRelease is the same as Release",
+                inrelease,
+                new IsEqual<>(release)
+            );
+        }
+    }
+
+    @Test
+    void publishesIndexesByHash() {
+        new TestResource("Packages.gz")
+            .saveTo(this.asto, new Key.From("dists/my-deb/main/binary-amd64/Packages.gz"));
+        new Release.Asto(
+            this.asto,
+            this.config(false, "my-deb", Yaml.createYamlMappingBuilder())
+        ).create().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Release index enables Acquire-By-Hash",
+            new PublisherAs(this.asto.value(new KeyFromPath("dists/my-deb/Release")).join())
+                .asciiString().toCompletableFuture().join(),
+            new StringContains("\nAcquire-By-Hash: yes\n")
+        );
+        MatcherAssert.assertThat(
+            "Packages index is published by hash",
+            this.asto.exists(
+                new Key.From(
+                    "dists/my-deb/main/binary-amd64/by-hash/SHA256",
+                    "eb8cb7a51d9fe47bde0a32a310b93c01dba531c6f8d14362552f65fcc4277af8"
+                )
+            ).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Temporary copies are removed",
+            this.asto.list(new Key.From(".meta")).join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void listsPackagesDiffsIndex() {
+        final Key key = new Key.From("dists/my-deb/main/binary-amd64/Packages.gz");
+        final AstoGzArchive gzip = new AstoGzArchive(this.asto);
+        gzip.packAndSave("Package: a\nVersion: 1", key);
+        final Release release = new Release.Asto(
+            this.asto,
+            this.config(false, "my-deb", Yaml.createYamlMappingBuilder().add("PDiffs", "2"))
+        );
+        release.create().toCompletableFuture().join();
+        gzip.packAndSave("Package: b\nVersion: 1\n\nPackage: a\nVersion: 1", key);
+        release.update(key).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new PublisherAs(this.asto.value(release.key()).join())
+                .asciiString().toCompletableFuture().join(),
+            new StringContains(" main/binary-amd64/Packages.diff/Index\n")
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void doesNotRewriteUnchangedRelease(final boolean gpg) {
+        new TestResource("Packages.gz")
+            .saveTo(this.asto, new Key.From("dists/deb/main/binary-amd64/Packages.gz"));
+        final Release release = new Release.Asto(
+            this.asto, this.config(gpg, "deb", Yaml.createYamlMappingBuilder())
+        );
+        release.create().toCompletableFuture().join();
+        final byte[] first = new PublisherAs(this.asto.value(release.key()).join())
+            .bytes().toCompletableFuture().join();
+        final Key inrelease = new Key.From("dists/deb/InRelease");
+        final byte[] marker = "not rewritten".getBytes(StandardCharsets.UTF_8);
+        this.asto.save(inrelease, new Content.From(marker)).join();
+        release.create().toCompletableFuture().join();
+        release.update(new Key.From("dists/deb/main/binary-amd64/Packages.gz"))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Release is not changed",
+            new PublisherAs(this.asto.value(release.key()).join())
+                .bytes().toCompletableFuture().join(),
+            new IsEqual<>(first)
+        );
+        MatcherAssert.assertThat(
+            "InRelease is not written",
+            new PublisherAs(this.asto.value(inrelease).join())
+                .bytes().toCompletableFuture().join(),
+            new IsEqual<>(marker)
+        );
+    }
+
     @ParameterizedTest
     @ValueSource(booleans = {true, false})
     void addsNewRecord(final boolean gpg) throws IOException {
@@ -195,14 +341,25 @@ class ReleaseAstoTest {
             this.asto,
             this.config(gpg, "my-repo", Yaml.createYamlMappingBuilder())
         ).update(key).toCompletableFuture().join();
-        // @checkstyle LineLengthCheck (3 lines)
+        // @checkstyle LineLengthCheck (12 lines)
         // @checkstyle MagicNumberCheck (1 line)
         content.set(5, " eca44f5be15c27f009b837cf98df6a359304e868f024cfaff7f139baa6768d16 23 main/binary-intel/Packages.gz");
-        content.add(" 3608bca1e44ea6c4d268eb6db02260269892c0b42b86bbf1e77a6fa16c3c9282 3 main/binary-intel/Packages\n");
+        content.add(" 3608bca1e44ea6c4d268eb6db02260269892c0b42b86bbf1e77a6fa16c3c9282 3 main/binary-intel/Packages");
+        content.add("MD5Sum:");
+        content.add(" 7bb31fb99fa6afd7d730e3ef2fee7e7f 23 main/binary-intel/Packages.gz");
+        content.add(" d16fb36f0911f878998c136191af705e 3 main/binary-intel/Packages");
+        content.add("SHA1:");
+        content.add(" b69aa083f992b76bcb24cb57f41f4dbf1f6769bf 23 main/binary-intel/Packages.gz");
+        content.add(" 66b27417d37e024c46526c2f6d358a754fc552f3 3 main/binary-intel/Packages");
+        content.add("SHA512:");
+        content.add(" 0a7bea5b1094ba0c433dd06f0578b68c66e9641820871b567a69730bf2a77298cac377ed8845d365f98a320b333b4e41ae60839800f9cad6c2ab2eb6ff1a3640 23 main/binary-intel/Packages.gz");
+        content.add(" 4a3ed8147e37876adc8f76328e5abcc1b470e6acfc18efea0135f983604953a58e183c1a6086e91ba3e821d926f5fdeb37761c7ca0328a963f5e92870675b728 3 main/binary-intel/Packages\n");
+        content.add(content.indexOf("SHA256:"), "Acquire-By-Hash: yes");
         MatcherAssert.assertThat(
             "Release file was updated",
             new PublisherAs(this.asto.value(new KeyFromPath("dists/my-repo/Release")).join())
-                .asciiString().toCompletableFuture().join(),
+                .asciiString().toCompletableFuture().join()
+                .replaceFirst("Date: [^\n]+", "Date:"),
             new IsEqual<>(String.join("\n", content))
         );
         MatcherAssert.assertThat(
@@ -237,14 +394,25 @@ class ReleaseAstoTest {
             this.asto,
             this.config(gpg, "deb-test", Yaml.createYamlMappingBuilder())
         ).update(key).toCompletableFuture().join();
-        // @checkstyle LineLengthCheck (3 lines)
+        // @checkstyle LineLengthCheck (12 lines)
         // @checkstyle MagicNumberCheck (1 line)
         content.set(6, " 4a82f377b30e07bc43f712d4e5ac4783b9e53de23980753e121618357be09c3c 23 main/binary-intel/Packages.gz");
-        content.add(" 35e1d1aeed3f7179b02a0dfde8f4e826e191649ee2acfd6da6b2ce7a12aa0f8b 3 main/binary-intel/Packages\n");
+        content.add(" 35e1d1aeed3f7179b02a0dfde8f4e826e191649ee2acfd6da6b2ce7a12aa0f8b 3 main/binary-intel/Packages");
+        content.add("MD5Sum:");
+        content.add(" f86741442e6e11cfcc7dfbb5917d0af9 23 main/binary-intel/Packages.gz");
+        content.add(" 92daa86ad43a42f28f4bf58e94667c95 3 main/binary-intel/Packages");
+        content.add("SHA1:");
+        content.add(" 77daa866827711f0984eb553b5ff0becdf4f3b83 23 main/binary-intel/Packages.gz");
+        content.add(" 9f8e8ed4a01ed7432b9394d627922ae3bb0a4fbe 3 main/binary-intel/Packages");
+        content.add("SHA512:");
+        content.add(" 20f8f05266f9ef479ef50a106ef8875e04fdaefe35fe51554cded61cf08dbdb89992780ede37d577e566606d22f8abbc673b3d39bcb6399b9136773ec7fbcf16 23 main/binary-intel/Packages.gz");
+        content.add(" 7acd7a439ac593f76fdf6a3eb927953253b195ec50a3df3445f9148faeeea99f0039f1d5af0ddfac68e4abc85922147acca22833d8db2198f4d02a2284a2d5cf 3 main/binary-intel/Packages\n");
+        content.add(content.indexOf("SHA256:"), "Acquire-By-Hash: yes");
         MatcherAssert.assertThat(
             "Release file updated",
             new PublisherAs(this.asto.value(new KeyFromPath("dists/deb-test/Release")).join())
-                .asciiString().toCompletableFuture().join(),
+                .asciiString().toCompletableFuture().join()
+                .replaceFirst("Date: [^\n]+", "Date:"),
             new IsEqual<>(String.join("\n", content))
         );
         MatcherAssert.assertThat(
@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ReleaseIndex}.
+ * @since 0.9
+ */
+class ReleaseIndexTest {
+
+    @Test
+    void parsesAndSerializes() {
+        final String text = String.join(
+            "\n",
+            "Codename: my-repo",
+            "Architectures: amd64",
+            "Description: Some repo",
+            " with long description",
+            "Date:",
+            "MD5Sum:",
+            " 098xyz 1 main/binary-amd64/Packages.gz",
+            "SHA256:",
+            " abc123 4 main/binary-amd64/Packages.gz",
+            " def456 5 main/binary-amd64/Packages",
+            ""
+        );
+        MatcherAssert.assertThat(
+            ReleaseIndex.parse(text).asString(),
+            new IsEqual<>(text)
+        );
+    }
+
+    @Test
+    void replacesEntriesInPlaceAndAppendsNewOnes() {
+        MatcherAssert.assertThat(
+            ReleaseIndex.parse(
+                String.join(
+                    "\n",
+                    "Codename: my-repo",
+                    "SHA256:",
+                    "  abc123 4 main/binary-amd64/Packages.gz",
+                    " def456 5 main/binary-intel/Packages.gz"
+                )
+            ).checksum("SHA256", "main/binary-amd64/Packages.gz", "098xyz", 7)
+                .checksum("SHA256", "main/binary-amd64/Packages", "012qwe", 9)
+                .field("Codename", "other")
+                .asString(),
+            new IsEqual<>(
+                String.join(
+                    "\n",
+                    "Codename: other",
+                    "SHA256:",
+                    " 098xyz 7 main/binary-amd64/Packages.gz",
+                    " def456 5 main/binary-intel/Packages.gz",
+                    " 012qwe 9 main/binary-amd64/Packages",
+                    ""
+                )
+            )
+        );
+    }
+
+    @Test
+    void serializesEmptySection() {
+        MatcherAssert.assertThat(
+            new ReleaseIndex().field("Codename", "deb").field("Date", "")
+                .section("SHA256").asString(),
+            new IsEqual<>("Codename: deb\nDate:\nSHA256:\n")
+        );
+    }
+}
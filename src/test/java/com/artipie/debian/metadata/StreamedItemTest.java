@@ -0,0 +1,159 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import io.reactivex.Flowable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link StreamedItem}.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class StreamedItemTest {
+
+    /**
+     * Ar archive magic length.
+     */
+    private static final int MAGIC = 8;
+
+    /**
+     * Ar member header length.
+     */
+    private static final int HEADER = 60;
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {
+            "aglfn_1.7-3_all.deb", "pspp_1.2.0-3_amd64.deb", "libobus-ocaml_1.2.3-1+b3_amd64.deb"
+        }
+    )
+    void formatsItemWhileContentIsSaved(final String name) {
+        final Storage asto = new InMemoryStorage();
+        final byte[] deb = new TestResource(name).asBytes();
+        final Key key = new Key.From("main", name);
+        final StreamedItem streamed = new StreamedItem(key.string());
+        asto.save(key, new Content.From(streamed.content(StreamedItemTest.chunks(deb, 100))))
+            .join();
+        MatcherAssert.assertThat(
+            "Package is saved as is",
+            new PublisherAs(asto.value(key).join()).bytes().toCompletableFuture().join(),
+            new IsEqual<>(deb)
+        );
+        MatcherAssert.assertThat(
+            "Item is the same as the one read from storage",
+            streamed.item(),
+            new IsEqual<>(
+                new PackagesItem.Asto(asto).format(key).toCompletableFuture().join()
+            )
+        );
+        MatcherAssert.assertThat(
+            "Size is calculated",
+            streamed.size(),
+            new IsEqual<>((long) deb.length)
+        );
+    }
+
+    @Test
+    void failsOnNotDebianPackage() {
+        final StreamedItem streamed = new StreamedItem("some/package.deb");
+        Flowable.fromPublisher(
+            streamed.content(StreamedItemTest.chunks(new byte[100_000], 4096))
+        ).blockingSubscribe();
+        Assertions.assertThrows(IllegalStateException.class, streamed::item);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"999999999", "-60", "abc"})
+    void rejectsMalformedOrTooLargeControlMember(final String size) {
+        final byte[] head = String.join(
+            "",
+            "!<arch>\n",
+            StreamedItemTest.header("debian-binary", "4"),
+            "2.0\n",
+            StreamedItemTest.header("control.tar.gz", size)
+        ).getBytes(StandardCharsets.US_ASCII);
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new StreamedItem("some/package.deb").head(ByteBuffer.wrap(head))
+        );
+    }
+
+    @Test
+    void readsControlPlacedAfterLargeMember() {
+        final byte[] deb = new TestResource("aglfn_1.7-3_all.deb").asBytes();
+        final int rest = StreamedItemTest.MAGIC + StreamedItemTest.HEADER + 4;
+        final ByteArrayOutputStream large = new ByteArrayOutputStream();
+        large.write(deb, 0, rest);
+        final byte[] extra = StreamedItemTest.header("extra", "100001")
+            .getBytes(StandardCharsets.US_ASCII);
+        large.write(extra, 0, extra.length);
+        large.write(new byte[100_002], 0, 100_002);
+        large.write(deb, rest, deb.length - rest);
+        final StreamedItem streamed = new StreamedItem("some/package.deb");
+        Flowable.fromPublisher(
+            streamed.content(StreamedItemTest.chunks(large.toByteArray(), 4096))
+        ).blockingSubscribe();
+        MatcherAssert.assertThat(
+            streamed.control(),
+            new IsEqual<>(
+                new Control.FromInputStream(new ByteArrayInputStream(deb)).asString()
+            )
+        );
+    }
+
+    @Test
+    void stopsOnceControlIsRead() {
+        final byte[] deb = new TestResource("aglfn_1.7-3_all.deb").asBytes();
+        final StreamedItem streamed = new StreamedItem("some/package.deb");
+        boolean more = true;
+        int pos = 0;
+        while (more) {
+            more = streamed.head(ByteBuffer.wrap(deb, pos, 1));
+            pos = pos + 1;
+        }
+        MatcherAssert.assertThat(
+            "Package is not read to the end",
+            pos < deb.length,
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Control is read",
+            streamed.control(),
+            new IsEqual<>(
+                new Control.FromInputStream(new ByteArrayInputStream(deb)).asString()
+            )
+        );
+    }
+
+    private static String header(final String name, final String size) {
+        return String.format("%-16s%-12s%-6s%-6s%-8s%-10s`\n", name, "0", "0", "0", "100644", size);
+    }
+
+    private static Flowable<ByteBuffer> chunks(final byte[] bytes, final int size) {
+        final List<ByteBuffer> res = new ArrayList<>(bytes.length / size + 1);
+        for (int pos = 0; pos < bytes.length; pos = pos + size) {
+            res.add(ByteBuffer.wrap(bytes, pos, Math.min(size, bytes.length - pos)));
+        }
+        return Flowable.fromIterable(res);
+    }
+}
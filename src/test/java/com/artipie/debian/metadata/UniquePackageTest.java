@@ -7,18 +7,43 @@ package com.artipie.debian.metadata;
 import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.fs.FileStorage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.TestResource;
 import com.artipie.debian.AstoGzArchive;
+import io.reactivex.Flowable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
 import org.cactoos.list.ListOf;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Test for {@link UniquePackage}.
@@ -298,6 +323,225 @@ class UniquePackageTest {
         this.verifyThatTempDirIsCleanedUp();
     }
 
+    @Test
+    void streamsNewItemsAndReplacesDuplicates() throws IOException {
+        final Key old = new Key.From("abc/old/package.deb");
+        this.asto.save(old, Content.EMPTY).join();
+        new AstoGzArchive(this.asto).packAndSave(
+            String.join("\n\n", this.abcPackageInfo(old.string()), this.xyzPackageInfo()),
+            UniquePackageTest.KEY
+        );
+        new UniquePackage(this.asto).add(
+            Flowable.just(this.zeroPackageInfo(), String.format("%s\n", this.abcPackageInfo())),
+            UniquePackageTest.KEY
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Packages index has info about 3 packages",
+            new AstoGzArchive(this.asto).unpack(UniquePackageTest.KEY),
+            new IsEqual<>(
+                String.join(
+                    "\n\n", this.xyzPackageInfo(), this.zeroPackageInfo(), this.abcPackageInfo(), ""
+                )
+            )
+        );
+        this.verifyOldPackageWasRemoved(old);
+    }
+
+    @Test
+    void streamsItemsIntoNewIndex() {
+        new UniquePackage(this.asto).add(
+            Flowable.just(this.abcPackageInfo(), this.xyzPackageInfo()),
+            UniquePackageTest.KEY
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new AstoGzArchive(this.asto).unpack(UniquePackageTest.KEY),
+            new IsEqual<>(
+                String.join("\n\n", this.abcPackageInfo(), this.xyzPackageInfo(), "")
+            )
+        );
+    }
+
+    @Test
+    void keepsIndexWhenItemFails() {
+        final String existing = this.xyzPackageInfo();
+        new AstoGzArchive(this.asto).packAndSave(existing, UniquePackageTest.KEY);
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> new UniquePackage(this.asto).add(
+                Flowable.concat(
+                    Flowable.just(this.abcPackageInfo()),
+                    Flowable.error(new IllegalStateException("Failed to read package"))
+                ),
+                UniquePackageTest.KEY
+            ).toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            "Packages index is not changed",
+            new AstoGzArchive(this.asto).unpack(UniquePackageTest.KEY),
+            new IsEqual<>(existing)
+        );
+        MatcherAssert.assertThat(
+            "Temporary items are removed",
+            this.asto.list(Key.ROOT).join().stream().map(Key::string)
+                .collect(Collectors.toList()),
+            new IsEqual<>(Collections.singletonList(UniquePackageTest.KEY.string()))
+        );
+    }
+
+    @Test
+    void appendsWithoutRecompressingExistingIndex() {
+        new AstoGzArchive(this.asto).packAndSave(
+            this.xyzPackageInfo().concat("\n"), UniquePackageTest.KEY
+        );
+        final byte[] existing = new BlockingStorage(this.asto).value(UniquePackageTest.KEY);
+        new UniquePackage(this.asto)
+            .add(new ListOf<>(this.abcPackageInfo()), UniquePackageTest.KEY)
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Existing compressed bytes are kept",
+            Arrays.copyOf(
+                new BlockingStorage(this.asto).value(UniquePackageTest.KEY), existing.length
+            ),
+            new IsEqual<>(existing)
+        );
+        MatcherAssert.assertThat(
+            "Packages index has info about 2 packages",
+            new AstoGzArchive(this.asto).unpack(UniquePackageTest.KEY),
+            new IsEqual<>(String.join("\n\n", this.xyzPackageInfo(), this.abcPackageInfo()))
+        );
+    }
+
+    @Test
+    void rebuildsStaleMembership() {
+        final Key old = new Key.From("abc/stale/package.deb");
+        this.asto.save(old, Content.EMPTY).join();
+        new AstoGzArchive(this.asto).packAndSave(this.xyzPackageInfo(), UniquePackageTest.KEY);
+        new UniquePackage(this.asto)
+            .add(new ListOf<>(this.zeroPackageInfo()), UniquePackageTest.KEY)
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Membership is stored outside of the published tree",
+            this.asto.exists(new Key.From(".meta/members/Packages.gz")).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Membership is not stored next to the index",
+            this.asto.exists(new Key.From("Packages.gz.members")).join(),
+            new IsEqual<>(false)
+        );
+        new AstoGzArchive(this.asto).packAndSave(
+            this.abcPackageInfo(old.string()), UniquePackageTest.KEY
+        );
+        new UniquePackage(this.asto)
+            .add(new ListOf<>(this.abcPackageInfo()), UniquePackageTest.KEY)
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Duplicate from the externally changed index is replaced",
+            new AstoGzArchive(this.asto).unpack(UniquePackageTest.KEY),
+            new IsEqual<>(this.abcPackageInfo())
+        );
+        this.verifyOldPackageWasRemoved(old);
+    }
+
+    @Test
+    void compactsIndexAfterManyAppends() throws IOException {
+        final UniquePackage pckg = new UniquePackage(this.asto);
+        final List<String> items = IntStream.range(0, 70).mapToObj(
+            num -> this.abcPackageInfo()
+                .replace("Version: 0.1", String.format("Version: 1.%d", num))
+        ).collect(Collectors.toList());
+        for (final String item : items) {
+            pckg.add(new ListOf<>(item), UniquePackageTest.KEY).toCompletableFuture().join();
+        }
+        try (
+            InputStream first = new GzipCompressorInputStream(
+                new ByteArrayInputStream(
+                    new BlockingStorage(this.asto).value(UniquePackageTest.KEY)
+                ),
+                false
+            )
+        ) {
+            MatcherAssert.assertThat(
+                "First gzip member contains all the compacted items",
+                IOUtils.toString(first, StandardCharsets.UTF_8).startsWith(
+                    String.join("\n\n", items.subList(0, 65))
+                ),
+                new IsEqual<>(true)
+            );
+        }
+        MatcherAssert.assertThat(
+            "Packages index has info about all packages",
+            new AstoGzArchive(this.asto).unpack(UniquePackageTest.KEY),
+            new IsEqual<>(String.join("\n\n", items))
+        );
+    }
+
+    @Test
+    void readsIndexOnceToAppendWhenStorageReportsModificationTime(@TempDir final Path tmp) {
+        final IndexReads reads = new IndexReads(new FileStorage(tmp), UniquePackageTest.KEY);
+        final UniquePackage pckg = new UniquePackage(reads);
+        pckg.add(new ListOf<>(this.xyzPackageInfo()), UniquePackageTest.KEY)
+            .toCompletableFuture().join();
+        pckg.add(new ListOf<>(this.abcPackageInfo()), UniquePackageTest.KEY)
+            .toCompletableFuture().join();
+        reads.count.set(0);
+        pckg.add(new ListOf<>(this.zeroPackageInfo()), UniquePackageTest.KEY)
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Index is read only to be copied before the new member",
+            reads.count.get(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Packages index has info about 3 packages",
+            new AstoGzArchive(reads).unpack(UniquePackageTest.KEY),
+            new IsEqual<>(
+                String.join(
+                    "\n\n", this.xyzPackageInfo(), this.abcPackageInfo(), this.zeroPackageInfo()
+                )
+            )
+        );
+    }
+
+    @Test
+    void stampsScannedMembershipWithIndexDigest() {
+        final GzMembers members = new GzMembers(this.asto, UniquePackageTest.KEY);
+        members.append(this.abcPackageInfo(), "").toCompletableFuture().join();
+        members.append(this.xyzPackageInfo(), "\n\n").toCompletableFuture().join();
+        final byte[] index = new BlockingStorage(this.asto).value(UniquePackageTest.KEY);
+        MatcherAssert.assertThat(
+            UniquePackage.scan(new ByteArrayInputStream(index))
+                .actual(DigestUtils.sha256Hex(index)),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void rewritesMultiMemberIndexReadThroughPipe() {
+        final Key old = new Key.From("abc/piped/package.deb");
+        this.asto.save(old, Content.EMPTY).join();
+        final List<byte[]> members = Arrays.asList(
+            UniquePackageTest.member(this.abcPackageInfo(old.string()).concat("\n\n")),
+            UniquePackageTest.member(this.xyzPackageInfo().concat("\n\n")),
+            UniquePackageTest.member(this.zeroPackageInfo().concat("\n\n"))
+        );
+        final Storage piped = new MemberChunks(this.asto, UniquePackageTest.KEY, members);
+        piped.save(UniquePackageTest.KEY, new Content.From(MemberChunks.join(members))).join();
+        new UniquePackage(piped)
+            .add(new ListOf<>(this.abcPackageInfo()), UniquePackageTest.KEY)
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Items of all the gzip members are kept",
+            new AstoGzArchive(this.asto).unpack(UniquePackageTest.KEY),
+            new IsEqual<>(
+                String.join(
+                    "\n\n", this.xyzPackageInfo(), this.zeroPackageInfo(), this.abcPackageInfo()
+                )
+            )
+        );
+        this.verifyOldPackageWasRemoved(old);
+    }
+
     private void verifyThatTempDirIsCleanedUp() throws IOException {
         final Path systemtemp = Paths.get(System.getProperty("java.io.tmpdir"));
         MatcherAssert.assertThat(
@@ -371,4 +615,121 @@ class UniquePackageTest {
         );
     }
 
+    private static byte[] member(final String data) {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (GZIPOutputStream gop = new GZIPOutputStream(res)) {
+            gop.write(data.getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        }
+        return res.toByteArray();
+    }
+
+    /**
+     * Storage which counts reads of the index.
+     * @since 0.9
+     */
+    private static final class IndexReads extends Storage.Wrap {
+
+        /**
+         * Index key.
+         */
+        private final Key index;
+
+        /**
+         * Count of the index reads.
+         */
+        private final AtomicInteger count;
+
+        /**
+         * Ctor.
+         * @param origin Origin storage
+         * @param index Index key
+         */
+        IndexReads(final Storage origin, final Key index) {
+            super(origin);
+            this.index = index;
+            this.count = new AtomicInteger();
+        }
+
+        @Override
+        public CompletableFuture<Content> value(final Key key) {
+            if (key.equals(this.index)) {
+                this.count.incrementAndGet();
+            }
+            return super.value(key);
+        }
+    }
+
+    /**
+     * Storage which serves multi-member gzip index one member per delayed chunk, so that
+     * decompressor reading it through a pipe reaches member boundary with nothing available.
+     * @since 0.9
+     */
+    private static final class MemberChunks extends Storage.Wrap {
+
+        /**
+         * Delay of each chunk in milliseconds.
+         */
+        private static final long DELAY = 50;
+
+        /**
+         * Index key.
+         */
+        private final Key index;
+
+        /**
+         * Gzip members of the index.
+         */
+        private final List<byte[]> members;
+
+        /**
+         * Ctor.
+         * @param origin Origin storage
+         * @param index Index key
+         * @param members Gzip members of the index
+         */
+        MemberChunks(final Storage origin, final Key index, final List<byte[]> members) {
+            super(origin);
+            this.index = index;
+            this.members = members;
+        }
+
+        @Override
+        public CompletableFuture<Content> value(final Key key) {
+            return super.value(key).thenCompose(
+                content -> new PublisherAs(content).bytes().toCompletableFuture()
+            ).thenApply(
+                bytes -> {
+                    final Content res;
+                    if (key.equals(this.index)
+                        && Arrays.equals(bytes, MemberChunks.join(this.members))) {
+                        res = new Content.From(
+                            Flowable.fromIterable(this.members).concatMap(
+                                member -> Flowable.just(ByteBuffer.wrap(member))
+                                    .delay(MemberChunks.DELAY, TimeUnit.MILLISECONDS)
+                            )
+                        );
+                    } else {
+                        res = new Content.From(bytes);
+                    }
+                    return res;
+                }
+            );
+        }
+
+        /**
+         * Joins gzip members.
+         * @param members Members
+         * @return Multi-member gzip bytes
+         */
+        static byte[] join(final List<byte[]> members) {
+            final ByteArrayOutputStream res = new ByteArrayOutputStream();
+            for (final byte[] member : members) {
+                res.write(member, 0, member.length);
+            }
+            return res.toByteArray();
+        }
+    }
+
 }
@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.ext.PublisherAs;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+
+/**
+ * Test for {@link ContentHead}.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class ContentHeadTest {
+
+    @Test
+    void readsBeginningOnlyAndThenWholeContent() {
+        final AtomicLong requested = new AtomicLong();
+        final AtomicInteger tested = new AtomicInteger();
+        final Publisher<ByteBuffer> content = new ContentHead(
+            ContentHeadTest.chunks("one", "two", "three", "four").doOnRequest(requested::addAndGet),
+            buf -> tested.incrementAndGet() < 2
+        ).read().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Only the beginning is requested",
+            requested.get(),
+            new IsEqual<>(2L)
+        );
+        MatcherAssert.assertThat(
+            "Whole content is emitted",
+            new PublisherAs(content).asciiString().toCompletableFuture().join(),
+            new IsEqual<>("onetwothreefour")
+        );
+        MatcherAssert.assertThat(
+            "Predicate is not tested with the rest of the content",
+            tested.get(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void completesWhenContentEndsBeforeBeginningIsRead() {
+        MatcherAssert.assertThat(
+            new PublisherAs(
+                new ContentHead(ContentHeadTest.chunks("a", "b"), buf -> true).read()
+                    .toCompletableFuture().join()
+            ).asciiString().toCompletableFuture().join(),
+            new IsEqual<>("ab")
+        );
+    }
+
+    @Test
+    void failsAndCancelsWhenPredicateFails() {
+        final AtomicInteger cancelled = new AtomicInteger();
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new ContentHead(
+                ContentHeadTest.chunks("x", "y").doOnCancel(cancelled::incrementAndGet),
+                buf -> {
+                    throw new IllegalStateException("Malformed");
+                }
+            ).read().toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            "Predicate error is returned",
+            err.getCause(),
+            new IsInstanceOf(IllegalStateException.class)
+        );
+        MatcherAssert.assertThat(
+            "Origin is cancelled",
+            cancelled.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    private static Flowable<ByteBuffer> chunks(final String... parts) {
+        return Flowable.fromArray(parts)
+            .map(part -> ByteBuffer.wrap(part.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link DistsCache}.
+ * @since 0.9
+ * @checkstyle AnonInnerLengthCheck (500 lines)
+ */
+class DistsCacheTest {
+
+    /**
+     * Release index key.
+     */
+    private static final Key RELEASE = new Key.From("dists/my-repo/Release");
+
+    /**
+     * Underlying storage.
+     */
+    private Storage origin;
+
+    @BeforeEach
+    void init() {
+        this.origin = new InMemoryStorage();
+    }
+
+    @Test
+    void servesCachedIndexAfterFirstRead() {
+        this.origin.save(DistsCacheTest.RELEASE, DistsCacheTest.content("one")).join();
+        final DistsCache cache = new DistsCache(this.origin, 100);
+        DistsCacheTest.read(cache, DistsCacheTest.RELEASE);
+        this.origin.save(DistsCacheTest.RELEASE, DistsCacheTest.content("two")).join();
+        MatcherAssert.assertThat(
+            "Index is served from the cache",
+            DistsCacheTest.read(cache, DistsCacheTest.RELEASE),
+            new IsEqual<>("one")
+        );
+        MatcherAssert.assertThat(
+            "Miss is counted",
+            cache.misses(),
+            new IsEqual<>(1L)
+        );
+        MatcherAssert.assertThat(
+            "Hit is counted",
+            cache.hits(),
+            new IsEqual<>(1L)
+        );
+    }
+
+    @Test
+    void writesSavedIndexThrough() {
+        final DistsCache cache = new DistsCache(this.origin, 100);
+        cache.save(DistsCacheTest.RELEASE, DistsCacheTest.content("new")).join();
+        MatcherAssert.assertThat(
+            "Saved index is served",
+            DistsCacheTest.read(cache, DistsCacheTest.RELEASE),
+            new IsEqual<>("new")
+        );
+        MatcherAssert.assertThat(
+            "Saved index is served from the cache",
+            cache.hits(),
+            new IsEqual<>(1L)
+        );
+    }
+
+    @Test
+    void invalidatesDeletedIndex() {
+        this.origin.save(DistsCacheTest.RELEASE, DistsCacheTest.content("old")).join();
+        final DistsCache cache = new DistsCache(this.origin, 100);
+        DistsCacheTest.read(cache, DistsCacheTest.RELEASE);
+        cache.delete(DistsCacheTest.RELEASE).join();
+        MatcherAssert.assertThat(
+            "Deleted index is not cached",
+            cache.exists(DistsCacheTest.RELEASE).join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Cache is empty",
+            cache.size(),
+            new IsEqual<>(0L)
+        );
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedIndex() {
+        final Key first = new Key.From("dists/my-repo/main/binary-amd64/Packages");
+        final Key second = new Key.From("dists/my-repo/main/binary-i386/Packages");
+        final DistsCache cache = new DistsCache(this.origin, 10);
+        cache.save(DistsCacheTest.RELEASE, DistsCacheTest.content("aaaa")).join();
+        cache.save(first, DistsCacheTest.content("bbbb")).join();
+        DistsCacheTest.read(cache, DistsCacheTest.RELEASE);
+        cache.save(second, DistsCacheTest.content("cccc")).join();
+        MatcherAssert.assertThat(
+            "Least recently used index is evicted",
+            cache.evictions(),
+            new IsEqual<>(1L)
+        );
+        DistsCacheTest.read(cache, first);
+        MatcherAssert.assertThat(
+            "Evicted index is read from the storage",
+            cache.misses(),
+            new IsEqual<>(1L)
+        );
+    }
+
+    @Test
+    void doesNotCacheIndexIfSaveFails() {
+        final DistsCache cache = new DistsCache(
+            new Storage.Wrap(this.origin) {
+                @Override
+                public CompletableFuture<Void> save(final Key key, final Content content) {
+                    return new PublisherAs(content).bytes().toCompletableFuture().thenCompose(
+                        bytes -> {
+                            final CompletableFuture<Void> res = new CompletableFuture<>();
+                            res.completeExceptionally(new IllegalStateException("Failed"));
+                            return res;
+                        }
+                    );
+                }
+            },
+            100
+        );
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> cache.save(DistsCacheTest.RELEASE, DistsCacheTest.content("new")).join()
+        );
+        MatcherAssert.assertThat(
+            cache.size(),
+            new IsEqual<>(0L)
+        );
+    }
+
+    @Test
+    void servesExistenceAndMetadataOfCachedIndex() {
+        final DistsCache cache = new DistsCache(this.origin, 100);
+        cache.save(DistsCacheTest.RELEASE, DistsCacheTest.content("abc")).join();
+        final Meta meta = cache.metadata(DistsCacheTest.RELEASE).join();
+        this.origin.delete(DistsCacheTest.RELEASE).join();
+        MatcherAssert.assertThat(
+            "Existence is served from the cache",
+            cache.exists(DistsCacheTest.RELEASE).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Metadata is served from the cache",
+            cache.metadata(DistsCacheTest.RELEASE).join(),
+            new IsEqual<>(meta)
+        );
+    }
+
+    @Test
+    void cachesIndexReadWhileOtherIndexIsSaved() {
+        final Key other = new Key.From("dists/my-repo/main/binary-amd64/Packages");
+        this.origin.save(DistsCacheTest.RELEASE, DistsCacheTest.content("one")).join();
+        final DistsCache cache = new DistsCache(this.origin, 100);
+        final Content content = cache.value(DistsCacheTest.RELEASE).join();
+        cache.save(other, DistsCacheTest.content("two")).join();
+        new PublisherAs(content).bytes().toCompletableFuture().join();
+        this.origin.save(DistsCacheTest.RELEASE, DistsCacheTest.content("three")).join();
+        MatcherAssert.assertThat(
+            DistsCacheTest.read(cache, DistsCacheTest.RELEASE),
+            new IsEqual<>("one")
+        );
+    }
+
+    @Test
+    void doesNotCacheItemsOutsideOfDists() {
+        final Key deb = new Key.From("main/aglfn_1.7-3_all.deb");
+        final DistsCache cache = new DistsCache(this.origin, 100);
+        cache.save(deb, DistsCacheTest.content("deb")).join();
+        DistsCacheTest.read(cache, deb);
+        MatcherAssert.assertThat(
+            cache.size(),
+            new IsEqual<>(0L)
+        );
+    }
+
+    @Test
+    void keepsBoundedCountOfVersions() {
+        final DistsCache cache = new DistsCache(this.origin, 100);
+        for (int num = 0; num < 2000; num = num + 1) {
+            cache.save(
+                new Key.From(String.format("dists/my-repo/by-hash/SHA256/%d", num)),
+                DistsCacheTest.content("abc")
+            ).join();
+        }
+        MatcherAssert.assertThat(
+            "Versions of the modified keys are bounded",
+            cache.versions(),
+            new IsEqual<>(1024)
+        );
+        cache.save(DistsCacheTest.RELEASE, DistsCacheTest.content("new")).join();
+        DistsCacheTest.read(cache, DistsCacheTest.RELEASE);
+        MatcherAssert.assertThat(
+            "Saved index is still cached",
+            cache.hits(),
+            new IsEqual<>(1L)
+        );
+    }
+
+    private static String read(final Storage asto, final Key key) {
+        return new PublisherAs(asto.value(key).join()).asciiString()
+            .toCompletableFuture().join();
+    }
+
+    private static Content content(final String value) {
+        return new Content.From(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
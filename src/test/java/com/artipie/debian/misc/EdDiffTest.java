@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import java.util.Arrays;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link EdDiff}.
+ * @since 0.9
+ */
+class EdDiffTest {
+
+    @Test
+    void listsHunksFromTheEnd() {
+        MatcherAssert.assertThat(
+            new EdDiff(
+                Arrays.asList("a\n", "b\n", "c\n"),
+                Arrays.asList("a\n", "x\n", "c\n", "d\n")
+            ).script(),
+            new IsEqual<>(Optional.of("3a\nd\n.\n2c\nx\n.\n"))
+        );
+    }
+
+    @Test
+    void deletesLines() {
+        MatcherAssert.assertThat(
+            new EdDiff(
+                Arrays.asList("a\n", "b\n", "c\n", "d\n"),
+                Arrays.asList("a\n", "d\n")
+            ).script(),
+            new IsEqual<>(Optional.of("2,3d\n"))
+        );
+    }
+
+    @Test
+    void insertsLinesAtTheBeginning() {
+        MatcherAssert.assertThat(
+            new EdDiff(
+                Arrays.asList("a\n", "b"),
+                Arrays.asList("z\n", "a\n", "b")
+            ).script(),
+            new IsEqual<>(Optional.of("0a\nz\n.\n"))
+        );
+    }
+
+    @Test
+    void doesNotAddLineWithoutLineBreak() {
+        MatcherAssert.assertThat(
+            new EdDiff(
+                Arrays.asList("a\n", "b"),
+                Arrays.asList("a\n", "b\n", "c")
+            ).script(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.test.TestResource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openpgp.PGPPublicKeyRingCollection;
+import org.bouncycastle.openpgp.PGPSignature;
+import org.bouncycastle.openpgp.PGPSignatureList;
+import org.bouncycastle.openpgp.PGPUtil;
+import org.bouncycastle.openpgp.jcajce.JcaPGPObjectFactory;
+import org.bouncycastle.openpgp.operator.jcajce.JcaKeyFingerprintCalculator;
+import org.bouncycastle.openpgp.operator.jcajce.JcaPGPContentVerifierBuilderProvider;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.StringContains;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link GpgSigner}.
+ * @since 0.9
+ */
+class GpgSignerTest {
+
+    /**
+     * Content to sign: trailing white space, CRLF and LF line endings, empty lines.
+     */
+    private static final String CONTENT =
+        "Codename: deb \t\r\nDate:\n\n -dash line  \r\nSHA256:\n abc 1 main/Packages\n";
+
+    /**
+     * Canonical text of the content: lines without trailing white space joined with CRLF.
+     */
+    private static final String CANONICAL =
+        "Codename: deb\r\nDate:\r\n\r\n -dash line\r\nSHA256:\r\n abc 1 main/Packages";
+
+    @Test
+    void clearsignsStreamReadByte() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GpgSigner(new TestResource("secret-keys.gpg").asBytes(), "1q2w3e4r5t6y7u")
+            .clearsign(GpgSignerTest.slow(GpgSignerTest.CONTENT), out);
+        final String res = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        MatcherAssert.assertThat(
+            "Content is written as is",
+            res,
+            new StringContains(GpgSignerTest.CONTENT)
+        );
+        MatcherAssert.assertThat(
+            "Canonical text is signed",
+            GpgSignerTest.verify(
+                res.substring(res.indexOf("-----BEGIN PGP SIGNATURE-----")),
+                GpgSignerTest.CANONICAL
+            ),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void signsStreamWithDetachedSignature() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GpgSigner(new TestResource("secret-keys.gpg").asBytes(), "1q2w3e4r5t6y7u")
+            .detached(GpgSignerTest.slow(GpgSignerTest.CONTENT), out);
+        MatcherAssert.assertThat(
+            GpgSignerTest.verify(
+                new String(out.toByteArray(), StandardCharsets.UTF_8), GpgSignerTest.CONTENT
+            ),
+            new IsEqual<>(true)
+        );
+    }
+
+    private static boolean verify(final String armored, final String text) throws Exception {
+        final PGPSignature sign = ((PGPSignatureList) new JcaPGPObjectFactory(
+            PGPUtil.getDecoderStream(
+                new ByteArrayInputStream(armored.getBytes(StandardCharsets.UTF_8))
+            )
+        ).nextObject()).get(0);
+        sign.init(
+            new JcaPGPContentVerifierBuilderProvider().setProvider(new BouncyCastleProvider()),
+            new PGPPublicKeyRingCollection(
+                PGPUtil.getDecoderStream(new TestResource("public-key.asc").asInputStream()),
+                new JcaKeyFingerprintCalculator()
+            ).getPublicKey(sign.getKeyID())
+        );
+        sign.update(text.getBytes(StandardCharsets.UTF_8));
+        return sign.verify();
+    }
+
+    private static InputStream slow(final String text) {
+        return new FilterInputStream(
+            new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))
+        ) {
+            @Override
+            public int read(final byte[] buf, final int off, final int len) throws IOException {
+                return super.read(buf, off, Math.min(len, 1));
+            }
+        };
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.ext.Digests;
+import com.artipie.asto.test.TestResource;
+import java.io.ByteArrayOutputStream;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link GzDigests}.
+ * @since 0.9
+ */
+class GzDigestsTest {
+
+    @Test
+    void calcsPackedAndUnpackedDigests() {
+        final Pair<MultiDigest, MultiDigest> res = new GzDigests(Digests.MD5, Digests.SHA256)
+            .apply(new TestResource("Packages.gz").asInputStream());
+        MatcherAssert.assertThat(
+            "Packed size is correct",
+            res.getLeft().size(),
+            // @checkstyle MagicNumberCheck (1 line)
+            new IsEqual<>(1351L)
+        );
+        MatcherAssert.assertThat(
+            "Packed digest is correct",
+            res.getLeft().hex(Digests.SHA256),
+            new IsEqual<>("eb8cb7a51d9fe47bde0a32a310b93c01dba531c6f8d14362552f65fcc4277af8")
+        );
+        MatcherAssert.assertThat(
+            "Unpacked size is correct",
+            res.getRight().size(),
+            // @checkstyle MagicNumberCheck (1 line)
+            new IsEqual<>(2564L)
+        );
+        MatcherAssert.assertThat(
+            "Unpacked digest is correct",
+            res.getRight().hex(Digests.MD5),
+            new IsEqual<>("8921ecf7f2fb12bed6bb1125d37c7884")
+        );
+    }
+
+    @Test
+    void copiesUnpackedContent() {
+        final ByteArrayOutputStream unpacked = new ByteArrayOutputStream();
+        final Pair<MultiDigest, MultiDigest> res = new GzDigests(Digests.SHA256)
+            .apply(new TestResource("Packages.gz").asInputStream(), unpacked);
+        MatcherAssert.assertThat(
+            "Unpacked content is copied",
+            DigestUtils.sha256Hex(unpacked.toByteArray()),
+            new IsEqual<>(res.getRight().hex(Digests.SHA256))
+        );
+    }
+}
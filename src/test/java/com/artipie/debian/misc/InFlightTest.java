@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link InFlight}.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class InFlightTest {
+
+    @Test
+    void fixedLimitRunsNotMoreThanMax() {
+        final InFlight limit = new InFlight.Fixed(3);
+        final List<CompletableFuture<Integer>> started = new ArrayList<>(10);
+        final List<CompletionStage<Integer>> results = InFlightTest.runPending(limit, started, 10);
+        MatcherAssert.assertThat(
+            "Three tasks started",
+            started.size(),
+            new IsEqual<>(3)
+        );
+        started.get(0).complete(0);
+        MatcherAssert.assertThat(
+            "Next task started after one completed",
+            started.size(),
+            new IsEqual<>(4)
+        );
+        for (int idx = 1; idx < 10; idx = idx + 1) {
+            started.get(idx).complete(idx);
+        }
+        MatcherAssert.assertThat(
+            "All tasks completed",
+            results.get(9).toCompletableFuture().join(),
+            new IsEqual<>(9)
+        );
+    }
+
+    @Test
+    void adaptiveLimitGrowsByOnePerWindowOfFastTasks() {
+        final InFlight limit = new InFlight.Aimd(1, 8, Duration.ofDays(1));
+        for (int idx = 0; idx < 5; idx = idx + 1) {
+            limit.run(() -> CompletableFuture.completedFuture(1)).toCompletableFuture().join();
+        }
+        final List<CompletableFuture<Integer>> started = new ArrayList<>(10);
+        InFlightTest.runPending(limit, started, 10);
+        MatcherAssert.assertThat(
+            started.size(),
+            new IsEqual<>(3)
+        );
+    }
+
+    @Test
+    void adaptiveLimitShrinksWhenTasksFail() {
+        final InFlight limit = new InFlight.Aimd(1, 8, Duration.ofDays(1));
+        for (int idx = 0; idx < 28; idx = idx + 1) {
+            limit.run(() -> CompletableFuture.completedFuture(1)).toCompletableFuture().join();
+        }
+        final CompletableFuture<Integer> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("Storage is too slow"));
+        limit.run(() -> failed).exceptionally(err -> 0).toCompletableFuture().join();
+        final List<CompletableFuture<Integer>> started = new ArrayList<>(10);
+        InFlightTest.runPending(limit, started, 10);
+        MatcherAssert.assertThat(
+            started.size(),
+            new IsEqual<>(4)
+        );
+    }
+
+    @Test
+    void releasesPermissionWhenTaskThrows() {
+        final InFlight limit = new InFlight.Fixed(1);
+        limit.run(
+            () -> {
+                throw new IllegalStateException("Failed to start");
+            }
+        ).exceptionally(err -> null).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            limit.run(() -> CompletableFuture.completedFuture("ok")).toCompletableFuture().join(),
+            new IsEqual<>("ok")
+        );
+    }
+
+    private static List<CompletionStage<Integer>> runPending(
+        final InFlight limit, final List<CompletableFuture<Integer>> started, final int count
+    ) {
+        final List<CompletionStage<Integer>> res = new ArrayList<>(count);
+        for (int idx = 0; idx < count; idx = idx + 1) {
+            res.add(
+                limit.run(
+                    () -> {
+                        final CompletableFuture<Integer> task = new CompletableFuture<>();
+                        started.add(task);
+                        return task;
+                    }
+                )
+            );
+        }
+        return res;
+    }
+
+}
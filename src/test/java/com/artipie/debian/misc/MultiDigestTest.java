@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.ext.Digests;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MultiDigest}.
+ * @since 0.9
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class MultiDigestTest {
+
+    /**
+     * Test content.
+     */
+    private static final byte[] CONTENT = "abc123".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void calcsDigestsOfTheStream() {
+        final MultiDigest digest = new MultiDigest(Digests.MD5, Digests.SHA1, Digests.SHA256)
+            .consume(new ByteArrayInputStream(MultiDigestTest.CONTENT));
+        MatcherAssert.assertThat(
+            "Calculates size",
+            digest.size(),
+            new IsEqual<>((long) MultiDigestTest.CONTENT.length)
+        );
+        MatcherAssert.assertThat(
+            "Calculates md5",
+            digest.hex(Digests.MD5),
+            new IsEqual<>("e99a18c428cb38d5f260853678922e03")
+        );
+        MatcherAssert.assertThat(
+            "Calculates sha1",
+            digest.hex(Digests.SHA1),
+            new IsEqual<>("6367c48dd193d56ea7b0baad25b19455e529f5ee")
+        );
+        MatcherAssert.assertThat(
+            "Calculates sha256",
+            digest.hex(Digests.SHA256),
+            new IsEqual<>("6ca13d52ca70c883e0f0bb101e425a89e8624de51db2d2392593af6a84118090")
+        );
+    }
+
+    @Test
+    void digestsSkippedBytes() throws IOException {
+        final MultiDigest digest = new MultiDigest(Digests.SHA256);
+        try (InputStream input = digest.stream(new ByteArrayInputStream(MultiDigestTest.CONTENT))) {
+            MatcherAssert.assertThat(
+                "Reads first byte",
+                input.read(),
+                new IsEqual<>((int) 'a')
+            );
+            input.skip(MultiDigestTest.CONTENT.length);
+        }
+        MatcherAssert.assertThat(
+            digest.hex(Digests.SHA256),
+            new IsEqual<>("6ca13d52ca70c883e0f0bb101e425a89e8624de51db2d2392593af6a84118090")
+        );
+    }
+
+    @Test
+    void digestsByteBuffers() {
+        final MultiDigest digest = new MultiDigest(Digests.MD5);
+        final ByteBuffer buf = ByteBuffer.wrap(MultiDigestTest.CONTENT);
+        digest.update(buf);
+        MatcherAssert.assertThat(
+            "Buffer position is not changed",
+            buf.position(),
+            new IsEqual<>(0)
+        );
+        MatcherAssert.assertThat(
+            digest.hex(Digests.MD5),
+            new IsEqual<>("e99a18c428cb38d5f260853678922e03")
+        );
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.ext.PublisherAs;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link Ranges}.
+ * @since 0.9
+ */
+class RangesTest {
+
+    @Test
+    void readsFilePart(final @TempDir Path dir) throws IOException {
+        Files.createDirectory(dir.resolve("some"));
+        Files.write(dir.resolve("some/file.txt"), "0123456789".getBytes(StandardCharsets.UTF_8));
+        MatcherAssert.assertThat(
+            new Ranges.FileSystem(dir).value(new Key.From("some", "file.txt"), 3, 4)
+                .thenCompose(opt -> new PublisherAs(opt.get()).asciiString())
+                .toCompletableFuture().join(),
+            new IsEqual<>("3456")
+        );
+    }
+
+    @Test
+    void readsTillTheFileEnd(final @TempDir Path dir) throws IOException {
+        Files.write(dir.resolve("file.txt"), "0123456789".getBytes(StandardCharsets.UTF_8));
+        MatcherAssert.assertThat(
+            new Ranges.FileSystem(dir).value(new Key.From("file.txt"), 8, 100)
+                .thenCompose(opt -> new PublisherAs(opt.get()).asciiString())
+                .toCompletableFuture().join(),
+            new IsEqual<>("89")
+        );
+    }
+
+    @Test
+    void doesNotSupportRanges() {
+        MatcherAssert.assertThat(
+            new Ranges.None().value(new Key.From("any"), 0, 1).toCompletableFuture().join()
+                .isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.test.TestResource;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPPublicKeyRingCollection;
+import org.bouncycastle.openpgp.PGPSignature;
+import org.bouncycastle.openpgp.PGPSignatureGenerator;
+import org.bouncycastle.openpgp.PGPUtil;
+import org.bouncycastle.openpgp.operator.jcajce.JcaKeyFingerprintCalculator;
+import org.bouncycastle.openpgp.operator.jcajce.JcaPGPContentVerifierBuilderProvider;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link SigningKeys}.
+ * @since 0.9
+ */
+class SigningKeysTest {
+
+    /**
+     * Secret key ring password.
+     */
+    private static final String PASS = "1q2w3e4r5t6y7u";
+
+    @Test
+    void createsVerifiableSignaturesWithCachedKey() throws Exception {
+        final SigningKeys keys = new SigningKeys(2);
+        final byte[] ring = new TestResource("secret-keys.gpg").asBytes();
+        for (int num = 0; num < 2; num = num + 1) {
+            final byte[] data = String.format("Codename: deb-%d\n", num)
+                .getBytes(StandardCharsets.UTF_8);
+            final PGPSignatureGenerator sgen = keys.generator(ring, SigningKeysTest.PASS);
+            sgen.update(data);
+            MatcherAssert.assertThat(
+                String.format("Signature #%d is valid", num),
+                SigningKeysTest.verify(sgen.generate(), data),
+                new IsEqual<>(true)
+            );
+        }
+    }
+
+    @Test
+    void unlocksKeyAfterWrongPassword() throws Exception {
+        final SigningKeys keys = new SigningKeys(2);
+        final byte[] ring = new TestResource("secret-keys.gpg").asBytes();
+        Assertions.assertThrows(PGPException.class, () -> keys.generator(ring, "wrong"));
+        final byte[] data = "Codename: deb\n".getBytes(StandardCharsets.UTF_8);
+        final PGPSignatureGenerator sgen = keys.generator(ring, SigningKeysTest.PASS);
+        sgen.update(data);
+        MatcherAssert.assertThat(
+            SigningKeysTest.verify(sgen.generate(), data),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedKey() {
+        final Map<String, Integer> lru = new SigningKeys.Lru<>(2);
+        lru.put("first", 1);
+        lru.put("second", 2);
+        lru.get("first");
+        lru.put("third", 3);
+        MatcherAssert.assertThat(
+            lru.keySet(),
+            Matchers.containsInAnyOrder("first", "third")
+        );
+    }
+
+    private static boolean verify(final PGPSignature sign, final byte[] data) throws Exception {
+        sign.init(
+            new JcaPGPContentVerifierBuilderProvider().setProvider(new BouncyCastleProvider()),
+            new PGPPublicKeyRingCollection(
+                PGPUtil.getDecoderStream(new TestResource("public-key.asc").asInputStream()),
+                new JcaKeyFingerprintCalculator()
+            ).getPublicKey(sign.getKeyID())
+        );
+        sign.update(data);
+        return sign.verify();
+    }
+}
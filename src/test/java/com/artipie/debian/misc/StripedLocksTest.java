@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.Key;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link StripedLocks}.
+ * @since 0.9
+ */
+class StripedLocksTest {
+
+    @Test
+    void runsActionsOnSameKeyOneByOne() {
+        final StripedLocks locks = new StripedLocks(4);
+        final Key key = new Key.From("dists/my/main/binary-amd64/Packages.gz");
+        final CompletableFuture<Void> first = new CompletableFuture<>();
+        final AtomicInteger started = new AtomicInteger();
+        final CompletableFuture<Integer> one = locks.run(
+            key, () -> {
+                started.incrementAndGet();
+                return first.thenApply(nothing -> 1);
+            }
+        ).toCompletableFuture();
+        final CompletableFuture<Integer> two = locks.run(
+            key, () -> CompletableFuture.completedFuture(started.incrementAndGet())
+        ).toCompletableFuture();
+        MatcherAssert.assertThat(
+            "Second action waits for the first one",
+            started.get(),
+            new IsEqual<>(1)
+        );
+        first.complete(null);
+        MatcherAssert.assertThat(
+            "First action result is returned",
+            one.join(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Second action runs after the first one",
+            two.join(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void runsActionsOnDifferentStripesInParallel() {
+        final StripedLocks locks = new StripedLocks(2);
+        final CompletableFuture<Void> blocked = new CompletableFuture<>();
+        locks.run(new Key.From("a"), () -> blocked);
+        MatcherAssert.assertThat(
+            locks.run(new Key.From("b"), () -> CompletableFuture.completedFuture("done"))
+                .toCompletableFuture().join(),
+            new IsEqual<>("done")
+        );
+        blocked.complete(null);
+    }
+
+    @Test
+    void releasesLockOnFailure() {
+        final StripedLocks locks = new StripedLocks(1);
+        final Key key = new Key.From("Release");
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> locks.<Void>run(
+                key, () -> {
+                    throw new IllegalStateException("Failed");
+                }
+            ).toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            "Failure is propagated",
+            err.getCause(),
+            new IsInstanceOf(IllegalStateException.class)
+        );
+        MatcherAssert.assertThat(
+            "Next action runs",
+            locks.run(key, () -> CompletableFuture.completedFuture(true))
+                .toCompletableFuture().join(),
+            new IsEqual<>(true)
+        );
+    }
+}